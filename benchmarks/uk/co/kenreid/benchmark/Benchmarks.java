@@ -0,0 +1,38 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The Class Benchmarks. Runs the JMH benchmarks with the GC profiler, so every
+ * result has its allocation rate beside its throughput. Takes the usual JMH
+ * arguments, e.g. a benchmark name pattern or {@code -p length=1000}.
+ *
+ * Build with {@code mvn -P benchmark package}, then run
+ * {@code java -jar target/benchmarks.jar}.
+ */
+public class Benchmarks {
+
+	/**
+	 * The main method.
+	 *
+	 * @param args
+	 *            the JMH arguments
+	 * @throws CommandLineOptionException
+	 *             if the arguments are not understood
+	 * @throws RunnerException
+	 *             if a benchmark fails
+	 */
+	public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+		final CommandLineOptions commandLine = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.co.kenreid.dataobjects.Context;
+
+/**
+ * The Class BatchThroughputBenchmark. Whole runs of a fixed number of
+ * proposals against the batch size K. Each run is held hot, so it never solves
+ * the problem and stops early, and makes the same number of proposals whatever
+ * K is, so runs per second compare proposals per second directly.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchThroughputBenchmark {
+
+	/** The batch size, i.e. the moves proposed and scored together. */
+	@Param({ "1", "2", "4", "8", "16", "32", "64" })
+	public int batchSize;
+
+	/** The ctx. */
+	private Context ctx;
+
+	/** The problem length. */
+	@Param({ "56" })
+	public int length;
+
+	/** The proposals of each run. */
+	@Param({ "1000000" })
+	public long proposals;
+
+	/** How a move of each batch is picked, see {@link BatchPolicy.Selection}. */
+	@Param({ "FIRST_ACCEPTED", "BEST_ACCEPTED" })
+	public BatchPolicy.Selection selection;
+
+	/**
+	 * Go.
+	 *
+	 * @return the run
+	 */
+	@Benchmark
+	public SimulatedAnnealing<?, ?> go() {
+		final SimulatedAnnealing<?, ?> sA = new SimulatedAnnealing<>(this.ctx, new StringMatchProblem(this.ctx));
+		sA.go();
+		return sA;
+	}
+
+	/**
+	 * Sets the up.
+	 */
+	@Setup
+	public void setUp() {
+		this.ctx = BenchmarkProblems.context(this.length, StringMatchProblem.POTENTIALS.length, 1000000, 0);
+		this.ctx.setBatchPolicy(this.selection == BatchPolicy.Selection.FIRST_ACCEPTED ? BatchPolicy.firstAccepted(this.batchSize)
+				: BatchPolicy.bestAccepted(this.batchSize));
+		// hot enough that the problem is never solved, so every run makes every proposal
+		this.ctx.setCoolingSchedule(new GeometricCooling(1000000, 0, CoolingSchedule.DEFAULT_MINIMUM_TEMPERATURE, Budget.iterations(this.proposals)));
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import uk.co.kenreid.dataobjects.Context;
+
+/**
+ * The Class BenchmarkProblems. Contexts for benchmarks, each with a problem
+ * from the {@link ProblemGenerator} of a given length, drawn from a given
+ * number of the characters a mutation can create. The same arguments always
+ * give the same problem.
+ */
+final class BenchmarkProblems {
+
+	/** The seed of every benchmark problem and run. */
+	static final long SEED = 20181106L;
+
+	/**
+	 * Context, with a random problem.
+	 *
+	 * @param length
+	 *            the problem length
+	 * @param alphabet
+	 *            the number of distinct characters the problem is made from, at
+	 *            most {@link StringMatchProblem#POTENTIALS}.length
+	 * @param startingTemperature
+	 *            the starting temperature
+	 * @param coolingRate
+	 *            the cooling rate
+	 * @return the context
+	 */
+	static Context context(final int length, final int alphabet, final double startingTemperature, final double coolingRate) {
+		return BenchmarkProblems.context(length, alphabet, ProblemGenerator.Structure.RANDOM, startingTemperature, coolingRate);
+	}
+
+	/**
+	 * Context. Monitoring and the trace are off, so the figures are of the
+	 * annealing alone.
+	 *
+	 * @param length
+	 *            the problem length
+	 * @param alphabet
+	 *            the number of distinct characters the problem is made from, at
+	 *            most {@link StringMatchProblem#POTENTIALS}.length
+	 * @param structure
+	 *            the structure of the problem
+	 * @param startingTemperature
+	 *            the starting temperature
+	 * @param coolingRate
+	 *            the cooling rate
+	 * @return the context
+	 */
+	static Context context(final int length, final int alphabet, final ProblemGenerator.Structure structure, final double startingTemperature,
+			final double coolingRate) {
+		final Map<String, Double> weightings = new HashMap<>();
+		weightings.put("SC1", 0.5);
+		weightings.put("SC2", 0.5);
+
+		final Context ctx = new Context();
+		ctx.setProblem(ProblemGenerator.generate(length, alphabet, structure, BenchmarkProblems.SEED));
+		ctx.setWeightings(weightings);
+		ctx.setStartingTemperature(startingTemperature);
+		ctx.setCoolingRate(coolingRate);
+		ctx.setSeed(BenchmarkProblems.SEED);
+		ctx.setMonitored(false);
+		ctx.setTracePolicy(TracePolicy.off());
+		return ctx;
+	}
+
+	/**
+	 * Instantiates a new benchmark problems.
+	 */
+	private BenchmarkProblems() {
+	}
+}
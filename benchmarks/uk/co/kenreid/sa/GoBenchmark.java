@@ -0,0 +1,71 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.co.kenreid.dataobjects.Context;
+
+/**
+ * The Class GoBenchmark. A whole run of a fixed number of iterations, from
+ * creating the initial solution to finishing. The temperature is held high
+ * enough that no run finds the answer early, so every run does the same work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GoBenchmark {
+
+	/** The number of distinct characters in the problem. */
+	@Param({ "4", "16", "63" })
+	public int alphabet;
+
+	/** The ctx. */
+	private Context ctx;
+
+	/** The iterations of each run. */
+	@Param({ "100000" })
+	public long iterations;
+
+	/** The problem length. */
+	@Param({ "56", "1000", "100000" })
+	public int length;
+
+	/**
+	 * Go.
+	 *
+	 * @return the run
+	 */
+	@Benchmark
+	public SimulatedAnnealing<?, ?> go() {
+		final SimulatedAnnealing<?, ?> sA = new SimulatedAnnealing<>(this.ctx, new StringMatchProblem(this.ctx));
+		sA.go();
+		return sA;
+	}
+
+	/**
+	 * Sets the up.
+	 */
+	@Setup
+	public void setUp() {
+		this.ctx = BenchmarkProblems.context(this.length, this.alphabet, 1000000, 0);
+		this.ctx.setCoolingSchedule(new GeometricCooling(1000000, 0, CoolingSchedule.DEFAULT_MINIMUM_TEMPERATURE, Budget.iterations(this.iterations)));
+	}
+}
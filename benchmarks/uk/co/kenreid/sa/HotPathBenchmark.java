@@ -0,0 +1,118 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.co.kenreid.dataobjects.Context;
+
+/**
+ * The Class HotPathBenchmark. The pieces of a run that are done per iteration
+ * or per run: a single mutation step (what was mutateString), creating the
+ * random initial solution (what was createRandomString), a full fitness
+ * evaluation and the acceptance probability.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathBenchmark {
+
+	/** The number of distinct characters in the problem. */
+	@Param({ "4", "16", "63" })
+	public int alphabet;
+
+	/** The ctx. */
+	private Context ctx;
+
+	/** The current fitness, for the acceptance probability. */
+	private double currentFitness;
+
+	/** The problem length. */
+	@Param({ "56", "1000", "100000" })
+	public int length;
+
+	/** The problem. */
+	private StringMatchProblem problem;
+
+	/** The run. */
+	private SimulatedAnnealing<StringMatchProblem.State, StringEdit> sA;
+
+	/** The solution, for full fitness evaluations. */
+	private String solution;
+
+	/** A worse fitness, so the acceptance probability is worked out. */
+	private double worseFitness;
+
+	/**
+	 * Acceptance probability of a move one character worse.
+	 *
+	 * @return the probability
+	 */
+	@Benchmark
+	public double acceptanceProbability() {
+		return this.sA.acceptanceProbability(this.currentFitness, this.worseFitness);
+	}
+
+	/**
+	 * Creates the random initial state, scored in full.
+	 *
+	 * @return the state
+	 */
+	@Benchmark
+	public StringMatchProblem.State createInitialState() {
+		return this.problem.createInitialState(this.sA.function.getRandom());
+	}
+
+	/**
+	 * A full fitness evaluation.
+	 *
+	 * @return the fitness
+	 */
+	@Benchmark
+	public Fitness fitness() {
+		return new Fitness(this.ctx, this.solution);
+	}
+
+	/**
+	 * Sets the up.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.ctx = BenchmarkProblems.context(this.length, this.alphabet, 1000, 0.003);
+		this.problem = new StringMatchProblem(this.ctx);
+		this.sA = new SimulatedAnnealing<>(this.ctx, this.problem);
+		this.sA.initialise();
+		this.solution = this.sA.getCurrentSolution();
+		this.currentFitness = this.sA.getFitness();
+		this.worseFitness = this.currentFitness - 1.0 / this.length;
+	}
+
+	/**
+	 * A single mutation step at the starting temperature: propose, score, and
+	 * keep or revert.
+	 *
+	 * @return true, if the mutation was accepted
+	 */
+	@Benchmark
+	public boolean step() {
+		return this.sA.step();
+	}
+}
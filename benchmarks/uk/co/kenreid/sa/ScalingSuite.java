@@ -0,0 +1,246 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import uk.co.kenreid.dataobjects.Context;
+
+/**
+ * The Class ScalingSuite. Runs the engine on generated problems of each
+ * structure and of lengths from 10^2 to 10^7, and prints a line of CSV per run:
+ * iterations per second, the time taken to reach the target fitness, and the
+ * peak heap. Every line carries a label, so the results of several releases
+ * can be kept in one file (see -out) and drawn as curves side by side.
+ *
+ * Each run stops at the target fitness or at the time limit, whichever comes
+ * first. The temperature is held at a tenth of one character's worth of
+ * energy, whatever the length, so nearly every worse move is refused and runs
+ * of every length are alike. The first run is thrown away to let the JIT
+ * settle.
+ *
+ * Build with {@code mvn -P benchmark package}, then run
+ * {@code java -cp target/benchmarks.jar uk.co.kenreid.sa.ScalingSuite}, with
+ * any of -alphabet n, -label name, -lengths n,n,..., -out file, -seconds n,
+ * -structures random,repetitive,delimited and -target fitness.
+ */
+public class ScalingSuite {
+
+	/** The lengths run unless others are given. */
+	private static final String DEFAULT_LENGTHS = "100,1000,10000,100000,1000000,10000000";
+
+	/** The header of the results. */
+	private static final String HEADER = "label,structure,alphabet,length,target,reached,iterations,seconds,iterationsPerSecond,secondsToTarget,peakHeapMB";
+
+	/** The length of the warm-up run. */
+	private static final int WARM_UP_LENGTH = 1000;
+
+	/** The time limit of the warm-up run, in milliseconds. */
+	private static final long WARM_UP_MILLIS = 2000;
+
+	/**
+	 * The main method.
+	 *
+	 * @param args
+	 *            the arguments, as option and value pairs
+	 * @throws FileNotFoundException
+	 *             if the output file cannot be written
+	 */
+	public static void main(final String[] args) throws FileNotFoundException {
+		int alphabet = 16;
+		String label = "current";
+		String lengths = ScalingSuite.DEFAULT_LENGTHS;
+		String out = null;
+		long seconds = 30;
+		String structures = "random,repetitive,delimited";
+		double targetFitness = 0.95;
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("No value for " + args[i]);
+			}
+			final String value = args[i + 1];
+			switch (args[i]) {
+			case "-alphabet":
+				alphabet = Integer.parseInt(value);
+				break;
+			case "-label":
+				label = value;
+				break;
+			case "-lengths":
+				lengths = value;
+				break;
+			case "-out":
+				out = value;
+				break;
+			case "-seconds":
+				seconds = Long.parseLong(value);
+				break;
+			case "-structures":
+				structures = value;
+				break;
+			case "-target":
+				targetFitness = Double.parseDouble(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		final List<Integer> lengthList = new ArrayList<>();
+		for (final String length : lengths.split(",")) {
+			lengthList.add(Integer.valueOf(length.trim()));
+		}
+		final List<ProblemGenerator.Structure> structureList = new ArrayList<>();
+		for (final String structure : structures.split(",")) {
+			structureList.add(ProblemGenerator.Structure.valueOf(structure.trim().toUpperCase(Locale.ROOT)));
+		}
+		final ScalingSuite suite = new ScalingSuite(label, structureList, lengthList, alphabet, targetFitness, seconds * 1000);
+
+		if (out == null) {
+			System.out.println(ScalingSuite.HEADER);
+			suite.go(System.out);
+		}
+		else {
+			// results are added to the file, so it can hold those of several releases
+			final File file = new File(out);
+			final boolean exists = file.length() > 0;
+			try (final PrintStream results = new PrintStream(new FileOutputStream(file, true), true)) {
+				if (!exists) {
+					results.println(ScalingSuite.HEADER);
+				}
+				suite.go(results);
+			}
+		}
+	}
+
+	/**
+	 * Gets the peak heap since the peaks were last reset, as the sum of the peaks
+	 * of the heap pools. The pools need not peak at once, so this can be a little
+	 * over the true peak.
+	 *
+	 * @return the peak heap in bytes
+	 */
+	private static long peakHeap() {
+		long peak = 0;
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+	/**
+	 * Resets the peaks of the heap pools, after collecting what garbage there is.
+	 */
+	private static void resetPeakHeap() {
+		System.gc();
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	/** The number of distinct characters in each problem. */
+	private final int alphabet;
+
+	/** The label of every line, e.g. the release. */
+	private final String label;
+
+	/** The problem lengths. */
+	private final List<Integer> lengths;
+
+	/** The time limit of each run, in milliseconds. */
+	private final long millis;
+
+	/** The problem structures. */
+	private final List<ProblemGenerator.Structure> structures;
+
+	/** The target fitness. */
+	private final double targetFitness;
+
+	/**
+	 * Instantiates a new scaling suite.
+	 *
+	 * @param label
+	 *            the label of every line, e.g. the release
+	 * @param structures
+	 *            the problem structures
+	 * @param lengths
+	 *            the problem lengths
+	 * @param alphabet
+	 *            the number of distinct characters in each problem
+	 * @param targetFitness
+	 *            the target fitness
+	 * @param millis
+	 *            the time limit of each run, in milliseconds
+	 */
+	public ScalingSuite(final String label, final List<ProblemGenerator.Structure> structures, final List<Integer> lengths, final int alphabet,
+			final double targetFitness, final long millis) {
+		this.label = label;
+		this.structures = structures;
+		this.lengths = lengths;
+		this.alphabet = alphabet;
+		this.targetFitness = targetFitness;
+		this.millis = millis;
+	}
+
+	/**
+	 * Go. Prints a line per structure and length, as each run finishes.
+	 *
+	 * @param results
+	 *            where the lines go
+	 */
+	public void go(final PrintStream results) {
+		this.run(ProblemGenerator.Structure.RANDOM, ScalingSuite.WARM_UP_LENGTH, ScalingSuite.WARM_UP_MILLIS);
+		for (final ProblemGenerator.Structure structure : this.structures) {
+			for (final int length : this.lengths) {
+				results.println(this.run(structure, length, this.millis));
+				results.flush();
+			}
+		}
+	}
+
+	/**
+	 * Run. Generates the problem, then anneals it until the target fitness or the
+	 * time limit.
+	 *
+	 * @param structure
+	 *            the problem structure
+	 * @param length
+	 *            the problem length
+	 * @param runMillis
+	 *            the time limit, in milliseconds
+	 * @return the line of results
+	 */
+	private String run(final ProblemGenerator.Structure structure, final int length, final long runMillis) {
+		final Context ctx = BenchmarkProblems.context(length, this.alphabet, structure, 0, 0);
+		final double characterFitness = ctx.getWeightingsPerConstraint().get("SC1") / length;
+		final double temperature = SimulatedAnnealing.energyCost(1 - characterFitness) / 10;
+		ctx.setCoolingSchedule(new GeometricCooling(temperature, 0, 0, Budget.wallTime(runMillis)));
+		ctx.setTargetFitness(this.targetFitness);
+
+		ScalingSuite.resetPeakHeap();
+		final SimulatedAnnealing<?, ?> sA = new SimulatedAnnealing<>(ctx, new StringMatchProblem(ctx));
+		sA.go();
+		final long peakHeap = ScalingSuite.peakHeap();
+
+		final double seconds = sA.getElapsedNanos() / 1e9;
+		final boolean reached = sA.getFinalFitness() >= this.targetFitness;
+		return String.format(Locale.ROOT, "%s,%s,%d,%d,%s,%b,%d,%.3f,%.0f,%s,%.1f", this.label, structure.name().toLowerCase(Locale.ROOT), this.alphabet,
+				length, this.targetFitness, reached, sA.getIterations(), seconds, sA.getIterations() / seconds,
+				reached ? String.format(Locale.ROOT, "%.3f", seconds) : "", peakHeap / 1048576.0);
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.dataobjects;
+
+/**
+ * The Class ChainStatistics. Summary of one annealing chain of a multi-start
+ * run.
+ */
+public class ChainStatistics {
+
+	/** The chain. */
+	private final int chain;
+
+	/** The final fitness. */
+	private final double finalFitness;
+
+	/** The iterations. */
+	private final long iterations;
+
+	/** The wall time in milliseconds. */
+	private final long wallTimeMillis;
+
+	/**
+	 * Instantiates new chain statistics.
+	 *
+	 * @param chain
+	 *            the chain
+	 * @param finalFitness
+	 *            the final fitness
+	 * @param iterations
+	 *            the iterations
+	 * @param wallTimeMillis
+	 *            the wall time in milliseconds
+	 */
+	public ChainStatistics(final int chain, final double finalFitness, final long iterations, final long wallTimeMillis) {
+		this.chain = chain;
+		this.finalFitness = finalFitness;
+		this.iterations = iterations;
+		this.wallTimeMillis = wallTimeMillis;
+	}
+
+	/**
+	 * Gets the chain.
+	 *
+	 * @return the chain
+	 */
+	public int getChain() {
+		return this.chain;
+	}
+
+	/**
+	 * Gets the final fitness.
+	 *
+	 * @return the final fitness
+	 */
+	public double getFinalFitness() {
+		return this.finalFitness;
+	}
+
+	/**
+	 * Gets the iterations.
+	 *
+	 * @return the iterations
+	 */
+	public long getIterations() {
+		return this.iterations;
+	}
+
+	/**
+	 * Gets the wall time in milliseconds.
+	 *
+	 * @return the wall time
+	 */
+	public long getWallTimeMillis() {
+		return this.wallTimeMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "Chain " + this.chain + ": fitness " + this.finalFitness + " after " + this.iterations + " iterations in " + this.wallTimeMillis + "ms";
+	}
+}
@@ -4,8 +4,21 @@
  */
 package uk.co.kenreid.dataobjects;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import uk.co.kenreid.sa.AnnealingListener;
+import uk.co.kenreid.sa.BatchPolicy;
+import uk.co.kenreid.sa.Budget;
+import uk.co.kenreid.sa.Checkpoint;
+import uk.co.kenreid.sa.CoolingSchedule;
+import uk.co.kenreid.sa.FitnessCache;
+import uk.co.kenreid.sa.TracePolicy;
 
 /**
  * The Class Context. Context is the go to class for storing settings and
@@ -13,21 +26,52 @@ import java.util.Map;
  */
 public class Context {
 
+	/** The batch policy, i.e. how many moves each step proposes. */
+	private BatchPolicy batchPolicy = BatchPolicy.single();
+
+	/** The file checkpoints of a run are written to, or null for none. */
+	private Path checkpointFile;
+
+	/** The time between checkpoints, in milliseconds. */
+	private long checkpointIntervalMillis = Checkpoint.DEFAULT_INTERVAL_MILLIS;
+
 	/** The cooling rate. */
 	private double coolingRate;
 
-	/** The original solution fitness. */
-	private Map<String, Double> originalSolutionFitness = new HashMap<>();
+	/** The cooling schedule, or null for geometric cooling at the cooling rate. */
+	private CoolingSchedule coolingSchedule;
+
+	/** The fitness cache, or null for none. Shared by copies. */
+	private FitnessCache fitnessCache;
+
+	/** The listeners, shared by copies. */
+	private List<AnnealingListener> listeners = new CopyOnWriteArrayList<>();
+
+	/** Whether runs are registered with JMX while they go on. */
+	private boolean monitored = true;
+
+	/**
+	 * The names of the move operators a run picks between as it goes, or empty
+	 * for the problem's own move.
+	 */
+	private List<String> operators = Collections.emptyList();
 
-	/** The original solution weighted fitness. */
-	private Map<String, Double> originalSolutionWeightedFitness = new HashMap<>();
+	/** The seed for the random numbers of a run, or null to seed randomly. */
+	private Long seed;
 
-	/** The problem. */
-	private final String problem = "1-7-3-4-6-7-3-2-1-4-7-6-Charlie-3-2-7-8-9-7-7-7-6-4-3-Tango-7-3-2-Victor-7-3-1-1-7-8-8-8-7-3-2-4-7-6-7-8-9-7-6-4-3-7-6";
+	/** The problem, shared by copies. */
+	private Target target = Target.of(
+			"1-7-3-4-6-7-3-2-1-4-7-6-Charlie-3-2-7-8-9-7-7-7-6-4-3-Tango-7-3-2-Victor-7-3-1-1-7-8-8-8-7-3-2-4-7-6-7-8-9-7-6-4-3-7-6");
+
+	/** The best fitness at which a run stops, as it has done what was wanted. */
+	private double targetFitness = 1;
 
 	/** The temperature. */
 	private double temperature;
 
+	/** The trace policy, i.e. how much per-iteration history a run keeps. */
+	private TracePolicy tracePolicy = TracePolicy.full();
+
 	/** The verbose. */
 	private boolean verbose;
 
@@ -35,20 +79,71 @@ public class Context {
 	private Map<String, Double> weightingsPerConstraint;
 
 	/**
-	 * Copy.
+	 * Adds a listener, to hear about every run started with this context (or a
+	 * copy of it) from then on.
+	 *
+	 * @param listener
+	 *            the listener
+	 */
+	public void addListener(final AnnealingListener listener) {
+		this.listeners.add(listener);
+	}
+
+	/**
+	 * Copy. Each chain of a multi-start run gets its own copy, so nothing written
+	 * during one run is seen by another. The checkpoint file is not copied, as a
+	 * checkpoint is of a single run. Listeners are shared, so hear from every
+	 * chain, as is the problem, which is only ever read.
 	 *
 	 * @return the context
 	 */
 	public Context copy() {
 		final Context ctx = new Context();
+		ctx.setTarget(this.target);
 		ctx.setWeightingsPerConstraint(new HashMap<>(this.weightingsPerConstraint));
 		ctx.setStartingTemperature(this.getTemperature());
 		ctx.setCoolingRate(this.getCoolingRate());
-		ctx.setOriginalSolutionFitness(this.originalSolutionFitness);
-		ctx.setTemperature(this.temperature);
+		ctx.setCoolingSchedule(this.coolingSchedule);
+		ctx.setBatchPolicy(this.batchPolicy);
+		ctx.setFitnessCache(this.fitnessCache);
+		ctx.listeners = this.listeners;
+		ctx.setSeed(this.seed);
+		ctx.setTargetFitness(this.targetFitness);
+		ctx.setVerbose(this.verbose);
+		ctx.setMonitored(this.monitored);
+		ctx.setOperators(this.operators);
+		ctx.setTracePolicy(this.tracePolicy);
+		ctx.setCheckpointIntervalMillis(this.checkpointIntervalMillis);
 		return ctx;
 	}
 
+	/**
+	 * Gets the batch policy.
+	 *
+	 * @return the batch policy
+	 */
+	public BatchPolicy getBatchPolicy() {
+		return this.batchPolicy;
+	}
+
+	/**
+	 * Gets the checkpoint file.
+	 *
+	 * @return the checkpoint file, or null for none
+	 */
+	public Path getCheckpointFile() {
+		return this.checkpointFile;
+	}
+
+	/**
+	 * Gets the time between checkpoints.
+	 *
+	 * @return the checkpoint interval in milliseconds
+	 */
+	public long getCheckpointIntervalMillis() {
+		return this.checkpointIntervalMillis;
+	}
+
 	/**
 	 * Gets the cooling rate.
 	 *
@@ -59,30 +154,81 @@ public class Context {
 	}
 
 	/**
-	 * Gets the original solution fitness.
+	 * Gets the cooling schedule. Unless one has been set, this is geometric
+	 * cooling from the temperature at the cooling rate, as it always was.
+	 *
+	 * @return the cooling schedule
+	 */
+	public CoolingSchedule getCoolingSchedule() {
+		if (this.coolingSchedule == null) {
+			return CoolingSchedule.create("geometric", this.temperature, this.coolingRate, Budget.none());
+		}
+		return this.coolingSchedule;
+	}
+
+	/**
+	 * Gets the fitness cache.
 	 *
-	 * @return the original solution fitness
+	 * @return the fitness cache, or null for none
 	 */
-	public Map<String, Double> getOriginalSolutionFitness() {
-		return this.originalSolutionFitness;
+	public FitnessCache getFitnessCache() {
+		return this.fitnessCache;
 	}
 
 	/**
-	 * Gets the original solution weighted fitness.
+	 * Gets the listeners.
 	 *
-	 * @return the original solution weighted fitness
+	 * @return the listeners
 	 */
-	public Map<String, Double> getOriginalSolutionWeightedFitness() {
-		return this.originalSolutionWeightedFitness;
+	public List<AnnealingListener> getListeners() {
+		return this.listeners;
 	}
 
 	/**
-	 * Gets the problem.
+	 * Gets the names of the move operators.
+	 *
+	 * @return the operators, or empty for the problem's own move
+	 */
+	public List<String> getOperators() {
+		return this.operators;
+	}
+
+	/**
+	 * Gets the problem as a string. A problem loaded from a file is copied onto
+	 * the heap to make it, so this is best kept for showing to people; the
+	 * annealing itself uses {@link #getTarget()}.
 	 *
 	 * @return the problem
 	 */
 	public String getProblem() {
-		return this.problem;
+		return this.target.toString();
+	}
+
+	/**
+	 * Gets the seed.
+	 *
+	 * @return the seed, or null to seed randomly
+	 */
+	public Long getSeed() {
+		return this.seed;
+	}
+
+	/**
+	 * Gets the target, i.e. the problem as bytes, one per character.
+	 *
+	 * @return the target
+	 */
+	public Target getTarget() {
+		return this.target;
+	}
+
+	/**
+	 * Gets the target fitness.
+	 *
+	 * @return the target fitness
+	 */
+	public double getTargetFitness() {
+		return this.targetFitness;
 	}
 
 	/**
@@ -94,6 +240,15 @@ public class Context {
 		return this.temperature;
 	}
 
+	/**
+	 * Gets the trace policy.
+	 *
+	 * @return the trace policy
+	 */
+	public TracePolicy getTracePolicy() {
+		return this.tracePolicy;
+	}
+
 	/**
 	 * Gets the weightings per constraint.
 	 *
@@ -103,6 +258,15 @@ public class Context {
 		return this.weightingsPerConstraint;
 	}
 
+	/**
+	 * Checks if runs are monitored, i.e. registered with JMX while they go on.
+	 *
+	 * @return true, if monitored
+	 */
+	public boolean isMonitored() {
+		return this.monitored;
+	}
+
 	/**
 	 * Checks if is verbose.
 	 *
@@ -112,6 +276,48 @@ public class Context {
 		return this.verbose;
 	}
 
+	/**
+	 * Removes a listener.
+	 *
+	 * @param listener
+	 *            the listener
+	 */
+	public void removeListener(final AnnealingListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	/**
+	 * Sets the batch policy.
+	 *
+	 * @param batchPolicy
+	 *            the new batch policy
+	 */
+	public void setBatchPolicy(final BatchPolicy batchPolicy) {
+		this.batchPolicy = batchPolicy;
+	}
+
+	/**
+	 * Sets the checkpoint file. A run with one writes a checkpoint to it every so
+	 * often, which {@link uk.co.kenreid.sa.SimulatedAnnealing#resume(Checkpoint)}
+	 * can carry on from.
+	 *
+	 * @param checkpointFile
+	 *            the new checkpoint file, or null for none
+	 */
+	public void setCheckpointFile(final Path checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
+	/**
+	 * Sets the time between checkpoints.
+	 *
+	 * @param checkpointIntervalMillis
+	 *            the new checkpoint interval in milliseconds
+	 */
+	public void setCheckpointIntervalMillis(final long checkpointIntervalMillis) {
+		this.checkpointIntervalMillis = checkpointIntervalMillis;
+	}
+
 	/**
 	 * Sets the cooling rate.
 	 *
@@ -123,23 +329,68 @@ public class Context {
 	}
 
 	/**
-	 * Sets the original solution fitness.
+	 * Sets the cooling schedule.
+	 *
+	 * @param coolingSchedule
+	 *            the new cooling schedule
+	 */
+	public void setCoolingSchedule(final CoolingSchedule coolingSchedule) {
+		this.coolingSchedule = coolingSchedule;
+	}
+
+	/**
+	 * Sets the fitness cache. Copies of the context share it, so the chains of a
+	 * multi-start run all use the one cache.
 	 *
-	 * @param originalSolutionFitness
-	 *            the original solution fitness
+	 * @param fitnessCache
+	 *            the new fitness cache, or null for none
 	 */
-	public void setOriginalSolutionFitness(final Map<String, Double> originalSolutionFitness) {
-		this.originalSolutionFitness = originalSolutionFitness;
+	public void setFitnessCache(final FitnessCache fitnessCache) {
+		this.fitnessCache = fitnessCache;
 	}
 
 	/**
-	 * Sets the original solution weighted fitness.
+	 * Sets whether runs are monitored. On by default.
 	 *
-	 * @param originalSolutionWeightedFitness
-	 *            the original solution weighted fitness
+	 * @param monitored
+	 *            the new monitored
 	 */
-	public void setOriginalSolutionWeightedFitness(final Map<String, Double> originalSolutionWeightedFitness) {
-		this.originalSolutionWeightedFitness = originalSolutionWeightedFitness;
+	public void setMonitored(final boolean monitored) {
+		this.monitored = monitored;
+	}
+
+	/**
+	 * Sets the names of the move operators a run picks between, see
+	 * {@link uk.co.kenreid.sa.OperatorSelector}. "all" stands for every operator
+	 * the problem has.
+	 *
+	 * @param operators
+	 *            the new operators, or empty for the problem's own move
+	 */
+	public void setOperators(final List<String> operators) {
+		this.operators = Collections.unmodifiableList(new ArrayList<>(operators));
+	}
+
+	/**
+	 * Sets the problem, i.e. the string to be found. Characters outside ISO 8859-1
+	 * cannot be matched.
+	 *
+	 * @param problem
+	 *            the new problem
+	 */
+	public void setProblem(final String problem) {
+		this.setTarget(Target.of(problem));
+	}
+
+	/**
+	 * Sets the seed. Two runs with the same seed and settings produce the same
+	 * result.
+	 *
+	 * @param seed
+	 *            the new seed, or null to seed randomly
+	 */
+	public void setSeed(final Long seed) {
+		this.seed = seed;
 	}
 
 	/**
@@ -152,6 +403,29 @@ public class Context {
 		this.setTemperature(temperature);
 	}
 
+	/**
+	 * Sets the target, e.g. a problem file loaded by
+	 * {@link uk.co.kenreid.io.TargetLoader}.
+	 *
+	 * @param target
+	 *            the new target
+	 */
+	public void setTarget(final Target target) {
+		this.target = target;
+	}
+
+	/**
+	 * Sets the target fitness. A run stops as soon as its best fitness reaches
+	 * it, so the elapsed time of a run that reached it is the time it took. By
+	 * default this is 1, i.e. a run goes on until the problem is solved.
+	 *
+	 * @param targetFitness
+	 *            the new target fitness
+	 */
+	public void setTargetFitness(final double targetFitness) {
+		this.targetFitness = targetFitness;
+	}
+
 	/**
 	 * Sets the temperature.
 	 *
@@ -162,6 +436,16 @@ public class Context {
 		this.temperature = temperature;
 	}
 
+	/**
+	 * Sets the trace policy.
+	 *
+	 * @param tracePolicy
+	 *            the new trace policy
+	 */
+	public void setTracePolicy(final TracePolicy tracePolicy) {
+		this.tracePolicy = tracePolicy;
+	}
+
 	/**
 	 * Sets the verbose.
 	 *
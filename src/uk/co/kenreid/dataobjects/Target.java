@@ -0,0 +1,163 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.dataobjects;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The Class Target. The problem, i.e. the string to be found, as a read-only
+ * view of its bytes, one per character (ISO 8859-1). The bytes are either on
+ * the heap, for a problem given as a string, or a file mapped into memory by
+ * {@link uk.co.kenreid.io.TargetLoader}, which takes no heap however long the
+ * problem is. Only ever read, and only at given positions, so one target can be
+ * shared by any number of runs at once.
+ */
+public final class Target {
+
+	/**
+	 * Checks if every character of the given string fits in one byte (ISO
+	 * 8859-1), so it survives being turned into bytes.
+	 *
+	 * @param string
+	 *            the string
+	 * @return true, if single byte
+	 */
+	public static boolean isSingleByte(final String string) {
+		for (int position = 0; position < string.length(); position++) {
+			if (string.charAt(position) > 0xff) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Of. A target of the given problem.
+	 *
+	 * @param problem
+	 *            the problem. Characters outside ISO 8859-1 become '?' in the
+	 *            bytes, see {@link #isSingleByte()}.
+	 * @return the target
+	 */
+	public static Target of(final String problem) {
+		return new Target(ByteBuffer.wrap(problem.getBytes(StandardCharsets.ISO_8859_1)), problem);
+	}
+
+	/**
+	 * Wrap. A target of the given bytes, which must not be changed afterwards.
+	 *
+	 * @param problem
+	 *            the problem, one byte per character
+	 * @return the target
+	 */
+	public static Target wrap(final byte[] problem) {
+		return new Target(ByteBuffer.wrap(problem), null);
+	}
+
+	/** The bytes, from index 0. */
+	private final ByteBuffer bytes;
+
+	/** The length. */
+	private final int length;
+
+	/** The problem as a string, or null if it was not given as one. */
+	private final String problem;
+
+	/** Whether the bytes are the problem exactly, one per character. */
+	private final boolean singleByte;
+
+	/**
+	 * Instantiates a new target of the remaining bytes of the given buffer, e.g. a
+	 * mapped file. The buffer's contents must not be changed afterwards.
+	 *
+	 * @param bytes
+	 *            the bytes, one per character
+	 */
+	public Target(final ByteBuffer bytes) {
+		this(bytes, null);
+	}
+
+	/**
+	 * Instantiates a new target.
+	 *
+	 * @param bytes
+	 *            the bytes
+	 * @param problem
+	 *            the problem as a string, or null
+	 */
+	private Target(final ByteBuffer bytes, final String problem) {
+		this.bytes = bytes.slice().asReadOnlyBuffer();
+		this.length = this.bytes.remaining();
+		this.problem = problem;
+		this.singleByte = problem == null || Target.isSingleByte(problem);
+	}
+
+	/**
+	 * Byte at.
+	 *
+	 * @param position
+	 *            the position
+	 * @return the byte there
+	 */
+	public byte byteAt(final int position) {
+		return this.bytes.get(position);
+	}
+
+	/**
+	 * Gets the bytes, as a read-only buffer of their own, so reading it does not
+	 * disturb anyone else reading the target.
+	 *
+	 * @return the bytes
+	 */
+	public ByteBuffer getBytes() {
+		return this.bytes.duplicate();
+	}
+
+	/**
+	 * Checks if the target is off the heap, e.g. a mapped file.
+	 *
+	 * @return true, if off the heap
+	 */
+	public boolean isDirect() {
+		return this.bytes.isDirect();
+	}
+
+	/**
+	 * Checks if the bytes are the problem exactly. Not so for a problem given as a
+	 * string with characters outside ISO 8859-1, which only {@link #toString()}
+	 * keeps.
+	 *
+	 * @return true, if single byte
+	 */
+	public boolean isSingleByte() {
+		return this.singleByte;
+	}
+
+	/**
+	 * Length.
+	 *
+	 * @return the length
+	 */
+	public int length() {
+		return this.length;
+	}
+
+	/**
+	 * To string. The problem as a string. For a mapped target this is a fresh
+	 * copy on the heap each time, so best kept for showing to people.
+	 *
+	 * @return the string
+	 */
+	@Override
+	public String toString() {
+		if (this.problem != null) {
+			return this.problem;
+		}
+		final byte[] copy = new byte[this.length];
+		this.getBytes().get(copy);
+		return new String(copy, StandardCharsets.ISO_8859_1);
+	}
+}
@@ -4,7 +4,9 @@
  */
 package uk.co.kenreid.dataobjects;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * The Class TestParameter. Contains input data. When building more complex
@@ -15,18 +17,48 @@ import java.util.HashMap;
  */
 public class TestParameter {
 
+	/** The number of independent chains to run at once. */
+	private int chains = 1;
+
+	/** The checkpoint file, or null for none. */
+	private String checkpointFile;
+
 	/** The cooling rate. */
 	private double coolingRate;
 
+	/** The cooling schedule name, see CoolingSchedule.create. */
+	private String coolingSchedule = "geometric";
+
+	/** The number of entries in the fitness cache, or 0 for no cache. */
+	private int fitnessCacheSize;
+
+	/** The iteration budget, or -1 for no limit. */
+	private long iterationBudget = -1;
+
+	/** The names of the move operators to pick between, or empty for none. */
+	private List<String> operators = Collections.emptyList();
+
 	/** The problem. */
 	private final String problem;
 
+	/** The file the problem is loaded from instead, or null for none. */
+	private String problemFile;
+
 	/** The starting temperature. */
 	private double startingTemperature;
 
 	/** The verbose. */
 	private boolean verbose;
 
+	/** The seed, or null to seed randomly. */
+	private Long seed;
+
+	/** The wall time budget in milliseconds, or -1 for no limit. */
+	private long timeBudgetMillis = -1;
+
+	/** The trace policy name, see TracePolicy.create. */
+	private String tracePolicy = "full";
+
 	/** The weightings per constraint. */
 	private HashMap<String, Double> weightingsPerConstraint;
 
@@ -54,6 +86,24 @@ public class TestParameter {
 		this.setVerbose(verbose);
 	}
 
+	/**
+	 * Gets the number of chains.
+	 *
+	 * @return the chains
+	 */
+	public int getChains() {
+		return this.chains;
+	}
+
+	/**
+	 * Gets the checkpoint file.
+	 *
+	 * @return the checkpoint file, or null for none
+	 */
+	public String getCheckpointFile() {
+		return this.checkpointFile;
+	}
+
 	/**
 	 * Gets the cooling rate.
 	 *
@@ -63,6 +113,42 @@ public class TestParameter {
 		return this.coolingRate;
 	}
 
+	/**
+	 * Gets the cooling schedule name.
+	 *
+	 * @return the cooling schedule
+	 */
+	public String getCoolingSchedule() {
+		return this.coolingSchedule;
+	}
+
+	/**
+	 * Gets the fitness cache size.
+	 *
+	 * @return the fitness cache size, or 0 for no cache
+	 */
+	public int getFitnessCacheSize() {
+		return this.fitnessCacheSize;
+	}
+
+	/**
+	 * Gets the iteration budget.
+	 *
+	 * @return the iteration budget, or -1 for no limit
+	 */
+	public long getIterationBudget() {
+		return this.iterationBudget;
+	}
+
+	/**
+	 * Gets the names of the move operators.
+	 *
+	 * @return the operators, or empty for the problem's own move
+	 */
+	public List<String> getOperators() {
+		return this.operators;
+	}
+
 	/**
 	 * Gets the problem.
 	 *
@@ -72,6 +158,24 @@ public class TestParameter {
 		return this.problem;
 	}
 
+	/**
+	 * Gets the problem file.
+	 *
+	 * @return the problem file, or null for none
+	 */
+	public String getProblemFile() {
+		return this.problemFile;
+	}
+
+	/**
+	 * Gets the seed.
+	 *
+	 * @return the seed, or null to seed randomly
+	 */
+	public Long getSeed() {
+		return this.seed;
+	}
+
 	/**
 	 * Gets the starting temperature.
 	 *
@@ -81,6 +185,24 @@ public class TestParameter {
 		return this.startingTemperature;
 	}
 
+	/**
+	 * Gets the wall time budget.
+	 *
+	 * @return the time budget in milliseconds, or -1 for no limit
+	 */
+	public long getTimeBudgetMillis() {
+		return this.timeBudgetMillis;
+	}
+
+	/**
+	 * Gets the trace policy name.
+	 *
+	 * @return the trace policy
+	 */
+	public String getTracePolicy() {
+		return this.tracePolicy;
+	}
+
 	/**
 	 * Gets the weightings per constraint.
 	 *
@@ -99,6 +221,26 @@ public class TestParameter {
 		return this.verbose;
 	}
 
+	/**
+	 * Sets the number of chains.
+	 *
+	 * @param chains
+	 *            the new chains
+	 */
+	public void setChains(final int chains) {
+		this.chains = chains;
+	}
+
+	/**
+	 * Sets the checkpoint file.
+	 *
+	 * @param checkpointFile
+	 *            the new checkpoint file, or null for none
+	 */
+	public void setCheckpointFile(final String checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
 	/**
 	 * Sets the cooling rate.
 	 *
@@ -109,6 +251,66 @@ public class TestParameter {
 		this.coolingRate = coolingRate;
 	}
 
+	/**
+	 * Sets the cooling schedule name.
+	 *
+	 * @param coolingSchedule
+	 *            the new cooling schedule
+	 */
+	public void setCoolingSchedule(final String coolingSchedule) {
+		this.coolingSchedule = coolingSchedule;
+	}
+
+	/**
+	 * Sets the fitness cache size.
+	 *
+	 * @param fitnessCacheSize
+	 *            the new fitness cache size, or 0 for no cache
+	 */
+	public void setFitnessCacheSize(final int fitnessCacheSize) {
+		this.fitnessCacheSize = fitnessCacheSize;
+	}
+
+	/**
+	 * Sets the iteration budget.
+	 *
+	 * @param iterationBudget
+	 *            the new iteration budget, or -1 for no limit
+	 */
+	public void setIterationBudget(final long iterationBudget) {
+		this.iterationBudget = iterationBudget;
+	}
+
+	/**
+	 * Sets the names of the move operators to pick between.
+	 *
+	 * @param operators
+	 *            the new operators, or empty for the problem's own move
+	 */
+	public void setOperators(final List<String> operators) {
+		this.operators = operators;
+	}
+
+	/**
+	 * Sets the problem file.
+	 *
+	 * @param problemFile
+	 *            the new problem file, or null for none
+	 */
+	public void setProblemFile(final String problemFile) {
+		this.problemFile = problemFile;
+	}
+
+	/**
+	 * Sets the seed.
+	 *
+	 * @param seed
+	 *            the new seed, or null to seed randomly
+	 */
+	public void setSeed(final Long seed) {
+		this.seed = seed;
+	}
+
 	/**
 	 * Sets the starting temperature.
 	 *
@@ -119,6 +321,26 @@ public class TestParameter {
 		this.startingTemperature = startingTemperature;
 	}
 
+	/**
+	 * Sets the wall time budget.
+	 *
+	 * @param timeBudgetMillis
+	 *            the new time budget in milliseconds, or -1 for no limit
+	 */
+	public void setTimeBudgetMillis(final long timeBudgetMillis) {
+		this.timeBudgetMillis = timeBudgetMillis;
+	}
+
+	/**
+	 * Sets the trace policy name.
+	 *
+	 * @param tracePolicy
+	 *            the new trace policy
+	 */
+	public void setTracePolicy(final String tracePolicy) {
+		this.tracePolicy = tracePolicy;
+	}
+
 	/**
 	 * Sets the verbose.
 	 *
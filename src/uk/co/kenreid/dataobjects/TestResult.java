@@ -0,0 +1,177 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.dataobjects;
+
+/**
+ * The Class TestResult. Outcome of running one {@link TestParameter} row, as
+ * shown in the sweep summary.
+ */
+public class TestResult {
+
+	/** The annealing wall time in milliseconds. */
+	private final long annealingMillis;
+
+	/** Why the row failed, or null if it did not. */
+	private final String error;
+
+	/** The final fitness. */
+	private final double finalFitness;
+
+	/** The iterations. */
+	private final long iterations;
+
+	/** The output wall time in milliseconds. */
+	private final long outputMillis;
+
+	/** The parameters. */
+	private final TestParameter parameters;
+
+	/** The row of the parameter file, 1 being the first row after the header. */
+	private final int row;
+
+	/** The seed the run used. */
+	private final long seed;
+
+	/**
+	 * Instantiates a new test result.
+	 *
+	 * @param row
+	 *            the row
+	 * @param parameters
+	 *            the parameters
+	 * @param seed
+	 *            the seed the run used
+	 * @param finalFitness
+	 *            the final fitness
+	 * @param iterations
+	 *            the iterations
+	 * @param annealingMillis
+	 *            the annealing wall time in milliseconds
+	 * @param outputMillis
+	 *            the output wall time in milliseconds
+	 */
+	public TestResult(final int row, final TestParameter parameters, final long seed, final double finalFitness, final long iterations,
+			final long annealingMillis, final long outputMillis) {
+		this.row = row;
+		this.parameters = parameters;
+		this.seed = seed;
+		this.finalFitness = finalFitness;
+		this.iterations = iterations;
+		this.annealingMillis = annealingMillis;
+		this.outputMillis = outputMillis;
+		this.error = null;
+	}
+
+	/**
+	 * Instantiates a new test result for a row that failed.
+	 *
+	 * @param row
+	 *            the row
+	 * @param parameters
+	 *            the parameters
+	 * @param error
+	 *            why the row failed
+	 */
+	public TestResult(final int row, final TestParameter parameters, final String error) {
+		this.row = row;
+		this.parameters = parameters;
+		this.seed = 0;
+		this.finalFitness = Double.NaN;
+		this.iterations = 0;
+		this.annealingMillis = 0;
+		this.outputMillis = 0;
+		this.error = error;
+	}
+
+	/**
+	 * Gets the annealing wall time in milliseconds.
+	 *
+	 * @return the annealing millis
+	 */
+	public long getAnnealingMillis() {
+		return this.annealingMillis;
+	}
+
+	/**
+	 * Gets why the row failed.
+	 *
+	 * @return the error, or null if the row did not fail
+	 */
+	public String getError() {
+		return this.error;
+	}
+
+	/**
+	 * Gets the final fitness.
+	 *
+	 * @return the final fitness
+	 */
+	public double getFinalFitness() {
+		return this.finalFitness;
+	}
+
+	/**
+	 * Gets the iterations.
+	 *
+	 * @return the iterations
+	 */
+	public long getIterations() {
+		return this.iterations;
+	}
+
+	/**
+	 * Gets the output wall time in milliseconds.
+	 *
+	 * @return the output millis
+	 */
+	public long getOutputMillis() {
+		return this.outputMillis;
+	}
+
+	/**
+	 * Gets the parameters.
+	 *
+	 * @return the parameters
+	 */
+	public TestParameter getParameters() {
+		return this.parameters;
+	}
+
+	/**
+	 * Gets the row.
+	 *
+	 * @return the row
+	 */
+	public int getRow() {
+		return this.row;
+	}
+
+	/**
+	 * Gets the seed the run used.
+	 *
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return this.seed;
+	}
+
+	/**
+	 * Checks if the row failed.
+	 *
+	 * @return true, if it failed
+	 */
+	public boolean isFailed() {
+		return this.error != null;
+	}
+
+	@Override
+	public String toString() {
+		if (this.error != null) {
+			return "Row " + this.row + ": failed, " + this.error;
+		}
+		return "Row " + this.row + ": fitness " + this.finalFitness + " after " + this.iterations + " iterations in " + this.annealingMillis + "ms (output "
+				+ this.outputMillis + "ms, seed " + this.seed + ")";
+	}
+}
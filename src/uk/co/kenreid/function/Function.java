@@ -4,8 +4,6 @@
  */
 package uk.co.kenreid.function;
 
-import java.util.Random;
-
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Font;
@@ -21,13 +19,23 @@ import org.apache.poi.ss.usermodel.Workbook;
 public class Function {
 
 	/** The random. */
-	private final Random random;
+	private final RandomSource random;
 
 	/**
-	 * Instantiates a new function.
+	 * Instantiates a new function, with a randomly seeded random source.
 	 */
 	public Function() {
-		this.random = new Random();
+		this(new XoroshiroRandom());
+	}
+
+	/**
+	 * Instantiates a new function.
+	 *
+	 * @param random
+	 *            the random source
+	 */
+	public Function(final RandomSource random) {
+		this.random = random;
 	}
 
 	/**
@@ -35,7 +43,7 @@ public class Function {
 	 *
 	 * @return the random
 	 */
-	public Random getRandom() {
+	public RandomSource getRandom() {
 		return this.random;
 	}
 
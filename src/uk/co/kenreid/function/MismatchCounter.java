@@ -0,0 +1,157 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.function;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The Class MismatchCounter. Counts the positions at which two byte arrays (or
+ * a buffer and a byte array) differ, for full evaluations of long solutions. By default eight bytes are
+ * compared at a time: the two words are XORed and the non-zero bytes of the
+ * result counted with a couple of masks and a popcount, with no branch per
+ * byte. Running with -Duk.co.kenreid.mismatch=scalar uses the plain
+ * byte-at-a-time loop instead; both give the same counts.
+ *
+ * Arrays.mismatch only finds the first difference, not how many there are, and
+ * the Vector API is still incubating, so neither is used.
+ */
+public final class MismatchCounter {
+
+	/** The high bit of every byte. */
+	private static final long HIGH_BITS = 0x8080808080808080L;
+
+	/** The low seven bits of every byte. */
+	private static final long LOW_BITS = 0x7f7f7f7f7f7f7f7fL;
+
+	/** Whether to use the scalar loop. */
+	private static final boolean SCALAR = "scalar".equals(System.getProperty("uk.co.kenreid.mismatch"));
+
+	/**
+	 * Count. The number of positions below length at which a and b differ.
+	 *
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @param length
+	 *            the length to compare, no more than either array
+	 * @return the number of mismatches
+	 */
+	public static int count(final byte[] a, final byte[] b, final int length) {
+		return MismatchCounter.SCALAR ? MismatchCounter.countScalar(a, b, length) : MismatchCounter.countWords(a, b, length);
+	}
+
+	/**
+	 * Count. The number of positions below length at which a and b differ, where a
+	 * is a buffer, e.g. a mapped file. Indices are from the start of the buffer,
+	 * and only absolute reads are made, so a can be shared.
+	 *
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @param length
+	 *            the length to compare, no more than either
+	 * @return the number of mismatches
+	 */
+	public static int count(final ByteBuffer a, final byte[] b, final int length) {
+		return MismatchCounter.SCALAR ? MismatchCounter.countScalar(a, b, length) : MismatchCounter.countWords(a, b, length);
+	}
+
+	/**
+	 * Count scalar. One byte at a time, from a buffer.
+	 *
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @param length
+	 *            the length
+	 * @return the number of mismatches
+	 */
+	static int countScalar(final ByteBuffer a, final byte[] b, final int length) {
+		int mismatches = 0;
+		for (int i = 0; i < length; i++) {
+			if (a.get(i) != b[i]) {
+				mismatches++;
+			}
+		}
+		return mismatches;
+	}
+
+	/**
+	 * Count scalar. One byte at a time.
+	 *
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @param length
+	 *            the length
+	 * @return the number of mismatches
+	 */
+	static int countScalar(final byte[] a, final byte[] b, final int length) {
+		int mismatches = 0;
+		for (int i = 0; i < length; i++) {
+			if (a[i] != b[i]) {
+				mismatches++;
+			}
+		}
+		return mismatches;
+	}
+
+	/**
+	 * Count words. Eight bytes at a time, then the tail one at a time.
+	 *
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @param length
+	 *            the length
+	 * @return the number of mismatches
+	 */
+	static int countWords(final byte[] a, final byte[] b, final int length) {
+		return MismatchCounter.countWords(ByteBuffer.wrap(a), b, length);
+	}
+
+	/**
+	 * Count words. Eight bytes at a time from a buffer, then the tail one at a
+	 * time.
+	 *
+	 * @param a
+	 *            the a
+	 * @param b
+	 *            the b
+	 * @param length
+	 *            the length
+	 * @return the number of mismatches
+	 */
+	static int countWords(final ByteBuffer a, final byte[] b, final int length) {
+		// a buffer of our own, as the byte order is part of a buffer's state
+		final ByteBuffer wordsA = a.duplicate().order(ByteOrder.nativeOrder());
+		final ByteBuffer wordsB = ByteBuffer.wrap(b).order(ByteOrder.nativeOrder());
+		int mismatches = 0;
+		int i = 0;
+		for (; i <= length - 8; i += 8) {
+			final long difference = wordsA.getLong(i) ^ wordsB.getLong(i);
+			// the high bit of each byte ends up set if any bit of that byte is
+			mismatches += Long.bitCount(((difference & MismatchCounter.LOW_BITS) + MismatchCounter.LOW_BITS | difference) & MismatchCounter.HIGH_BITS);
+		}
+		for (; i < length; i++) {
+			if (wordsA.get(i) != b[i]) {
+				mismatches++;
+			}
+		}
+		return mismatches;
+	}
+
+	/**
+	 * Instantiates a new mismatch counter.
+	 */
+	private MismatchCounter() {
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.function;
+
+/**
+ * The Interface RandomSource. The random numbers the engine draws on. Unlike
+ * java.util.Random an implementation need not be thread safe: each run has its
+ * own, and a run that needs to hand streams to other threads uses
+ * {@link #split()}.
+ */
+public interface RandomSource {
+
+	/**
+	 * Next double.
+	 *
+	 * @return a double in [0, 1)
+	 */
+	double nextDouble();
+
+	/**
+	 * Next int.
+	 *
+	 * @param bound
+	 *            the bound, must be positive
+	 * @return an int in [0, bound)
+	 */
+	int nextInt(int bound);
+
+	/**
+	 * Next long.
+	 *
+	 * @return a long, any value
+	 */
+	long nextLong();
+
+	/**
+	 * Split. A new, independent source. Splitting is deterministic, so sources
+	 * split in the same order from the same seed produce the same streams.
+	 *
+	 * @return the random source
+	 */
+	RandomSource split();
+}
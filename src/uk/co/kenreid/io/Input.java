@@ -10,12 +10,14 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
+import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import uk.co.kenreid.dataobjects.TestParameter;
+import uk.co.kenreid.sa.OperatorSelector;
 
 /**
  * The Class Input. Reads the parameter file, however can be used for reading
@@ -126,6 +128,83 @@ public class Input {
 				 */
 				cell = row.getCell(cellNum);
 				final boolean verbose = cell.getNumericCellValue() == 1.0;
+				cellNum++;
+
+				/*
+				 * Read in number of chains, optional. Defaults to a single chain.
+				 */
+				cell = row.getCell(cellNum);
+				final int chains = cell == null ? 1 : (int) cell.getNumericCellValue();
+				cellNum++;
+
+				/*
+				 * Read in cooling schedule and budget, optional. Defaults to geometric cooling
+				 * at the cooling rate with no budget, i.e. as the run has always been.
+				 */
+				cell = row.getCell(cellNum);
+				final String coolingSchedule = cell == null ? "geometric" : this.readCell(cell);
+				cellNum++;
+				cell = row.getCell(cellNum);
+				final long iterationBudget = cell == null ? -1 : (long) cell.getNumericCellValue();
+				cellNum++;
+				cell = row.getCell(cellNum);
+				final long timeBudgetMillis = cell == null ? -1 : (long) cell.getNumericCellValue();
+				cellNum++;
+
+				/*
+				 * Read in seed, optional. Text cells are read exactly; numeric cells lose
+				 * precision past 2^53, so long seeds should be typed as text.
+				 */
+				cell = row.getCell(cellNum);
+				Long seed = null;
+				if (cell != null && cell.getCellTypeEnum() == CellType.STRING) {
+					seed = Long.valueOf(cell.getStringCellValue().trim());
+				}
+				else if (cell != null && cell.getCellTypeEnum() == CellType.NUMERIC) {
+					seed = (long) cell.getNumericCellValue();
+				}
+				cellNum++;
+
+				/*
+				 * Read in fitness cache size, optional. Defaults to no cache.
+				 */
+				cell = row.getCell(cellNum);
+				final int fitnessCacheSize = cell == null ? 0 : (int) cell.getNumericCellValue();
+				cellNum++;
+
+				/*
+				 * Read in checkpoint file, optional. A run with one checkpoints to it, and
+				 * resumes from it if it is already there.
+				 */
+				cell = row.getCell(cellNum);
+				final String checkpointCell = cell == null ? "" : this.readCell(cell).trim();
+				final String checkpointFile = checkpointCell.isEmpty() ? null : checkpointCell;
+				cellNum++;
+
+				/*
+				 * Read in problem file, optional. A run with one is against the problem in
+				 * it, mapped into memory, rather than the passcode below.
+				 */
+				cell = row.getCell(cellNum);
+				final String problemCell = cell == null ? "" : this.readCell(cell).trim();
+				final String problemFile = problemCell.isEmpty() ? null : problemCell;
+				cellNum++;
+
+				/*
+				 * Read in move operators, optional. Names separated by commas, or "all", for
+				 * a run to pick between as it goes. Defaults to the problem's own move.
+				 */
+				cell = row.getCell(cellNum);
+				final List<String> operators = OperatorSelector.parseNames(cell == null ? null : this.readCell(cell));
+				cellNum++;
+
+				/*
+				 * Read in trace policy, optional: full, full M, every N, every N M, ring N or
+				 * off. Defaults to full, at most TracePolicy.DEFAULT_MAXIMUM_ROWS rows.
+				 */
+				cell = row.getCell(cellNum);
+				final String tracePolicyCell = cell == null ? "" : this.readCell(cell).trim();
+				final String tracePolicy = tracePolicyCell.isEmpty() ? "full" : tracePolicyCell;
 
 				/*
 				 * Read in problem.
@@ -138,7 +217,18 @@ public class Input {
 
 				final String problem = "1-7-3-4-6-7-3-2-1-4-7-6-Charlie-3-2-7-8-9-7-7-7-6-4-3-Tango-7-3-2-Victor-7-3-1-1-7-8-8-8-7-3-2-4-7-6-7-8-9-7-6-4-3-7-6";
 
-				tests.add(new TestParameter(temperature, coolingRate, weightings, problem, verbose));
+				final TestParameter testParameter = new TestParameter(temperature, coolingRate, weightings, problem, verbose);
+				testParameter.setChains(chains);
+				testParameter.setCoolingSchedule(coolingSchedule);
+				testParameter.setIterationBudget(iterationBudget);
+				testParameter.setTimeBudgetMillis(timeBudgetMillis);
+				testParameter.setSeed(seed);
+				testParameter.setFitnessCacheSize(fitnessCacheSize);
+				testParameter.setCheckpointFile(checkpointFile);
+				testParameter.setProblemFile(problemFile);
+				testParameter.setOperators(operators);
+				testParameter.setTracePolicy(tracePolicy);
+				tests.add(testParameter);
 			}
 			wb.close();
 			fis.close();
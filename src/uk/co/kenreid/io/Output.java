@@ -13,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Row;
@@ -22,8 +23,12 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import uk.co.kenreid.dataobjects.Context;
 import uk.co.kenreid.function.Function;
+import uk.co.kenreid.monitor.FlightEvents;
 import uk.co.kenreid.sa.Fitness;
 import uk.co.kenreid.sa.SimulatedAnnealing;
+import uk.co.kenreid.sa.StringEdit;
+import uk.co.kenreid.sa.StringMatchProblem;
+import uk.co.kenreid.sa.TraceRecorder;
 
 /**
  * The Class Output. Contains some examples of output for exploring the
@@ -45,7 +50,7 @@ public class Output {
 	private final String path;
 
 	/** The s A. */
-	private final SimulatedAnnealing sA;
+	private final SimulatedAnnealing<StringMatchProblem.State, StringEdit> sA;
 
 	/**
 	 * Instantiates a new output.
@@ -57,19 +62,36 @@ public class Output {
 	 * @param currentSolution
 	 *            the current solution
 	 */
-	public Output(final SimulatedAnnealing getsA, final Context ctx2, final String currentSolution) {
+	public Output(final SimulatedAnnealing<StringMatchProblem.State, StringEdit> getsA, final Context ctx2, final String currentSolution) {
+		this(getsA, ctx2, currentSolution, "data/output");
+	}
+
+	/**
+	 * Instantiates a new output, writing to the given directory.
+	 *
+	 * @param getsA
+	 *            the gets A
+	 * @param ctx2
+	 *            the ctx 2
+	 * @param currentSolution
+	 *            the current solution
+	 * @param directory
+	 *            the directory
+	 */
+	public Output(final SimulatedAnnealing<StringMatchProblem.State, StringEdit> getsA, final Context ctx2, final String currentSolution,
+			final String directory) {
 		this.sA = getsA;
 		this.ctx = ctx2;
 		this.currentSolution = currentSolution;
 		// if folders don't exist to hold excel data, make 'em.
-		new File("data/output").mkdirs();
+		new File(directory).mkdirs();
 
 		final SimpleDateFormat sdf = new SimpleDateFormat("yyyy.MM.dd-HH.mm.ss");
 		final long ms = Calendar.getInstance().getTimeInMillis();
 		final Date resultdate = new Date(ms);
 		final String time = sdf.format(resultdate);
 
-		this.path = "data/output/" + time;
+		this.path = directory + "/" + time;
 	}
 
 	/**
@@ -94,7 +116,7 @@ public class Output {
 
 		final String time = "";
 
-		this.outputXLSXFitnessPerIteration(time + " fitness per iteration", this.sA.getFitnessOverTime());
+		this.outputXLSXFitnessPerIteration(time + " fitness per iteration", this.sA.getTrace());
 		this.outputXLSXFitnessOfBestSolutionComparedToOriginal(time + " Original fitness vs Best fitness");
 		this.outputXLSXFitnessPerIterationDetailed(time + " fitness per iteration (detailed)");
 		this.outputXLSXacceptedSolutions(time + " accepted solutions");
@@ -110,6 +132,7 @@ public class Output {
 	private void outputXLSXacceptedSolutions(final String fileName) {
 		try {
 			final String path = this.path + fileName + ".xlsx";
+			final Object flight = FlightEvents.outputStarted();
 			// setup
 			final FileOutputStream outputStream = new FileOutputStream(path);
 			final Workbook workbook = new XSSFWorkbook();
@@ -122,15 +145,31 @@ public class Output {
 
 			int rowNumber = 1;
 
-			final List<String> acceptedSolutions = this.sA.getAcceptedSolutions();
-
-			for (final String solution : acceptedSolutions) {
+			// accepted solutions are rebuilt from the trace, so need every iteration
+			final TraceRecorder trace = this.sA.getTrace();
+			final int maximumLength = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+			if (this.ctx.getTarget().length() > maximumLength) {
+				// a cell only holds so much, and rebuilding every solution of a long problem would not fit in memory anyway
 				final Row row = worksheet.createRow(rowNumber);
-
 				final Cell cell1 = row.createCell(0);
-				cell1.setCellValue(solution);
+				cell1.setCellValue("Solutions longer than " + maximumLength + " characters are not written out.");
+			}
+			else {
+				final List<String> acceptedSolutions = trace.getAcceptedSolutions();
 
-				rowNumber++;
+				for (final String solution : acceptedSolutions) {
+					final Row row = worksheet.createRow(rowNumber);
+
+					final Cell cell1 = row.createCell(0);
+					cell1.setCellValue(solution);
+
+					rowNumber++;
+				}
+			}
+			if (!trace.isComplete()) {
+				final Row row = worksheet.createRow(rowNumber);
+				final Cell cell1 = row.createCell(0);
+				cell1.setCellValue("Accepted solutions are only available with a full trace, the trace policy was " + trace.getPolicy() + ".");
 			}
 
 			this.function.makeRowBold(workbook, row1, false);
@@ -143,6 +182,7 @@ public class Output {
 			workbook.close();
 			outputStream.flush();
 			outputStream.close();
+			FlightEvents.outputWritten(flight, path);
 		}
 		catch (final Exception e) {
 			this.printErr(e);
@@ -159,6 +199,7 @@ public class Output {
 	public void outputXLSXFitnessOfBestSolutionComparedToOriginal(final String fileName) {
 		try {
 			final String path = this.path + fileName + ".xlsx";
+			final Object flight = FlightEvents.outputStarted();
 			// setup
 			final FileOutputStream outputStream = new FileOutputStream(path);
 			final Workbook workbook = new XSSFWorkbook();
@@ -186,10 +227,11 @@ public class Output {
 
 			int rowNumber = 1;
 
-			final Fitness fitness = new Fitness(this.ctx, this.currentSolution);
+			final Fitness fitness = this.sA.getBestState().getFitness(this.ctx);
 			final Map<String, Double> bestSolutionWeightedFitness = fitness.getFitnessesPerConstraintWithWeightingsApplied();
 
-			final Map<String, Double> originalSolutionFitnessAndConstraints = this.ctx.getOriginalSolutionWeightedFitness();
+			final Fitness originalFitness = this.sA.getInitialState().getFitness(this.ctx);
+			final Map<String, Double> originalSolutionFitnessAndConstraints = originalFitness.getFitnessesPerConstraintWithWeightingsApplied();
 
 			for (final Entry<String, Double> weightedConstraintAndFitness : bestSolutionWeightedFitness.entrySet()) {
 				final Row row = worksheet.createRow(rowNumber);
@@ -210,7 +252,7 @@ public class Output {
 				cell5.setCellValue(fitness.getFitnessesPerConstraintWithoutWeightingsApplied().get(weightedConstraintAndFitness.getKey()));
 
 				final Cell cell6 = row.createCell(5);
-				cell6.setCellValue(this.ctx.getOriginalSolutionFitness().get(weightedConstraintAndFitness.getKey()));
+				cell6.setCellValue(originalFitness.getFitnessesPerConstraintWithoutWeightingsApplied().get(weightedConstraintAndFitness.getKey()));
 
 				rowNumber++;
 			}
@@ -235,8 +277,8 @@ public class Output {
 			cellE.setCellValue(average);
 
 			final Cell c = row.createCell(5);
-			c.setCellValue((this.ctx.getOriginalSolutionFitness().get("SC1") + this.ctx.getOriginalSolutionFitness().get("SC2"))
-					/ this.ctx.getOriginalSolutionFitness().size());
+			final Map<String, Double> originalSolutionUnweightedFitness = originalFitness.getFitnessesPerConstraintWithoutWeightingsApplied();
+			c.setCellValue((originalSolutionUnweightedFitness.get("SC1") + originalSolutionUnweightedFitness.get("SC2")) / originalSolutionUnweightedFitness.size());
 
 			this.function.makeRowBold(workbook, row1, false);
 			this.function.makeRowBold(workbook, row, false);
@@ -249,6 +291,7 @@ public class Output {
 			workbook.close();
 			outputStream.flush();
 			outputStream.close();
+			FlightEvents.outputWritten(flight, path);
 		}
 		catch (final Exception e) {
 			this.printErr(e);
@@ -260,12 +303,13 @@ public class Output {
 	 *
 	 * @param fileName
 	 *            the file name
-	 * @param fitnesses
-	 *            the fitnesses
+	 * @param trace
+	 *            the trace
 	 */
-	public void outputXLSXFitnessPerIteration(final String fileName, final List<Double> fitnesses) {
+	public void outputXLSXFitnessPerIteration(final String fileName, final TraceRecorder trace) {
 		try {
 			final String path = this.path + fileName + ".xlsx";
+			final Object flight = FlightEvents.outputStarted();
 			// setup
 			final FileOutputStream outputStream = new FileOutputStream(path);
 			final Workbook workbook = new XSSFWorkbook();
@@ -284,7 +328,8 @@ public class Output {
 
 			int counter = 0;
 			boolean flag = false;
-			for (double d : fitnesses) {
+			for (int traceRow = 0; traceRow < trace.size(); traceRow++) {
+				double d = trace.getFitness(traceRow);
 				counter++;
 				final Row currRow = worksheet.createRow(rowNumber);
 
@@ -316,6 +361,7 @@ public class Output {
 			workbook.close();
 			outputStream.flush();
 			outputStream.close();
+			FlightEvents.outputWritten(flight, path);
 		}
 		catch (final Exception e) {
 			this.printErr(e);
@@ -332,6 +378,7 @@ public class Output {
 		try {
 
 			final String path = this.path + fileName + ".xlsx";
+			final Object flight = FlightEvents.outputStarted();
 			// setup
 			final FileOutputStream outputStream = new FileOutputStream(path);
 			final Workbook workbook = new XSSFWorkbook();
@@ -357,35 +404,36 @@ public class Output {
 			final CellStyle currStyle = workbook.createCellStyle();
 			currStyle.setDataFormat(workbook.createDataFormat().getFormat("0.000%"));
 
-			for (final Entry<Integer, Fitness> iteration : this.sA.getFitnessObjectOverTime().entrySet()) {
+			final TraceRecorder trace = this.sA.getTrace();
+			final int sc1 = trace.getConstraintIndex("SC1");
+			final int sc2 = trace.getConstraintIndex("SC2");
+			for (int traceRow = 0; traceRow < trace.size(); traceRow++) {
 				// iteration number
 				final Row row = worksheet.createRow(rowNumber);
 				Cell cell = row.createCell(0);
-				cell.setCellValue(iteration.getKey());
-
-				final Fitness fitness = iteration.getValue();
+				cell.setCellValue(trace.getIteration(traceRow));
 
 				// sc1
 				cell = row.createCell(1);
 				cell.setCellStyle(currStyle);
-				cell.setCellValue(fitness.getFitnessesPerConstraintWithWeightingsApplied().get("SC1"));
+				cell.setCellValue(trace.getWeightedFitness(traceRow, sc1));
 
 				// sc2
 				cell = row.createCell(2);
 				cell.setCellStyle(currStyle);
-				cell.setCellValue(fitness.getFitnessesPerConstraintWithWeightingsApplied().get("SC2"));
+				cell.setCellValue(trace.getWeightedFitness(traceRow, sc2));
 
 				// average
 				cell = row.createCell(3);
 				cell.setCellStyle(currStyle);
-				cell.setCellValue(fitness.getOverallFitness());
+				cell.setCellValue(trace.getFitness(traceRow));
 
 				rowNumber++;
 				if (rowNumber > 65532) {
 					break;
 				}
 			}
-			final Fitness bestFitness = new Fitness(this.ctx, this.currentSolution);
+			final Fitness bestFitness = this.sA.getBestState().getFitness(this.ctx);
 			final Map<String, Double> bestSolutionFitnessAndConstraints = bestFitness.getFitnessesPerConstraintWithWeightingsApplied();
 
 			// best one
@@ -417,6 +465,7 @@ public class Output {
 			workbook.close();
 			outputStream.flush();
 			outputStream.close();
+			FlightEvents.outputWritten(flight, path);
 		}
 		catch (final Exception e) {
 			this.printErr(e);
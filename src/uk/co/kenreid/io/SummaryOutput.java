@@ -0,0 +1,110 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import uk.co.kenreid.dataobjects.TestParameter;
+import uk.co.kenreid.dataobjects.TestResult;
+import uk.co.kenreid.function.Function;
+
+/**
+ * The Class SummaryOutput. Writes one table summarising every row of a
+ * parameter sweep, next to the per-row output folders. A row that failed has
+ * its parameters and why it failed, but no results.
+ */
+public class SummaryOutput {
+
+	/** The directory. */
+	private final String directory;
+
+	/** The function. */
+	Function function = new Function();
+
+	/**
+	 * Instantiates a new summary output.
+	 *
+	 * @param directory
+	 *            the directory
+	 */
+	public SummaryOutput(final String directory) {
+		this.directory = directory;
+		new File(directory).mkdirs();
+	}
+
+	/**
+	 * Output XLSX summary.
+	 *
+	 * @param results
+	 *            the results, one per row
+	 */
+	public void outputXLSXSummary(final List<TestResult> results) {
+		try {
+			final String path = this.directory + "/summary.xlsx";
+			// setup
+			final FileOutputStream outputStream = new FileOutputStream(path);
+			final Workbook workbook = new XSSFWorkbook();
+			final Sheet worksheet = workbook.createSheet("Summary");
+
+			final Row row1 = worksheet.createRow(0);
+			final String[] headings = { "Row", "Temp", "CR", "SC1 W", "SC2 W", "Chains", "Schedule", "Final Fitness", "Iterations", "SA Time (ms)", "Output Time (ms)", "Seed",
+					"Error" };
+			for (int i = 0; i < headings.length; i++) {
+				row1.createCell(i).setCellValue(headings[i]);
+			}
+			this.function.makeRowBold(workbook, row1, false);
+
+			final CellStyle percentage = workbook.createCellStyle();
+			percentage.setDataFormat(workbook.createDataFormat().getFormat("0.000%"));
+
+			int rowNumber = 1;
+			for (final TestResult result : results) {
+				final TestParameter parameters = result.getParameters();
+				final Row row = worksheet.createRow(rowNumber);
+				row.createCell(0).setCellValue(result.getRow());
+				row.createCell(1).setCellValue(parameters.getStartingTemperature());
+				row.createCell(2).setCellValue(parameters.getCoolingRate());
+				row.createCell(3).setCellValue(parameters.getWeightingsPerConstraint().get("SC1"));
+				row.createCell(4).setCellValue(parameters.getWeightingsPerConstraint().get("SC2"));
+				row.createCell(5).setCellValue(parameters.getChains());
+				row.createCell(6).setCellValue(parameters.getCoolingSchedule());
+				if (result.isFailed()) {
+					row.createCell(12).setCellValue(result.getError());
+					rowNumber++;
+					continue;
+				}
+				final Cell fitness = row.createCell(7);
+				fitness.setCellStyle(percentage);
+				fitness.setCellValue(result.getFinalFitness());
+				row.createCell(8).setCellValue(result.getIterations());
+				row.createCell(9).setCellValue(result.getAnnealingMillis());
+				row.createCell(10).setCellValue(result.getOutputMillis());
+				// as text, a long seed does not survive being a double
+				row.createCell(11).setCellValue(Long.toString(result.getSeed()));
+				rowNumber++;
+			}
+
+			for (int i = 0; i < headings.length; i++) {
+				worksheet.autoSizeColumn(i);
+			}
+			workbook.write(outputStream);
+			workbook.close();
+			outputStream.flush();
+			outputStream.close();
+		}
+		catch (final Exception e) {
+			System.err.println(e);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.io;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import uk.co.kenreid.dataobjects.Target;
+
+/**
+ * The Class TargetLoader. Loads problems from files, one byte per character
+ * (ISO 8859-1), by mapping them into memory read-only, so even a very long
+ * problem takes no heap. Every load of the same file in this JVM gets the same
+ * target while it is in use, however many runs there are, so a problem is only
+ * ever mapped once. A file that has changed since it was mapped is mapped
+ * afresh; a file should not be changed while a run is using it.
+ */
+public final class TargetLoader {
+
+	/**
+	 * The Class Loaded. A target, and the file as it was when mapped.
+	 */
+	private static final class Loaded {
+
+		/** The last modified time of the file. */
+		private final FileTime modified;
+
+		/** The size of the file. */
+		private final long size;
+
+		/** The target, weakly held so it can be unmapped once no run uses it. */
+		private final WeakReference<Target> target;
+
+		/**
+		 * Instantiates a new loaded.
+		 *
+		 * @param target
+		 *            the target
+		 * @param size
+		 *            the size of the file
+		 * @param modified
+		 *            the last modified time of the file
+		 */
+		private Loaded(final Target target, final long size, final FileTime modified) {
+			this.target = new WeakReference<>(target);
+			this.size = size;
+			this.modified = modified;
+		}
+	}
+
+	/** The targets loaded so far, by file. */
+	private static final Map<Path, Loaded> LOADED = new HashMap<>();
+
+	/**
+	 * Load. Line breaks at the end of the file are not part of the problem.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the target
+	 * @throws IOException
+	 *             if the file cannot be read, is empty or is 2 GB or more
+	 */
+	public static synchronized Target load(final Path file) throws IOException {
+		final Path key = file.toRealPath();
+		final long size = Files.size(key);
+		final FileTime modified = Files.getLastModifiedTime(key);
+
+		final Loaded loaded = TargetLoader.LOADED.get(key);
+		if (loaded != null && loaded.size == size && loaded.modified.equals(modified)) {
+			final Target target = loaded.target.get();
+			if (target != null) {
+				return target;
+			}
+		}
+
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Problem file is too long: " + key + " (" + size + " bytes)");
+		}
+		final Target target;
+		try (final FileChannel channel = FileChannel.open(key, StandardOpenOption.READ)) {
+			MappedByteBuffer bytes = channel.map(MapMode.READ_ONLY, 0, size);
+			int length = (int) size;
+			while (length > 0 && (bytes.get(length - 1) == '\n' || bytes.get(length - 1) == '\r')) {
+				length--;
+			}
+			if (length == 0) {
+				throw new IOException("Problem file is empty: " + key);
+			}
+			if (length < size) {
+				bytes = channel.map(MapMode.READ_ONLY, 0, length);
+			}
+			target = new Target(bytes);
+		}
+
+		// forget files whose targets are no longer used
+		TargetLoader.LOADED.values().removeIf(old -> old.target.get() == null);
+		TargetLoader.LOADED.put(key, new Loaded(target, size, modified));
+		return target;
+	}
+
+	/**
+	 * Instantiates a new target loader.
+	 */
+	private TargetLoader() {
+	}
+}
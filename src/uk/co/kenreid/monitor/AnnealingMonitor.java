@@ -0,0 +1,284 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import uk.co.kenreid.sa.AbstractCoolingSchedule;
+import uk.co.kenreid.sa.CoolingSchedule;
+
+/**
+ * The Class AnnealingMonitor. The JMX view of one run, registered with the
+ * platform MBean server while the run goes on, as
+ * {@code uk.co.kenreid:type=SimulatedAnnealing,name=run-N}.
+ *
+ * The run keeps its own counters and hands them over every so often with
+ * {@link #publish(long, long, double, double, double, long)}, as an immutable
+ * sample, so counting costs the run nothing extra and JMX never reads a half
+ * written figure. Everything JMX asks for is worked out from the samples.
+ */
+public class AnnealingMonitor implements AnnealingMonitorMBean {
+
+	/**
+	 * The Class Sample. The run's counters at one moment.
+	 */
+	private static final class Sample {
+
+		/** The accepted moves. */
+		final long accepted;
+
+		/** The best fitness. */
+		final double bestFitness;
+
+		/** The current fitness. */
+		final double currentFitness;
+
+		/** The elapsed nanos. */
+		final long elapsedNanos;
+
+		/** The iterations. */
+		final long iterations;
+
+		/** The temperature. */
+		final double temperature;
+
+		/**
+		 * Instantiates a new sample.
+		 *
+		 * @param iterations
+		 *            the iterations
+		 * @param accepted
+		 *            the accepted moves
+		 * @param temperature
+		 *            the temperature
+		 * @param currentFitness
+		 *            the current fitness
+		 * @param bestFitness
+		 *            the best fitness
+		 * @param elapsedNanos
+		 *            the elapsed nanos
+		 */
+		Sample(final long iterations, final long accepted, final double temperature, final double currentFitness, final double bestFitness,
+				final long elapsedNanos) {
+			this.iterations = iterations;
+			this.accepted = accepted;
+			this.temperature = temperature;
+			this.currentFitness = currentFitness;
+			this.bestFitness = bestFitness;
+			this.elapsedNanos = elapsedNanos;
+		}
+	}
+
+	/** The numbering of runs, for their names. */
+	private static final AtomicLong RUNS = new AtomicLong();
+
+	/** The shortest time the windowed figures cover. */
+	private static final long WINDOW_NANOS = 1000000000L;
+
+	/**
+	 * Per second.
+	 *
+	 * @param count
+	 *            the count
+	 * @param nanos
+	 *            the nanos
+	 * @return the count per second, or 0 if no time has passed
+	 */
+	private static double perSecond(final long count, final long nanos) {
+		return nanos <= 0 ? 0 : count * 1e9 / nanos;
+	}
+
+	/**
+	 * Ratio.
+	 *
+	 * @param part
+	 *            the part
+	 * @param whole
+	 *            the whole
+	 * @return the ratio, or 0 if the whole is 0
+	 */
+	private static double ratio(final long part, final long whole) {
+		return whole <= 0 ? 0 : (double) part / whole;
+	}
+
+	/** The sample the run started (or resumed) from. */
+	private final Sample first;
+
+	/** The latest sample. */
+	private volatile Sample latest;
+
+	/** The name, once registered. */
+	private ObjectName name;
+
+	/** The cooling schedule. */
+	private final CoolingSchedule schedule;
+
+	/** The sample the window starts from. */
+	private volatile Sample windowStart;
+
+	/** The sample the next window will start from. */
+	private Sample windowMiddle;
+
+	/**
+	 * Instantiates a new annealing monitor.
+	 *
+	 * @param schedule
+	 *            the cooling schedule of the run
+	 * @param iterations
+	 *            the iterations the run starts from, 0 unless resumed
+	 * @param elapsedNanos
+	 *            the elapsed time the run starts from, 0 unless resumed
+	 */
+	public AnnealingMonitor(final CoolingSchedule schedule, final long iterations, final long elapsedNanos) {
+		this.schedule = schedule;
+		this.first = new Sample(iterations, 0, schedule.getStartingTemperature(), 0, 0, elapsedNanos);
+		this.latest = this.first;
+		this.windowStart = this.first;
+		this.windowMiddle = this.first;
+	}
+
+	@Override
+	public double getAcceptanceRate() {
+		final Sample sample = this.latest;
+		return AnnealingMonitor.ratio(sample.accepted - this.first.accepted, sample.iterations - this.first.iterations);
+	}
+
+	@Override
+	public double getBestFitness() {
+		return this.latest.bestFitness;
+	}
+
+	@Override
+	public String getCoolingSchedule() {
+		return this.schedule.toString();
+	}
+
+	@Override
+	public double getCurrentFitness() {
+		return this.latest.currentFitness;
+	}
+
+	@Override
+	public long getElapsedMillis() {
+		return this.latest.elapsedNanos / 1000000;
+	}
+
+	@Override
+	public long getEstimatedIterationsRemaining() {
+		final Sample sample = this.latest;
+		final long expected = this.schedule.getExpectedIterations();
+		if (expected >= 0) {
+			return Math.max(0, expected - sample.iterations);
+		}
+		if (this.schedule instanceof AbstractCoolingSchedule) {
+			final long maximumNanos = ((AbstractCoolingSchedule) this.schedule).getBudget().getMaximumNanos();
+			if (maximumNanos >= 0) {
+				return (long) (Math.max(0, maximumNanos - sample.elapsedNanos) / 1e9 * this.getWindowedIterationsPerSecond());
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public long getIterations() {
+		return this.latest.iterations;
+	}
+
+	@Override
+	public double getIterationsPerSecond() {
+		final Sample sample = this.latest;
+		return AnnealingMonitor.perSecond(sample.iterations - this.first.iterations, sample.elapsedNanos - this.first.elapsedNanos);
+	}
+
+	/**
+	 * Gets the name.
+	 *
+	 * @return the name, or null if not registered
+	 */
+	public ObjectName getName() {
+		return this.name;
+	}
+
+	@Override
+	public double getTemperature() {
+		return this.latest.temperature;
+	}
+
+	@Override
+	public double getWindowedAcceptanceRate() {
+		final Sample start = this.windowStart;
+		final Sample sample = this.latest;
+		return AnnealingMonitor.ratio(sample.accepted - start.accepted, sample.iterations - start.iterations);
+	}
+
+	@Override
+	public double getWindowedIterationsPerSecond() {
+		final Sample start = this.windowStart;
+		final Sample sample = this.latest;
+		return AnnealingMonitor.perSecond(sample.iterations - start.iterations, sample.elapsedNanos - start.elapsedNanos);
+	}
+
+	/**
+	 * Publish. Hands over the run's counters. Run thread only.
+	 *
+	 * @param iterations
+	 *            the iterations
+	 * @param accepted
+	 *            the accepted moves since the run started (or resumed)
+	 * @param temperature
+	 *            the temperature
+	 * @param currentFitness
+	 *            the current fitness
+	 * @param bestFitness
+	 *            the best fitness
+	 * @param elapsedNanos
+	 *            the elapsed nanos
+	 */
+	public void publish(final long iterations, final long accepted, final double temperature, final double currentFitness, final double bestFitness,
+			final long elapsedNanos) {
+		final Sample sample = new Sample(iterations, accepted, temperature, currentFitness, bestFitness, elapsedNanos);
+		// the window rolls on once its second half is a window long
+		if (elapsedNanos - this.windowMiddle.elapsedNanos >= AnnealingMonitor.WINDOW_NANOS) {
+			this.windowStart = this.windowMiddle;
+			this.windowMiddle = sample;
+		}
+		this.latest = sample;
+	}
+
+	/**
+	 * Register with the platform MBean server. A monitor that cannot be
+	 * registered is reported, and the run goes on without it.
+	 */
+	public void register() {
+		try {
+			final ObjectName objectName = new ObjectName("uk.co.kenreid:type=SimulatedAnnealing,name=run-" + AnnealingMonitor.RUNS.incrementAndGet());
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			this.name = objectName;
+		}
+		catch (final JMException e) {
+			System.err.println(e);
+		}
+	}
+
+	/**
+	 * Unregister from the platform MBean server, if registered.
+	 */
+	public void unregister() {
+		if (this.name == null) {
+			return;
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.name);
+		}
+		catch (final JMException e) {
+			System.err.println(e);
+		}
+		this.name = null;
+	}
+}
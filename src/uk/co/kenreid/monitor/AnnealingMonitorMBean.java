@@ -0,0 +1,92 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.monitor;
+
+/**
+ * The Interface AnnealingMonitorMBean. What JMX sees of a running
+ * {@link uk.co.kenreid.sa.SimulatedAnnealing}. Figures are as of the last time
+ * the run published them, every 256 iterations. Windowed figures cover the
+ * last one to two seconds of the run.
+ */
+public interface AnnealingMonitorMBean {
+
+	/**
+	 * Gets the acceptance rate since the run started.
+	 *
+	 * @return the acceptance rate
+	 */
+	double getAcceptanceRate();
+
+	/**
+	 * Gets the best fitness so far.
+	 *
+	 * @return the best fitness
+	 */
+	double getBestFitness();
+
+	/**
+	 * Gets the cooling schedule.
+	 *
+	 * @return the cooling schedule
+	 */
+	String getCoolingSchedule();
+
+	/**
+	 * Gets the fitness of the current solution.
+	 *
+	 * @return the current fitness
+	 */
+	double getCurrentFitness();
+
+	/**
+	 * Gets the elapsed wall time of the run.
+	 *
+	 * @return the elapsed millis
+	 */
+	long getElapsedMillis();
+
+	/**
+	 * Gets the estimated iterations remaining, from the cooling schedule's
+	 * expected iterations or, failing that, its time budget at the windowed rate.
+	 *
+	 * @return the estimated iterations remaining, or -1 if there is no telling
+	 */
+	long getEstimatedIterationsRemaining();
+
+	/**
+	 * Gets the iterations.
+	 *
+	 * @return the iterations
+	 */
+	long getIterations();
+
+	/**
+	 * Gets the iterations per second since the run started.
+	 *
+	 * @return the iterations per second
+	 */
+	double getIterationsPerSecond();
+
+	/**
+	 * Gets the temperature.
+	 *
+	 * @return the temperature
+	 */
+	double getTemperature();
+
+	/**
+	 * Gets the acceptance rate over the window.
+	 *
+	 * @return the windowed acceptance rate
+	 */
+	double getWindowedAcceptanceRate();
+
+	/**
+	 * Gets the iterations per second over the window.
+	 *
+	 * @return the windowed iterations per second
+	 */
+	double getWindowedIterationsPerSecond();
+}
@@ -0,0 +1,325 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.monitor;
+
+import java.io.File;
+
+import jdk.jfr.EventType;
+
+/**
+ * The Class FlightEvents. Java Flight Recorder events for annealing runs and
+ * their output, so a recording shows the optimiser alongside GC, allocation
+ * and I/O. Every event is disabled by default; turn them on in the recording's
+ * settings, e.g. {@code uk.co.kenreid.Progress#enabled=true}, or all of them
+ * with a settings file.
+ *
+ * Nothing here costs anything with the events off: each call checks that its
+ * event is enabled before doing any work. The build needs Java 11 for the
+ * {@code jdk.jfr} API; on a runtime without it (one linked without the
+ * {@code jdk.jfr} module) the events are never loaded and every call does
+ * nothing.
+ */
+public final class FlightEvents {
+
+	/**
+	 * The Class Recorder. Everything that touches {@code jdk.jfr}, only loaded
+	 * once it is known to be there.
+	 */
+	private static final class Recorder {
+
+		/** The improvement event type. */
+		static final EventType IMPROVEMENT = EventType.getEventType(ImprovementEvent.class);
+
+		/** The progress event type. */
+		static final EventType PROGRESS = EventType.getEventType(ProgressEvent.class);
+
+		/**
+		 * Improved.
+		 *
+		 * @param iteration
+		 *            the iteration
+		 * @param fitness
+		 *            the fitness
+		 * @param temperature
+		 *            the temperature
+		 */
+		static void improved(final long iteration, final double fitness, final double temperature) {
+			if (!Recorder.IMPROVEMENT.isEnabled()) {
+				return;
+			}
+			final ImprovementEvent event = new ImprovementEvent();
+			event.iteration = iteration;
+			event.fitness = fitness;
+			event.temperature = temperature;
+			event.commit();
+		}
+
+		/**
+		 * Output started.
+		 *
+		 * @return the event, or null if not enabled
+		 */
+		static Object outputStarted() {
+			final OutputFileEvent event = new OutputFileEvent();
+			if (!event.isEnabled()) {
+				return null;
+			}
+			event.begin();
+			return event;
+		}
+
+		/**
+		 * Output written.
+		 *
+		 * @param started
+		 *            the started
+		 * @param path
+		 *            the path
+		 */
+		static void outputWritten(final Object started, final String path) {
+			final OutputFileEvent event = (OutputFileEvent) started;
+			event.end();
+			if (event.shouldCommit()) {
+				event.path = path;
+				event.bytes = new File(path).length();
+				event.commit();
+			}
+		}
+
+		/**
+		 * Progress.
+		 *
+		 * @param iterations
+		 *            the iterations
+		 * @param acceptedMoves
+		 *            the accepted moves
+		 * @param temperature
+		 *            the temperature
+		 * @param currentFitness
+		 *            the current fitness
+		 * @param bestFitness
+		 *            the best fitness
+		 */
+		static void progress(final long iterations, final long acceptedMoves, final double temperature, final double currentFitness,
+				final double bestFitness) {
+			final ProgressEvent event = new ProgressEvent();
+			event.iterations = iterations;
+			event.acceptedMoves = acceptedMoves;
+			event.temperature = temperature;
+			event.currentFitness = currentFitness;
+			event.bestFitness = bestFitness;
+			event.commit();
+		}
+
+		/**
+		 * Run finished.
+		 *
+		 * @param started
+		 *            the started
+		 * @param iterations
+		 *            the iterations
+		 * @param acceptedMoves
+		 *            the accepted moves
+		 * @param temperature
+		 *            the temperature
+		 * @param bestFitness
+		 *            the best fitness
+		 */
+		static void runFinished(final Object started, final long iterations, final long acceptedMoves, final double temperature,
+				final double bestFitness) {
+			final RunEvent event = (RunEvent) started;
+			event.end();
+			if (event.shouldCommit()) {
+				event.iterations = iterations;
+				event.acceptedMoves = acceptedMoves;
+				event.temperature = temperature;
+				event.bestFitness = bestFitness;
+				event.commit();
+			}
+		}
+
+		/**
+		 * Run started.
+		 *
+		 * @param coolingSchedule
+		 *            the cooling schedule
+		 * @param seed
+		 *            the seed
+		 * @param temperature
+		 *            the temperature
+		 * @param batchSize
+		 *            the batch size
+		 * @param problemLength
+		 *            the problem length
+		 * @param iteration
+		 *            the iteration
+		 * @return the run event, or null if not enabled
+		 */
+		static Object runStarted(final Object coolingSchedule, final Long seed, final double temperature, final int batchSize,
+				final int problemLength, final long iteration) {
+			final RunStartEvent start = new RunStartEvent();
+			if (start.isEnabled()) {
+				start.coolingSchedule = String.valueOf(coolingSchedule);
+				start.seed = seed == null ? null : seed.toString();
+				start.temperature = temperature;
+				start.batchSize = batchSize;
+				start.problemLength = problemLength;
+				start.iteration = iteration;
+				start.commit();
+			}
+			final RunEvent run = new RunEvent();
+			if (!run.isEnabled()) {
+				return null;
+			}
+			run.coolingSchedule = String.valueOf(coolingSchedule);
+			run.begin();
+			return run;
+		}
+	}
+
+	/** Whether the {@code jdk.jfr} API is there. */
+	private static final boolean AVAILABLE = FlightEvents.isAvailable();
+
+	/** The shortest time between progress samples of one run. */
+	public static final long PROGRESS_INTERVAL_NANOS = 100000000L;
+
+	/**
+	 * Improved. A new best solution.
+	 *
+	 * @param iteration
+	 *            the iteration
+	 * @param fitness
+	 *            the fitness
+	 * @param temperature
+	 *            the temperature
+	 */
+	public static void improved(final long iteration, final double fitness, final double temperature) {
+		if (FlightEvents.AVAILABLE) {
+			Recorder.improved(iteration, fitness, temperature);
+		}
+	}
+
+	/**
+	 * Checks if the {@code jdk.jfr} API is there.
+	 *
+	 * @return true, if available
+	 */
+	private static boolean isAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event");
+			return true;
+		}
+		catch (final ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Checks if progress samples are being recorded, so a run need not gather
+	 * them otherwise.
+	 *
+	 * @return true, if progress is enabled
+	 */
+	public static boolean isProgressEnabled() {
+		return FlightEvents.AVAILABLE && Recorder.PROGRESS.isEnabled();
+	}
+
+	/**
+	 * Output started. Call before building an output file.
+	 *
+	 * @return a handle for {@link #outputWritten(Object, String)}, or null if the
+	 *         event is off
+	 */
+	public static Object outputStarted() {
+		return FlightEvents.AVAILABLE ? Recorder.outputStarted() : null;
+	}
+
+	/**
+	 * Output written. Call once an output file has been written and closed.
+	 *
+	 * @param started
+	 *            the handle from {@link #outputStarted()}
+	 * @param path
+	 *            the path of the file
+	 */
+	public static void outputWritten(final Object started, final String path) {
+		if (started != null) {
+			Recorder.outputWritten(started, path);
+		}
+	}
+
+	/**
+	 * Progress. A sample of a run's progress; see {@link #isProgressEnabled()}.
+	 *
+	 * @param iterations
+	 *            the iterations
+	 * @param acceptedMoves
+	 *            the accepted moves
+	 * @param temperature
+	 *            the temperature
+	 * @param currentFitness
+	 *            the current fitness
+	 * @param bestFitness
+	 *            the best fitness
+	 */
+	public static void progress(final long iterations, final long acceptedMoves, final double temperature, final double currentFitness,
+			final double bestFitness) {
+		if (FlightEvents.AVAILABLE) {
+			Recorder.progress(iterations, acceptedMoves, temperature, currentFitness, bestFitness);
+		}
+	}
+
+	/**
+	 * Run finished.
+	 *
+	 * @param started
+	 *            the handle from
+	 *            {@link #runStarted(Object, Long, double, int, int, long)}
+	 * @param iterations
+	 *            the iterations
+	 * @param acceptedMoves
+	 *            the accepted moves
+	 * @param temperature
+	 *            the temperature
+	 * @param bestFitness
+	 *            the best fitness
+	 */
+	public static void runFinished(final Object started, final long iterations, final long acceptedMoves, final double temperature,
+			final double bestFitness) {
+		if (started != null) {
+			Recorder.runFinished(started, iterations, acceptedMoves, temperature, bestFitness);
+		}
+	}
+
+	/**
+	 * Run started, or resumed.
+	 *
+	 * @param coolingSchedule
+	 *            the cooling schedule, only turned into text if recorded
+	 * @param seed
+	 *            the seed, or null
+	 * @param temperature
+	 *            the temperature
+	 * @param batchSize
+	 *            the batch size
+	 * @param problemLength
+	 *            the problem length
+	 * @param iteration
+	 *            the iteration the run starts from
+	 * @return a handle for
+	 *         {@link #runFinished(Object, long, long, double, double)}, or null
+	 *         if the run event is off
+	 */
+	public static Object runStarted(final Object coolingSchedule, final Long seed, final double temperature, final int batchSize,
+			final int problemLength, final long iteration) {
+		return FlightEvents.AVAILABLE ? Recorder.runStarted(coolingSchedule, seed, temperature, batchSize, problemLength, iteration) : null;
+	}
+
+	/**
+	 * Instantiates a new flight events.
+	 */
+	private FlightEvents() {
+	}
+}
@@ -0,0 +1,36 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Class ImprovementEvent. A new best solution.
+ */
+@Name("uk.co.kenreid.Improvement")
+@Label("Annealing Improvement")
+@Category("Simulated Annealing")
+@Description("A new best solution found by a simulated annealing run")
+@Enabled(false)
+@StackTrace(false)
+final class ImprovementEvent extends jdk.jfr.Event {
+
+	/** The fitness. */
+	@Label("Fitness")
+	double fitness;
+
+	/** The iteration. */
+	@Label("Iteration")
+	long iteration;
+
+	/** The temperature. */
+	@Label("Temperature")
+	double temperature;
+}
@@ -0,0 +1,34 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Class OutputFileEvent. One output file being built and written.
+ */
+@Name("uk.co.kenreid.OutputFile")
+@Label("Annealing Output File")
+@Category("Simulated Annealing")
+@Description("An output file of a simulated annealing run being built and written")
+@Enabled(false)
+@StackTrace(false)
+final class OutputFileEvent extends jdk.jfr.Event {
+
+	/** The size of the file. */
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+
+	/** The path. */
+	@Label("Path")
+	String path;
+}
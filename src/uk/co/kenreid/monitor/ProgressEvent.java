@@ -0,0 +1,44 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Class ProgressEvent. Where a run has got to, sampled every so often.
+ */
+@Name("uk.co.kenreid.Progress")
+@Label("Annealing Progress")
+@Category("Simulated Annealing")
+@Description("A sample of a simulated annealing run's progress")
+@Enabled(false)
+@StackTrace(false)
+final class ProgressEvent extends jdk.jfr.Event {
+
+	/** The moves accepted. */
+	@Label("Accepted Moves")
+	long acceptedMoves;
+
+	/** The best fitness. */
+	@Label("Best Fitness")
+	double bestFitness;
+
+	/** The current fitness. */
+	@Label("Current Fitness")
+	double currentFitness;
+
+	/** The iterations. */
+	@Label("Iterations")
+	long iterations;
+
+	/** The temperature. */
+	@Label("Temperature")
+	double temperature;
+}
@@ -0,0 +1,45 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Class RunEvent. A whole run, from start (or resume) to finish, with how
+ * it turned out.
+ */
+@Name("uk.co.kenreid.Run")
+@Label("Annealing Run")
+@Category("Simulated Annealing")
+@Description("A simulated annealing run, from start or resume to finish")
+@Enabled(false)
+@StackTrace(false)
+final class RunEvent extends jdk.jfr.Event {
+
+	/** The moves accepted. */
+	@Label("Accepted Moves")
+	long acceptedMoves;
+
+	/** The best fitness. */
+	@Label("Best Fitness")
+	double bestFitness;
+
+	/** The cooling schedule. */
+	@Label("Cooling Schedule")
+	String coolingSchedule;
+
+	/** The iterations. */
+	@Label("Iterations")
+	long iterations;
+
+	/** The final temperature. */
+	@Label("Temperature")
+	double temperature;
+}
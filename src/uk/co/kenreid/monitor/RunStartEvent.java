@@ -0,0 +1,48 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Class RunStartEvent. A run starting, or resuming, with its settings.
+ */
+@Name("uk.co.kenreid.RunStart")
+@Label("Annealing Run Start")
+@Category("Simulated Annealing")
+@Description("A simulated annealing run starting or resuming")
+@Enabled(false)
+@StackTrace(false)
+final class RunStartEvent extends jdk.jfr.Event {
+
+	/** The batch size. */
+	@Label("Batch Size")
+	int batchSize;
+
+	/** The cooling schedule. */
+	@Label("Cooling Schedule")
+	String coolingSchedule;
+
+	/** The iteration the run starts from. */
+	@Label("Iteration")
+	long iteration;
+
+	/** The problem length. */
+	@Label("Problem Length")
+	int problemLength;
+
+	/** The seed. */
+	@Label("Seed")
+	String seed;
+
+	/** The starting temperature. */
+	@Label("Temperature")
+	double temperature;
+}
@@ -0,0 +1,76 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Class AbstractCoolingSchedule. Common parts of the built-in schedules: a
+ * starting temperature, a temperature floor and a budget, with the run over
+ * once either the floor is reached or the budget is used up.
+ */
+public abstract class AbstractCoolingSchedule implements CoolingSchedule {
+
+	/** The budget. */
+	protected final Budget budget;
+
+	/** The minimum temperature. */
+	protected final double minimumTemperature;
+
+	/** The starting temperature. */
+	protected final double startingTemperature;
+
+	/**
+	 * Instantiates a new cooling schedule.
+	 *
+	 * @param startingTemperature
+	 *            the starting temperature
+	 * @param minimumTemperature
+	 *            the minimum temperature
+	 * @param budget
+	 *            the budget
+	 */
+	protected AbstractCoolingSchedule(final double startingTemperature, final double minimumTemperature, final Budget budget) {
+		this.startingTemperature = startingTemperature;
+		this.minimumTemperature = minimumTemperature;
+		this.budget = budget;
+	}
+
+	/**
+	 * Gets the budget.
+	 *
+	 * @return the budget
+	 */
+	public Budget getBudget() {
+		return this.budget;
+	}
+
+	@Override
+	public long getExpectedIterations() {
+		return this.budget.getMaximumIterations();
+	}
+
+	/**
+	 * Gets the minimum temperature.
+	 *
+	 * @return the minimum temperature
+	 */
+	public double getMinimumTemperature() {
+		return this.minimumTemperature;
+	}
+
+	@Override
+	public double getStartingTemperature() {
+		return this.startingTemperature;
+	}
+
+	@Override
+	public boolean isFinished(final long iteration, final long elapsedNanos, final double temperature) {
+		return temperature <= this.minimumTemperature || this.budget.isExhausted(iteration, elapsedNanos);
+	}
+
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " from " + this.startingTemperature + " to " + this.minimumTemperature + ", " + this.budget;
+	}
+}
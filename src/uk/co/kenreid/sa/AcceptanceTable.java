@@ -0,0 +1,106 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Class AcceptanceTable. Acceptance probabilities for a fitness that moves
+ * in whole quanta (e.g. one character more or less matching), so an uphill move
+ * can only ever cost a whole number of quanta of energy. The probability for
+ * each number of quanta is worked out the first time it is needed at a
+ * temperature and looked up after that.
+ *
+ * A change of temperature does not rebuild the table. It moves on the epoch,
+ * which makes every entry stale at once; stale entries are redone the next time
+ * they are needed. So a schedule that cools every iteration costs what it
+ * always did, and a temperature held for a while (a parallel tempering replica,
+ * a plateau) calls Math.exp once per distinct move cost rather than per move.
+ */
+final class AcceptanceTable {
+
+	/**
+	 * Barker's criterion, the probability of accepting a move costing the given
+	 * energy.
+	 *
+	 * @param energyIncrease
+	 *            the energy increase
+	 * @param temperature
+	 *            the temperature
+	 * @return the probability
+	 */
+	static double barker(final double energyIncrease, final double temperature) {
+		return 1 / (1 + Math.exp(energyIncrease / temperature));
+	}
+
+	/** The energy of one quantum. */
+	private final double energyQuantum;
+
+	/** The epoch, moved on by every change of temperature. */
+	private long epoch = 1;
+
+	/** The epoch each entry was worked out in. */
+	private final long[] epochs;
+
+	/** The fitness quantum. */
+	private final double fitnessQuantum;
+
+	/** The probabilities, by number of quanta. */
+	private final double[] probabilities;
+
+	/** The temperature the current epoch is for. */
+	private double temperature = Double.NaN;
+
+	/**
+	 * Instantiates a new acceptance table.
+	 *
+	 * @param fitnessQuantum
+	 *            the fitness quantum
+	 * @param maximumFitness
+	 *            the maximum fitness, so the largest move costs this many quanta
+	 *            at most
+	 */
+	AcceptanceTable(final double fitnessQuantum, final double maximumFitness) {
+		this.fitnessQuantum = fitnessQuantum;
+		this.energyQuantum = SimulatedAnnealing.energyCost(0) - SimulatedAnnealing.energyCost(fitnessQuantum);
+		final int size = (int) Math.min(1 << 16, Math.ceil(maximumFitness / fitnessQuantum) + 1);
+		this.probabilities = new double[size];
+		this.epochs = new long[size];
+	}
+
+	/**
+	 * Probability of accepting a move that makes the fitness worse (or no better),
+	 * at the current temperature.
+	 *
+	 * @param originalFitness
+	 *            the original fitness
+	 * @param mutatedFitness
+	 *            the mutated fitness, no higher than the original
+	 * @return the probability
+	 */
+	double probability(final double originalFitness, final double mutatedFitness) {
+		final long quanta = Math.round((originalFitness - mutatedFitness) / this.fitnessQuantum);
+		if (quanta >= this.probabilities.length) {
+			return AcceptanceTable.barker(quanta * this.energyQuantum, this.temperature);
+		}
+		final int index = (int) quanta;
+		if (this.epochs[index] != this.epoch) {
+			this.probabilities[index] = AcceptanceTable.barker(index * this.energyQuantum, this.temperature);
+			this.epochs[index] = this.epoch;
+		}
+		return this.probabilities[index];
+	}
+
+	/**
+	 * Sets the temperature. Only a change of temperature makes the entries stale.
+	 *
+	 * @param temperature
+	 *            the new temperature
+	 */
+	void setTemperature(final double temperature) {
+		if (temperature != this.temperature) {
+			this.temperature = temperature;
+			this.epoch++;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Class AnnealingEvent. Something that happened during a run, as passed to
+ * an {@link AnnealingListener}. Events are held in a ring and reused, so one is
+ * only good for the length of the call it is passed to.
+ *
+ * @param <S>
+ *            the type of state
+ */
+public final class AnnealingEvent<S> {
+
+	/**
+	 * The Enum Type.
+	 */
+	public enum Type {
+
+		/** A move was accepted. */
+		ACCEPT,
+
+		/** The run finished. */
+		FINISH,
+
+		/** A new best solution was found. */
+		IMPROVE,
+
+		/** The run started, or resumed. */
+		START,
+
+		/** The temperature was sampled. */
+		TEMPERATURE
+	}
+
+	/** The fitness of the solution. */
+	private double fitness;
+
+	/** The iteration. */
+	private long iteration;
+
+	/** The run. */
+	private final SimulatedAnnealing<S, ?> source;
+
+	/** The state, a copy of the run's own. */
+	private S state;
+
+	/** The temperature. */
+	private double temperature;
+
+	/** The type. */
+	private Type type;
+
+	/**
+	 * Instantiates a new annealing event.
+	 *
+	 * @param source
+	 *            the run
+	 */
+	AnnealingEvent(final SimulatedAnnealing<S, ?> source) {
+		this.source = source;
+	}
+
+	/**
+	 * Gets the fitness of the solution.
+	 *
+	 * @return the fitness
+	 */
+	public double getFitness() {
+		return this.fitness;
+	}
+
+	/**
+	 * Gets the iteration.
+	 *
+	 * @return the iteration
+	 */
+	public long getIteration() {
+		return this.iteration;
+	}
+
+	/**
+	 * Gets the solution, as the problem describes it.
+	 *
+	 * @return the solution
+	 */
+	public String getSolution() {
+		return this.source.getProblem().describe(this.state);
+	}
+
+	/**
+	 * Gets the run the event is from.
+	 *
+	 * @return the source
+	 */
+	public SimulatedAnnealing<S, ?> getSource() {
+		return this.source;
+	}
+
+	/**
+	 * Gets the state.
+	 *
+	 * @return the state
+	 */
+	public S getState() {
+		return this.state;
+	}
+
+	/**
+	 * Gets the temperature.
+	 *
+	 * @return the temperature
+	 */
+	public double getTemperature() {
+		return this.temperature;
+	}
+
+	/**
+	 * Gets the type.
+	 *
+	 * @return the type
+	 */
+	public Type getType() {
+		return this.type;
+	}
+
+	/**
+	 * Sets the event, copying the state.
+	 *
+	 * @param type
+	 *            the type
+	 * @param iteration
+	 *            the iteration
+	 * @param temperature
+	 *            the temperature
+	 * @param fitness
+	 *            the fitness
+	 * @param state
+	 *            the state
+	 */
+	void set(final Type type, final long iteration, final double temperature, final double fitness, final S state) {
+		this.type = type;
+		this.iteration = iteration;
+		this.temperature = temperature;
+		this.fitness = fitness;
+		this.state = this.source.getProblem().copy(state, this.state);
+	}
+
+	@Override
+	public String toString() {
+		return this.type + " at iteration " + this.iteration + ", temperature " + this.temperature + ", fitness " + this.fitness;
+	}
+}
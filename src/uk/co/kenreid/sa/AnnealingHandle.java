@@ -0,0 +1,134 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The Class AnnealingHandle. A run going on in the background. The best solution
+ * so far can be read at any moment, the run can be cancelled, and
+ * {@link #await(long)} waits no longer than asked before handing back the best
+ * solution so far, whether the run has finished or not.
+ *
+ * @param <S>
+ *            the type of state
+ * @param <M>
+ *            the type of move
+ */
+public class AnnealingHandle<S, M> {
+
+	/**
+	 * Start. Runs sA on the executor until it finishes, the deadline passes or the
+	 * token is cancelled.
+	 *
+	 * @param <S>
+	 *            the type of state
+	 * @param <M>
+	 *            the type of move
+	 * @param sA
+	 *            the sA, which must not be run by anything else meanwhile
+	 * @param executor
+	 *            the executor
+	 * @param deadlineMillis
+	 *            the deadline in milliseconds from now, or -1 for none
+	 * @param token
+	 *            the token
+	 * @return the annealing handle
+	 */
+	public static <S, M> AnnealingHandle<S, M> start(final SimulatedAnnealing<S, M> sA, final ExecutorService executor, final long deadlineMillis,
+			final CancellationToken token) {
+		final CancellationToken runToken = deadlineMillis < 0 ? token : token.withDeadline(deadlineMillis);
+		final Future<?> future = executor.submit(() -> sA.go(runToken));
+		return new AnnealingHandle<>(sA, future, token);
+	}
+
+	/** The future. */
+	private final Future<?> future;
+
+	/** The sA. */
+	private final SimulatedAnnealing<S, M> sA;
+
+	/** The token. */
+	private final CancellationToken token;
+
+	/**
+	 * Instantiates a new annealing handle.
+	 *
+	 * @param sA
+	 *            the sA
+	 * @param future
+	 *            the future
+	 * @param token
+	 *            the token
+	 */
+	private AnnealingHandle(final SimulatedAnnealing<S, M> sA, final Future<?> future, final CancellationToken token) {
+		this.sA = sA;
+		this.future = future;
+		this.token = token;
+	}
+
+	/**
+	 * Await. Waits for the run to finish, for no longer than the timeout.
+	 *
+	 * @param timeoutMillis
+	 *            the timeout millis
+	 * @return the best solution so far, or null if the run had not started yet
+	 */
+	public Incumbent<S> await(final long timeoutMillis) {
+		try {
+			this.future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (final TimeoutException | CancellationException e) {
+			// fine, whatever has been found so far is the answer
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (final ExecutionException e) {
+			System.err.println(e.getCause());
+		}
+		return this.getIncumbent();
+	}
+
+	/**
+	 * Cancel. The run stops at its next check, normally well within a
+	 * millisecond, and keeps the best solution so far.
+	 */
+	public void cancel() {
+		this.token.cancel();
+	}
+
+	/**
+	 * Gets the best solution so far.
+	 *
+	 * @return the incumbent, or null if the run has not started yet
+	 */
+	public Incumbent<S> getIncumbent() {
+		return this.sA.getIncumbent();
+	}
+
+	/**
+	 * Gets the sA. Only safe to read once {@link #isDone()}.
+	 *
+	 * @return the sA
+	 */
+	public SimulatedAnnealing<S, M> getSimulatedAnnealing() {
+		return this.sA;
+	}
+
+	/**
+	 * Checks if is done.
+	 *
+	 * @return true, if the run has stopped, for whatever reason
+	 */
+	public boolean isDone() {
+		return this.future.isDone();
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The listener interface for receiving annealing events. Listeners are added
+ * to the {@link uk.co.kenreid.dataobjects.Context} and hear about a run on a
+ * thread of its own, never the run's, some time after the event. Only the
+ * events wanted need be overridden.
+ *
+ * An event is only good for the length of the call; it is reused afterwards.
+ * Listeners of a multi-start run hear from every chain at once, so must be
+ * thread safe.
+ */
+public interface AnnealingListener {
+
+	/**
+	 * On accept, of any move.
+	 *
+	 * @param event
+	 *            the event, with the solution after the move
+	 */
+	default void onAccept(final AnnealingEvent<?> event) {
+	}
+
+	/**
+	 * On finish.
+	 *
+	 * @param event
+	 *            the event, with the best solution of the run
+	 */
+	default void onFinish(final AnnealingEvent<?> event) {
+	}
+
+	/**
+	 * On improve, i.e. a new best solution.
+	 *
+	 * @param event
+	 *            the event, with the new best solution
+	 */
+	default void onImprove(final AnnealingEvent<?> event) {
+	}
+
+	/**
+	 * On start, or on resuming from a checkpoint.
+	 *
+	 * @param event
+	 *            the event, with the initial (or resumed) solution
+	 */
+	default void onStart(final AnnealingEvent<?> event) {
+	}
+
+	/**
+	 * On temperature, taken whenever the run samples the wall time (every 256
+	 * iterations).
+	 *
+	 * @param event
+	 *            the event, with the current solution
+	 */
+	default void onTemperature(final AnnealingEvent<?> event) {
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Class BatchPolicy. Decides how many moves a step proposes at once, and
+ * which one it keeps. A batch of K proposals is scored in one pass, each against
+ * the current solution, and counts as K iterations, so cooling schedules and
+ * budgets see the same number of proposals either way.
+ */
+public final class BatchPolicy {
+
+	/**
+	 * The Enum Selection.
+	 */
+	public enum Selection {
+
+		/**
+		 * Acceptance is tried on each proposal in turn and the first accepted is
+		 * kept; the rest are dropped.
+		 */
+		FIRST_ACCEPTED,
+
+		/** Acceptance is tried on every proposal and the fittest accepted is kept. */
+		BEST_ACCEPTED
+	}
+
+	/**
+	 * Best accepted.
+	 *
+	 * @param size
+	 *            the number of proposals per step
+	 * @return the batch policy
+	 */
+	public static BatchPolicy bestAccepted(final int size) {
+		return new BatchPolicy(Selection.BEST_ACCEPTED, size);
+	}
+
+	/**
+	 * First accepted.
+	 *
+	 * @param size
+	 *            the number of proposals per step
+	 * @return the batch policy
+	 */
+	public static BatchPolicy firstAccepted(final int size) {
+		return new BatchPolicy(Selection.FIRST_ACCEPTED, size);
+	}
+
+	/**
+	 * Single. One proposal per step, as the engine has always run.
+	 *
+	 * @return the batch policy
+	 */
+	public static BatchPolicy single() {
+		return new BatchPolicy(Selection.FIRST_ACCEPTED, 1);
+	}
+
+	/** The selection. */
+	private final Selection selection;
+
+	/** The number of proposals per step. */
+	private final int size;
+
+	/**
+	 * Instantiates a new batch policy.
+	 *
+	 * @param selection
+	 *            the selection
+	 * @param size
+	 *            the size
+	 */
+	private BatchPolicy(final Selection selection, final int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("size must be at least 1, was " + size);
+		}
+		this.selection = selection;
+		this.size = size;
+	}
+
+	/**
+	 * Gets the selection.
+	 *
+	 * @return the selection
+	 */
+	public Selection getSelection() {
+		return this.selection;
+	}
+
+	/**
+	 * Gets the number of proposals per step.
+	 *
+	 * @return the size
+	 */
+	public int getSize() {
+		return this.size;
+	}
+
+	@Override
+	public String toString() {
+		return this.size == 1 ? "SINGLE" : this.selection + "(" + this.size + ")";
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Class Budget. How long a run may take, as a number of iterations, a wall
+ * time, both (whichever runs out first) or neither. Cooling schedules use the
+ * budget both to stop and, where they cool towards the end of the budget, to
+ * work out how far through the run they are.
+ */
+public final class Budget {
+
+	/**
+	 * Iterations.
+	 *
+	 * @param iterations
+	 *            the maximum iterations
+	 * @return the budget
+	 */
+	public static Budget iterations(final long iterations) {
+		return new Budget(iterations, -1);
+	}
+
+	/**
+	 * None.
+	 *
+	 * @return a budget that never runs out
+	 */
+	public static Budget none() {
+		return new Budget(-1, -1);
+	}
+
+	/**
+	 * Wall time.
+	 *
+	 * @param millis
+	 *            the maximum wall time in milliseconds
+	 * @return the budget
+	 */
+	public static Budget wallTime(final long millis) {
+		return new Budget(-1, millis * 1000000);
+	}
+
+	/** The maximum iterations, or -1 for no limit. */
+	private final long maximumIterations;
+
+	/** The maximum wall time in nanoseconds, or -1 for no limit. */
+	private final long maximumNanos;
+
+	/**
+	 * Instantiates a new budget.
+	 *
+	 * @param maximumIterations
+	 *            the maximum iterations, or -1 for no limit
+	 * @param maximumNanos
+	 *            the maximum wall time in nanoseconds, or -1 for no limit
+	 */
+	public Budget(final long maximumIterations, final long maximumNanos) {
+		this.maximumIterations = maximumIterations;
+		this.maximumNanos = maximumNanos;
+	}
+
+	/**
+	 * And wall time. Adds a wall time limit to this budget.
+	 *
+	 * @param millis
+	 *            the maximum wall time in milliseconds
+	 * @return the budget
+	 */
+	public Budget andWallTime(final long millis) {
+		return new Budget(this.maximumIterations, millis * 1000000);
+	}
+
+	/**
+	 * Gets the maximum iterations.
+	 *
+	 * @return the maximum iterations, or -1 for no limit
+	 */
+	public long getMaximumIterations() {
+		return this.maximumIterations;
+	}
+
+	/**
+	 * Gets the maximum wall time.
+	 *
+	 * @return the maximum wall time in nanoseconds, or -1 for no limit
+	 */
+	public long getMaximumNanos() {
+		return this.maximumNanos;
+	}
+
+	/**
+	 * Checks if the budget has a limit.
+	 *
+	 * @return true, if there is an iteration or wall time limit
+	 */
+	public boolean isBounded() {
+		return this.maximumIterations >= 0 || this.maximumNanos >= 0;
+	}
+
+	/**
+	 * Checks if the budget is exhausted.
+	 *
+	 * @param iteration
+	 *            the iteration
+	 * @param elapsedNanos
+	 *            the elapsed wall time in nanoseconds
+	 * @return true, if exhausted
+	 */
+	public boolean isExhausted(final long iteration, final long elapsedNanos) {
+		return this.maximumIterations >= 0 && iteration >= this.maximumIterations || this.maximumNanos >= 0 && elapsedNanos >= this.maximumNanos;
+	}
+
+	/**
+	 * Progress through the budget, by whichever limit is closest to running out.
+	 *
+	 * @param iteration
+	 *            the iteration
+	 * @param elapsedNanos
+	 *            the elapsed wall time in nanoseconds
+	 * @return the progress, from 0 to 1, or 0 if there is no limit
+	 */
+	public double progress(final long iteration, final long elapsedNanos) {
+		double progress = 0;
+		if (this.maximumIterations > 0) {
+			progress = (double) iteration / this.maximumIterations;
+		}
+		if (this.maximumNanos > 0) {
+			progress = Math.max(progress, (double) elapsedNanos / this.maximumNanos);
+		}
+		return Math.min(1, progress);
+	}
+
+	@Override
+	public String toString() {
+		return (this.maximumIterations >= 0 ? this.maximumIterations + " iterations" : "no iteration limit") + ", "
+				+ (this.maximumNanos >= 0 ? this.maximumNanos / 1000000 + "ms" : "no time limit");
+	}
+}
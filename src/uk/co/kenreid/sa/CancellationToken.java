@@ -0,0 +1,81 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Class CancellationToken. Lets a caller stop a run from another thread. The
+ * run looks at the token every so often (see {@link SimulatedAnnealing#go(CancellationToken)})
+ * and, once cancelled, stops at the next check and keeps what it has. A token
+ * can also carry a deadline, after which it counts as cancelled by itself.
+ */
+public final class CancellationToken {
+
+	/** No deadline. */
+	private static final long NO_DEADLINE = -1;
+
+	/** The cancelled. */
+	private volatile boolean cancelled;
+
+	/** The deadline, from System.nanoTime(), or {@link #NO_DEADLINE}. */
+	private final long deadlineNanos;
+
+	/** The token this one was made from, or null. Cancelling it cancels this one. */
+	private final CancellationToken parent;
+
+	/**
+	 * Instantiates a new cancellation token, with no deadline.
+	 */
+	public CancellationToken() {
+		this(null, CancellationToken.NO_DEADLINE);
+	}
+
+	/**
+	 * Instantiates a new cancellation token.
+	 *
+	 * @param parent
+	 *            the parent, or null
+	 * @param deadlineNanos
+	 *            the deadline nanos
+	 */
+	private CancellationToken(final CancellationToken parent, final long deadlineNanos) {
+		this.parent = parent;
+		this.deadlineNanos = deadlineNanos;
+	}
+
+	/**
+	 * Cancel. Safe to call from any thread, any number of times.
+	 */
+	public void cancel() {
+		this.cancelled = true;
+	}
+
+	/**
+	 * Checks if is cancelled, i.e. cancel() has been called on this token or the
+	 * one it was made from, or the deadline has passed.
+	 *
+	 * @return true, if is cancelled
+	 */
+	public boolean isCancelled() {
+		if (this.cancelled) {
+			return true;
+		}
+		if (this.deadlineNanos != CancellationToken.NO_DEADLINE && System.nanoTime() - this.deadlineNanos >= 0) {
+			return true;
+		}
+		return this.parent != null && this.parent.isCancelled();
+	}
+
+	/**
+	 * With deadline. The new token is cancelled when this one is, or when the
+	 * deadline passes, whichever comes first.
+	 *
+	 * @param millis
+	 *            the deadline, in milliseconds from now
+	 * @return the cancellation token
+	 */
+	public CancellationToken withDeadline(final long millis) {
+		return new CancellationToken(this, System.nanoTime() + millis * 1000000);
+	}
+}
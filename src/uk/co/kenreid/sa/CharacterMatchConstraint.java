@@ -0,0 +1,131 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import uk.co.kenreid.dataobjects.Target;
+import uk.co.kenreid.function.MismatchCounter;
+
+/**
+ * The Class CharacterMatchConstraint. Incremental version of SC1 in
+ * {@link Fitness}: the proportion of characters that match the problem. Keeps a
+ * count of matching characters so a single character change is scored in O(1).
+ */
+public class CharacterMatchConstraint implements Constraint {
+
+	/** The length of the shortest of the solution and the problem. */
+	private int length;
+
+	/** The number of matching characters. */
+	private int matches;
+
+	/** The name. */
+	private final String name;
+
+	/** The problem. */
+	private final Target problem;
+
+	/**
+	 * Instantiates a new character match constraint.
+	 *
+	 * @param name
+	 *            the name
+	 * @param problem
+	 *            the problem
+	 */
+	public CharacterMatchConstraint(final String name, final byte[] problem) {
+		this(name, Target.wrap(problem));
+	}
+
+	/**
+	 * Instantiates a new character match constraint.
+	 *
+	 * @param name
+	 *            the name
+	 * @param problem
+	 *            the problem
+	 */
+	public CharacterMatchConstraint(final String name, final Target problem) {
+		this.name = name;
+		this.problem = problem;
+	}
+
+	@Override
+	public void apply(final int position, final byte oldChar, final byte newChar) {
+		this.matches = this.matchesAfter(position, oldChar, newChar);
+	}
+
+	@Override
+	public void evaluate(final byte[] solution) {
+		this.length = Math.min(solution.length, this.problem.length());
+		this.matches = this.length - MismatchCounter.count(this.problem.getBytes(), solution, this.length);
+	}
+
+	@Override
+	public double getFitness() {
+		return (double) this.matches / this.length;
+	}
+
+	@Override
+	public double getFitnessAfter(final int position, final byte oldChar, final byte newChar) {
+		return (double) this.matchesAfter(position, oldChar, newChar) / this.length;
+	}
+
+	@Override
+	public void getFitnessesAfter(final int[] positions, final byte[] oldChars, final byte[] newChars, final int count, final double[] fitnesses) {
+		final Target problem = this.problem;
+		final int length = this.length;
+		final int matches = this.matches;
+		for (int k = 0; k < count; k++) {
+			final int position = positions[k];
+			int matchesAfter = matches;
+			if (position < length) {
+				final byte correctChar = problem.byteAt(position);
+				matchesAfter += (newChars[k] == correctChar ? 1 : 0) - (oldChars[k] == correctChar ? 1 : 0);
+			}
+			fitnesses[k] = (double) matchesAfter / length;
+		}
+	}
+
+	@Override
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Gets the quantum. One character more or less matching.
+	 *
+	 * @return the quantum
+	 */
+	@Override
+	public double getQuantum() {
+		return 1.0 / this.length;
+	}
+
+	/**
+	 * Matches after the given change.
+	 *
+	 * @param position
+	 *            the position
+	 * @param oldChar
+	 *            the old char
+	 * @param newChar
+	 *            the new char
+	 * @return the number of matches
+	 */
+	private int matchesAfter(final int position, final byte oldChar, final byte newChar) {
+		if (position >= this.length) {
+			return this.matches;
+		}
+		final byte correctChar = this.problem.byteAt(position);
+		int matchesAfter = this.matches;
+		if (oldChar == correctChar) {
+			matchesAfter--;
+		}
+		if (newChar == correctChar) {
+			matchesAfter++;
+		}
+		return matchesAfter;
+	}
+}
@@ -0,0 +1,328 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The Class Checkpoint. Everything a {@link SimulatedAnnealing} run needs to
+ * carry on from where it was: the current and best solutions (as written by
+ * {@link Problem#toBytes(Object)}), the temperature, the iteration count, the
+ * elapsed time and the state of the random source.
+ * Resuming from a checkpoint with the same settings takes exactly the path the
+ * run would have taken had it not stopped.
+ *
+ * The trace is not kept; a resumed run traces from the point it resumed. The
+ * initial solution is kept, so the original fitness is still reported. A run
+ * that finishes deletes its checkpoint file, so only a run that was stopped
+ * part way is ever resumed.
+ *
+ * Checkpoints are written to a file next to the real one, forced to disk and
+ * then moved over it, so the file always holds a whole checkpoint, old or new,
+ * however the JVM dies.
+ */
+public final class Checkpoint {
+
+	/** The default time between checkpoints, in milliseconds. */
+	public static final long DEFAULT_INTERVAL_MILLIS = 60000;
+
+	/** The magic number at the start of every checkpoint file. */
+	private static final int MAGIC = 0x53414350;
+
+	/** The file format version. */
+	private static final int VERSION = 2;
+
+	/**
+	 * Read.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the checkpoint
+	 * @throws IOException
+	 *             if the file cannot be read or is not a checkpoint
+	 */
+	public static Checkpoint read(final Path file) throws IOException {
+		try (final InputStream in = Files.newInputStream(file); final DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+			if (data.readInt() != Checkpoint.MAGIC) {
+				throw new IOException("Not a checkpoint: " + file);
+			}
+			final int version = data.readInt();
+			if (version != Checkpoint.VERSION) {
+				throw new IOException("Unsupported checkpoint version " + version + ": " + file);
+			}
+			final long problemHash = data.readLong();
+			final long iterations = data.readLong();
+			final long elapsedNanos = data.readLong();
+			final double temperature = data.readDouble();
+			final double candidateFitness = data.readDouble();
+			final long[] randomState = { data.readLong(), data.readLong() };
+			final byte[] initialSolution = Checkpoint.readBytes(data);
+			final byte[] currentSolution = Checkpoint.readBytes(data);
+			final byte[] bestSolution = Checkpoint.readBytes(data);
+			final double bestFitness = data.readDouble();
+			final long bestIteration = data.readLong();
+			return new Checkpoint(problemHash, iterations, elapsedNanos, temperature, candidateFitness, randomState, initialSolution, currentSolution,
+					bestSolution, bestFitness, bestIteration);
+		}
+	}
+
+	/**
+	 * Read bytes.
+	 *
+	 * @param data
+	 *            the data
+	 * @return the bytes, preceded in the file by their length
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static byte[] readBytes(final DataInputStream data) throws IOException {
+		final byte[] bytes = new byte[data.readInt()];
+		data.readFully(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Write bytes, preceded by their length.
+	 *
+	 * @param data
+	 *            the data
+	 * @param bytes
+	 *            the bytes
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static void writeBytes(final DataOutputStream data, final byte[] bytes) throws IOException {
+		data.writeInt(bytes.length);
+		data.write(bytes);
+	}
+
+	/** The fitness of the best solution. */
+	private final double bestFitness;
+
+	/** The iteration the best solution was found at. */
+	private final long bestIteration;
+
+	/** The best solution. */
+	private final byte[] bestSolution;
+
+	/** The fitness of the last move proposed. */
+	private final double candidateFitness;
+
+	/** The current solution. */
+	private final byte[] currentSolution;
+
+	/** The elapsed wall time of the run, in nanoseconds. */
+	private final long elapsedNanos;
+
+	/** The random initial solution. */
+	private final byte[] initialSolution;
+
+	/** The iterations done. */
+	private final long iterations;
+
+	/** The hash of the problem, so a checkpoint is not resumed on another. */
+	private final long problemHash;
+
+	/** The state of the random source. */
+	private final long[] randomState;
+
+	/** The temperature, already cooled for the next iteration. */
+	private final double temperature;
+
+	/**
+	 * Instantiates a new checkpoint. The arrays are kept, not copied.
+	 *
+	 * @param problemHash
+	 *            the problem hash
+	 * @param iterations
+	 *            the iterations
+	 * @param elapsedNanos
+	 *            the elapsed nanos
+	 * @param temperature
+	 *            the temperature
+	 * @param candidateFitness
+	 *            the candidate fitness
+	 * @param randomState
+	 *            the random state
+	 * @param initialSolution
+	 *            the initial solution
+	 * @param currentSolution
+	 *            the current solution
+	 * @param bestSolution
+	 *            the best solution
+	 * @param bestFitness
+	 *            the best fitness
+	 * @param bestIteration
+	 *            the best iteration
+	 */
+	Checkpoint(final long problemHash, final long iterations, final long elapsedNanos, final double temperature, final double candidateFitness,
+			final long[] randomState, final byte[] initialSolution, final byte[] currentSolution, final byte[] bestSolution, final double bestFitness,
+			final long bestIteration) {
+		this.problemHash = problemHash;
+		this.iterations = iterations;
+		this.elapsedNanos = elapsedNanos;
+		this.temperature = temperature;
+		this.candidateFitness = candidateFitness;
+		this.randomState = randomState;
+		this.initialSolution = initialSolution;
+		this.currentSolution = currentSolution;
+		this.bestSolution = bestSolution;
+		this.bestFitness = bestFitness;
+		this.bestIteration = bestIteration;
+	}
+
+	/**
+	 * Gets the best fitness.
+	 *
+	 * @return the best fitness
+	 */
+	public double getBestFitness() {
+		return this.bestFitness;
+	}
+
+	/**
+	 * Gets the best iteration.
+	 *
+	 * @return the best iteration
+	 */
+	long getBestIteration() {
+		return this.bestIteration;
+	}
+
+	/**
+	 * Gets the best solution.
+	 *
+	 * @return the best solution
+	 */
+	byte[] getBestSolution() {
+		return this.bestSolution;
+	}
+
+	/**
+	 * Gets the candidate fitness.
+	 *
+	 * @return the candidate fitness
+	 */
+	double getCandidateFitness() {
+		return this.candidateFitness;
+	}
+
+	/**
+	 * Gets the current solution.
+	 *
+	 * @return the current solution
+	 */
+	byte[] getCurrentSolution() {
+		return this.currentSolution;
+	}
+
+	/**
+	 * Gets the elapsed wall time of the run.
+	 *
+	 * @return the elapsed nanos
+	 */
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+
+	/**
+	 * Gets the initial solution.
+	 *
+	 * @return the initial solution
+	 */
+	byte[] getInitialSolution() {
+		return this.initialSolution;
+	}
+
+	/**
+	 * Gets the iterations.
+	 *
+	 * @return the iterations
+	 */
+	public long getIterations() {
+		return this.iterations;
+	}
+
+	/**
+	 * Gets the problem hash.
+	 *
+	 * @return the problem hash
+	 */
+	long getProblemHash() {
+		return this.problemHash;
+	}
+
+	/**
+	 * Gets the random state.
+	 *
+	 * @return the random state
+	 */
+	long[] getRandomState() {
+		return this.randomState;
+	}
+
+	/**
+	 * Gets the temperature.
+	 *
+	 * @return the temperature
+	 */
+	public double getTemperature() {
+		return this.temperature;
+	}
+
+	@Override
+	public String toString() {
+		return "Checkpoint at iteration " + this.iterations + ", temperature " + this.temperature + ", best fitness " + this.bestFitness;
+	}
+
+	/**
+	 * Write. Writes the checkpoint beside the file, forces it to disk and moves it
+	 * over the file in one step.
+	 *
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public void write(final Path file) throws IOException {
+		final Path absolute = file.toAbsolutePath();
+		final Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+		try (final FileOutputStream out = new FileOutputStream(temporary.toFile());
+				final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+			data.writeInt(Checkpoint.MAGIC);
+			data.writeInt(Checkpoint.VERSION);
+			data.writeLong(this.problemHash);
+			data.writeLong(this.iterations);
+			data.writeLong(this.elapsedNanos);
+			data.writeDouble(this.temperature);
+			data.writeDouble(this.candidateFitness);
+			data.writeLong(this.randomState[0]);
+			data.writeLong(this.randomState[1]);
+			Checkpoint.writeBytes(data, this.initialSolution);
+			Checkpoint.writeBytes(data, this.currentSolution);
+			Checkpoint.writeBytes(data, this.bestSolution);
+			data.writeDouble(this.bestFitness);
+			data.writeLong(this.bestIteration);
+			data.flush();
+			out.getFD().sync();
+		}
+		try {
+			Files.move(temporary, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (final AtomicMoveNotSupportedException e) {
+			Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+}
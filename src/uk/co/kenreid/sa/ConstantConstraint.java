@@ -0,0 +1,68 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.Arrays;
+
+/**
+ * The Class ConstantConstraint. Incremental version of SC2 in {@link Fitness},
+ * which always returns the same value regardless of the solution.
+ */
+public class ConstantConstraint implements Constraint {
+
+	/** The name. */
+	private final String name;
+
+	/** The value. */
+	private final double value;
+
+	/**
+	 * Instantiates a new constant constraint.
+	 *
+	 * @param name
+	 *            the name
+	 * @param value
+	 *            the value
+	 */
+	public ConstantConstraint(final String name, final double value) {
+		this.name = name;
+		this.value = value;
+	}
+
+	@Override
+	public void apply(final int position, final byte oldChar, final byte newChar) {
+		// nothing to track
+	}
+
+	@Override
+	public void evaluate(final byte[] solution) {
+		// nothing to track
+	}
+
+	@Override
+	public double getFitness() {
+		return this.value;
+	}
+
+	@Override
+	public double getFitnessAfter(final int position, final byte oldChar, final byte newChar) {
+		return this.value;
+	}
+
+	@Override
+	public void getFitnessesAfter(final int[] positions, final byte[] oldChars, final byte[] newChars, final int count, final double[] fitnesses) {
+		Arrays.fill(fitnesses, 0, count, this.value);
+	}
+
+	@Override
+	public String getName() {
+		return this.name;
+	}
+
+	@Override
+	public double getQuantum() {
+		return 0;
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Interface Constraint. A single soft (or hard) constraint that can score a
+ * whole solution, and can also report what its score would be after a single
+ * character change without rescanning the solution. Implementations keep
+ * whatever running state they need between moves, so an instance belongs to one
+ * chain only.
+ */
+public interface Constraint {
+
+	/**
+	 * Apply. Commits a single character change to the running state.
+	 *
+	 * @param position
+	 *            the position
+	 * @param oldChar
+	 *            the old char
+	 * @param newChar
+	 *            the new char
+	 */
+	void apply(int position, byte oldChar, byte newChar);
+
+	/**
+	 * Evaluate. Full evaluation of the solution, resetting the running state.
+	 *
+	 * @param solution
+	 *            the solution
+	 */
+	void evaluate(byte[] solution);
+
+	/**
+	 * Gets the fitness of the current state.
+	 *
+	 * @return the fitness
+	 */
+	double getFitness();
+
+	/**
+	 * Gets the fitness the solution would have after the given change. Does not
+	 * modify the running state.
+	 *
+	 * @param position
+	 *            the position
+	 * @param oldChar
+	 *            the old char
+	 * @param newChar
+	 *            the new char
+	 * @return the fitness after the change
+	 */
+	double getFitnessAfter(int position, byte oldChar, byte newChar);
+
+	/**
+	 * Gets the fitness the solution would have after each of a batch of changes,
+	 * each taken on its own against the current state. Does not modify the
+	 * running state. Implementations can override this with a tighter loop.
+	 *
+	 * @param positions
+	 *            the positions
+	 * @param oldChars
+	 *            the old chars
+	 * @param newChars
+	 *            the new chars
+	 * @param count
+	 *            the number of changes
+	 * @param fitnesses
+	 *            receives the fitness after each change
+	 */
+	default void getFitnessesAfter(final int[] positions, final byte[] oldChars, final byte[] newChars, final int count, final double[] fitnesses) {
+		for (int k = 0; k < count; k++) {
+			fitnesses[k] = this.getFitnessAfter(positions[k], oldChars[k], newChars[k]);
+		}
+	}
+
+	/**
+	 * Gets the quantum, the step the fitness moves in. A fitness that can only
+	 * change by whole multiples of some step lets the engine look acceptance
+	 * probabilities up rather than work them out.
+	 *
+	 * @return the quantum, 0 if the fitness never changes, or NaN if it is
+	 *         continuous
+	 */
+	default double getQuantum() {
+		return Double.NaN;
+	}
+
+	/**
+	 * Gets the name, as used in the weightings map (e.g. "SC1").
+	 *
+	 * @return the name
+	 */
+	String getName();
+}
@@ -0,0 +1,96 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Interface CoolingSchedule. Decides the starting temperature, how the
+ * temperature falls from one iteration to the next, and when the run is over.
+ * Schedules hold no state of their own (the current temperature is passed in),
+ * so one schedule can be shared by any number of chains.
+ */
+public interface CoolingSchedule {
+
+	/** The temperature at which a run stops, unless a schedule says otherwise. */
+	double DEFAULT_MINIMUM_TEMPERATURE = 0.00001;
+
+	/**
+	 * Creates a schedule by name, as given in the parameter file. Schedules other
+	 * than geometric need a budget; if there is none, the number of iterations
+	 * geometric cooling would take is used instead, so switching schedule keeps
+	 * the run about the same length.
+	 *
+	 * @param name
+	 *            geometric, linear, logarithmic, lundy-mees or exponential
+	 * @param startingTemperature
+	 *            the starting temperature
+	 * @param coolingRate
+	 *            the cooling rate, for geometric cooling
+	 * @param budget
+	 *            the budget
+	 * @return the cooling schedule
+	 */
+	static CoolingSchedule create(final String name, final double startingTemperature, final double coolingRate, final Budget budget) {
+		final GeometricCooling geometric = new GeometricCooling(startingTemperature, coolingRate, CoolingSchedule.DEFAULT_MINIMUM_TEMPERATURE, budget);
+		final String schedule = name == null ? "geometric" : name.trim().toLowerCase();
+		if (schedule.isEmpty() || schedule.equals("geometric")) {
+			return geometric;
+		}
+		final Budget bounded = budget.isBounded() ? budget : Budget.iterations(geometric.getExpectedIterations());
+		switch (schedule) {
+		case "linear":
+			return new LinearCooling(startingTemperature, CoolingSchedule.DEFAULT_MINIMUM_TEMPERATURE, bounded);
+		case "logarithmic":
+			return new LogarithmicCooling(startingTemperature, bounded);
+		case "lundy-mees":
+			return LundyMeesCooling.forBudget(startingTemperature, CoolingSchedule.DEFAULT_MINIMUM_TEMPERATURE, bounded);
+		case "exponential":
+			return new ExponentialCooling(startingTemperature, CoolingSchedule.DEFAULT_MINIMUM_TEMPERATURE, bounded);
+		default:
+			throw new IllegalArgumentException("Unknown cooling schedule: " + name);
+		}
+	}
+
+	/**
+	 * Gets the expected iterations, used to size the trace and to estimate the
+	 * time remaining. A run can finish earlier, e.g. on a perfect solution.
+	 *
+	 * @return the expected iterations, or -1 if not known in advance
+	 */
+	long getExpectedIterations();
+
+	/**
+	 * Gets the starting temperature.
+	 *
+	 * @return the starting temperature
+	 */
+	double getStartingTemperature();
+
+	/**
+	 * Checks if the run is finished.
+	 *
+	 * @param iteration
+	 *            the iterations done so far
+	 * @param elapsedNanos
+	 *            the elapsed wall time in nanoseconds
+	 * @param temperature
+	 *            the current temperature
+	 * @return true, if finished
+	 */
+	boolean isFinished(long iteration, long elapsedNanos, double temperature);
+
+	/**
+	 * Next temperature.
+	 *
+	 * @param iteration
+	 *            the iterations done so far
+	 * @param elapsedNanos
+	 *            the elapsed wall time in nanoseconds, refreshed periodically
+	 *            rather than every iteration
+	 * @param temperature
+	 *            the current temperature
+	 * @return the temperature for the next iteration
+	 */
+	double nextTemperature(long iteration, long elapsedNanos, double temperature);
+}
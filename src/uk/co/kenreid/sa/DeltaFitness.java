@@ -0,0 +1,473 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import uk.co.kenreid.dataobjects.Context;
+
+/**
+ * The Class DeltaFitness. Incremental counterpart to {@link Fitness}. The
+ * solution is evaluated in full once, after which each single character change
+ * is scored from the old and new character at the changed position only, using
+ * the same constraints and weightings as {@link Fitness}.
+ *
+ * If the context has a {@link FitnessCache}, a move leading to a solution that
+ * has been scored before takes its fitnesses from the cache rather than the
+ * constraints, and every solution scored goes into the cache.
+ *
+ * A {@link StringEdit} of several changes is scored as its last change, on top
+ * of the others made for the while.
+ */
+public class DeltaFitness {
+
+	/**
+	 * The fitnesses per constraint of each move of the last batch, indexed by
+	 * constraint then move.
+	 */
+	private double[][] batchFitnesses = new double[0][0];
+
+	/** The new character of each move of the last batch of edits. */
+	private byte[] batchNewChars = new byte[0];
+
+	/** The old character of each move of the last batch of edits. */
+	private byte[] batchOldChars = new byte[0];
+
+	/** The position of each move of the last batch of edits. */
+	private int[] batchPositions = new int[0];
+
+	/** The fitness cache, or null to score every move. */
+	private final FitnessCache cache;
+
+	/** The candidate fitnesses per constraint, from the last evaluated move. */
+	private final double[] candidateFitnesses;
+
+	/** The constraints. */
+	private final Constraint[] constraints;
+
+	/** The ctx. */
+	private final Context ctx;
+
+	/** The fitnesses per constraint of the current state. */
+	private final double[] fitnesses;
+
+	/** The hash of the current state, kept only with a cache. */
+	private long hash;
+
+	/** The overall fitness of the current state. */
+	private double overallFitness;
+
+	/** The weightings, in the same order as the constraints. */
+	private final double[] weightings;
+
+	/**
+	 * Instantiates a new delta fitness, using SC1 and SC2 as in {@link Fitness}.
+	 *
+	 * @param ctx
+	 *            the ctx
+	 * @param currentSolution
+	 *            the current solution
+	 */
+	public DeltaFitness(final Context ctx, final byte[] currentSolution) {
+		this(ctx, currentSolution, new CharacterMatchConstraint("SC1", ctx.getTarget()), new ConstantConstraint("SC2", 1));
+	}
+
+	/**
+	 * Instantiates a new delta fitness.
+	 *
+	 * @param ctx
+	 *            the ctx
+	 * @param currentSolution
+	 *            the current solution
+	 * @param constraints
+	 *            the constraints
+	 */
+	public DeltaFitness(final Context ctx, final byte[] currentSolution, final Constraint... constraints) {
+		this.ctx = ctx;
+		this.cache = ctx.getFitnessCache();
+		this.constraints = constraints;
+		this.candidateFitnesses = new double[constraints.length];
+		this.fitnesses = new double[constraints.length];
+		this.weightings = new double[constraints.length];
+		for (int i = 0; i < constraints.length; i++) {
+			this.weightings[i] = ctx.getWeightingsPerConstraint().get(constraints[i].getName());
+		}
+		this.evaluate(currentSolution);
+	}
+
+	/**
+	 * Apply. Commits a single character change, which should previously have been
+	 * scored with {@link #evaluateMove(int, byte, byte)}.
+	 *
+	 * @param position
+	 *            the position
+	 * @param oldChar
+	 *            the old char
+	 * @param newChar
+	 *            the new char
+	 */
+	public void apply(final int position, final byte oldChar, final byte newChar) {
+		for (int i = 0; i < this.constraints.length; i++) {
+			this.constraints[i].apply(position, oldChar, newChar);
+			this.fitnesses[i] = this.constraints[i].getFitness();
+		}
+		this.overallFitness = this.weightedSum(this.fitnesses);
+		if (this.cache != null) {
+			this.hash = SolutionHash.update(this.hash, position, oldChar, newChar);
+		}
+	}
+
+	/**
+	 * Apply. Commits an edit, which should previously have been scored with
+	 * {@link #evaluateEdit(StringEdit)}.
+	 *
+	 * @param edit
+	 *            the edit
+	 */
+	public void apply(final StringEdit edit) {
+		for (int change = 0; change < edit.getCount(); change++) {
+			this.apply(edit.getPosition(change), edit.getOldChar(change), edit.getNewChar(change));
+		}
+	}
+
+	/**
+	 * Copy fitnesses. Copies the unweighted fitness of each constraint in the
+	 * current state into the destination, e.g. to snapshot the best state.
+	 *
+	 * @param destination
+	 *            the destination, at least one entry per constraint
+	 */
+	public void copyFitnesses(final double[] destination) {
+		System.arraycopy(this.fitnesses, 0, destination, 0, this.fitnesses.length);
+	}
+
+	/**
+	 * Evaluate. Full evaluation, e.g. at the start of a run or after the solution
+	 * has been replaced wholesale. Constraints keep state for scoring moves, so
+	 * this is always done in full, cache or not.
+	 *
+	 * @param currentSolution
+	 *            the current solution
+	 */
+	public void evaluate(final byte[] currentSolution) {
+		for (int i = 0; i < this.constraints.length; i++) {
+			this.constraints[i].evaluate(currentSolution);
+			this.fitnesses[i] = this.constraints[i].getFitness();
+		}
+		this.overallFitness = this.weightedSum(this.fitnesses);
+		if (this.cache != null) {
+			this.hash = SolutionHash.of(currentSolution);
+			this.cache.put(this.hash, this.fitnesses);
+		}
+	}
+
+	/**
+	 * Evaluate edit. Scores an edit without committing it.
+	 *
+	 * @param edit
+	 *            the edit
+	 * @return the overall fitness the solution would have after the edit
+	 */
+	public double evaluateEdit(final StringEdit edit) {
+		final int last = edit.getCount() - 1;
+		if (last < 0) {
+			System.arraycopy(this.fitnesses, 0, this.candidateFitnesses, 0, this.fitnesses.length);
+			return this.overallFitness;
+		}
+		for (int change = 0; change < last; change++) {
+			this.apply(edit.getPosition(change), edit.getOldChar(change), edit.getNewChar(change));
+		}
+		final double overallFitness = this.evaluateMove(edit.getPosition(last), edit.getOldChar(last), edit.getNewChar(last));
+		for (int change = last - 1; change >= 0; change--) {
+			this.apply(edit.getPosition(change), edit.getNewChar(change), edit.getOldChar(change));
+		}
+		return overallFitness;
+	}
+
+	/**
+	 * Evaluate edits. Scores a batch of edits, each against the current state,
+	 * without committing any. A batch of single character changes is scored as
+	 * by {@link #evaluateMoves(int[], byte[], byte[], int, double[])}, anything
+	 * else one edit at a time.
+	 *
+	 * @param edits
+	 *            the edits
+	 * @param count
+	 *            the number of edits
+	 * @param overallFitnesses
+	 *            receives the overall fitness after each edit
+	 */
+	public void evaluateEdits(final List<StringEdit> edits, final int count, final double[] overallFitnesses) {
+		if (this.batchPositions.length < count) {
+			this.batchNewChars = new byte[count];
+			this.batchOldChars = new byte[count];
+			this.batchPositions = new int[count];
+		}
+		boolean singleChanges = true;
+		for (int k = 0; k < count && singleChanges; k++) {
+			final StringEdit edit = edits.get(k);
+			singleChanges = edit.getCount() == 1;
+			this.batchPositions[k] = edit.getPosition(0);
+			this.batchOldChars[k] = edit.getOldChar(0);
+			this.batchNewChars[k] = edit.getNewChar(0);
+		}
+		if (singleChanges) {
+			this.evaluateMoves(this.batchPositions, this.batchOldChars, this.batchNewChars, count, overallFitnesses);
+			return;
+		}
+		this.ensureBatchCapacity(count);
+		for (int k = 0; k < count; k++) {
+			overallFitnesses[k] = this.evaluateEdit(edits.get(k));
+			for (int i = 0; i < this.constraints.length; i++) {
+				this.batchFitnesses[i][k] = this.candidateFitnesses[i];
+			}
+		}
+	}
+
+	/**
+	 * Evaluate move. Scores a single character change without committing it.
+	 *
+	 * @param position
+	 *            the position
+	 * @param oldChar
+	 *            the old char
+	 * @param newChar
+	 *            the new char
+	 * @return the overall fitness the solution would have after the change
+	 */
+	public double evaluateMove(final int position, final byte oldChar, final byte newChar) {
+		if (this.cache == null) {
+			return this.scoreMove(position, oldChar, newChar);
+		}
+		final long candidateHash = SolutionHash.update(this.hash, position, oldChar, newChar);
+		if (this.cache.get(candidateHash, this.candidateFitnesses)) {
+			return this.weightedSum(this.candidateFitnesses);
+		}
+		final double overallFitness = this.scoreMove(position, oldChar, newChar);
+		this.cache.put(candidateHash, this.candidateFitnesses);
+		return overallFitness;
+	}
+
+	/**
+	 * Evaluate moves. Scores a batch of single character changes, each against
+	 * the current state, without committing any. Each constraint scores the whole
+	 * batch in one pass, unless there is a cache, when each move is looked up and
+	 * scored on its own.
+	 *
+	 * @param positions
+	 *            the positions
+	 * @param oldChars
+	 *            the old chars
+	 * @param newChars
+	 *            the new chars
+	 * @param count
+	 *            the number of moves
+	 * @param overallFitnesses
+	 *            receives the overall fitness after each move
+	 */
+	public void evaluateMoves(final int[] positions, final byte[] oldChars, final byte[] newChars, final int count, final double[] overallFitnesses) {
+		this.ensureBatchCapacity(count);
+		if (this.cache != null) {
+			for (int k = 0; k < count; k++) {
+				overallFitnesses[k] = this.evaluateMove(positions[k], oldChars[k], newChars[k]);
+				for (int i = 0; i < this.constraints.length; i++) {
+					this.batchFitnesses[i][k] = this.candidateFitnesses[i];
+				}
+			}
+			return;
+		}
+		for (int k = 0; k < count; k++) {
+			overallFitnesses[k] = 0;
+		}
+		for (int i = 0; i < this.constraints.length; i++) {
+			final double[] constraintFitnesses = this.batchFitnesses[i];
+			this.constraints[i].getFitnessesAfter(positions, oldChars, newChars, count, constraintFitnesses);
+			final double weighting = this.weightings[i];
+			for (int k = 0; k < count; k++) {
+				overallFitnesses[k] += constraintFitnesses[k] * weighting;
+			}
+		}
+	}
+
+	/**
+	 * Ensure batch capacity, i.e. room for the fitnesses per constraint of a
+	 * batch of moves.
+	 *
+	 * @param count
+	 *            the number of moves
+	 */
+	private void ensureBatchCapacity(final int count) {
+		if (this.batchFitnesses.length != this.constraints.length || this.constraints.length > 0 && this.batchFitnesses[0].length < count) {
+			this.batchFitnesses = new double[this.constraints.length][count];
+		}
+	}
+
+	/**
+	 * Gets the weighted fitness of one constraint for the last move scored by
+	 * {@link #evaluateMove(int, byte, byte)}.
+	 *
+	 * @param constraintIndex
+	 *            the constraint index, in the order of
+	 *            {@link #getConstraintNames()}
+	 * @return the candidate weighted fitness
+	 */
+	public double getCandidateWeightedFitness(final int constraintIndex) {
+		return this.candidateFitnesses[constraintIndex] * this.weightings[constraintIndex];
+	}
+
+	/**
+	 * Gets the constraint names.
+	 *
+	 * @return the constraint names
+	 */
+	public String[] getConstraintNames() {
+		final String[] names = new String[this.constraints.length];
+		for (int i = 0; i < this.constraints.length; i++) {
+			names[i] = this.constraints[i].getName();
+		}
+		return names;
+	}
+
+	/**
+	 * Gets the fitness of the current state as a {@link Fitness}, without
+	 * rescanning the solution.
+	 *
+	 * @param currentSolution
+	 *            the current solution
+	 * @return the fitness
+	 */
+	public Fitness getFitness(final String currentSolution) {
+		return this.toFitness(currentSolution, this.fitnesses);
+	}
+
+	/**
+	 * Gets the fitness of a snapshot taken with {@link #copyFitnesses(double[])}
+	 * as a {@link Fitness}.
+	 *
+	 * @param solution
+	 *            the solution the snapshot was taken of
+	 * @param fitnesses
+	 *            the fitnesses per constraint
+	 * @return the fitness
+	 */
+	public Fitness getFitness(final String solution, final double[] fitnesses) {
+		return this.toFitness(solution, fitnesses);
+	}
+
+	/**
+	 * Gets the fitness quantum, i.e. the step the overall fitness moves in. There
+	 * is one if every constraint that can change moves in the same weighted step.
+	 *
+	 * @return the fitness quantum, or NaN if there is none
+	 */
+	public double getFitnessQuantum() {
+		double quantum = 0;
+		for (int i = 0; i < this.constraints.length; i++) {
+			final double weightedQuantum = this.constraints[i].getQuantum() * this.weightings[i];
+			if (Double.isNaN(weightedQuantum)) {
+				return Double.NaN;
+			}
+			if (weightedQuantum == 0) {
+				continue;
+			}
+			if (quantum == 0) {
+				quantum = weightedQuantum;
+			}
+			else if (Math.abs(weightedQuantum - quantum) > quantum * 1e-12) {
+				return Double.NaN;
+			}
+		}
+		return quantum == 0 ? Double.NaN : quantum;
+	}
+
+	/**
+	 * Gets the maximum overall fitness, i.e. every constraint fully satisfied.
+	 *
+	 * @return the maximum fitness
+	 */
+	public double getMaximumFitness() {
+		double sum = 0;
+		for (final double weighting : this.weightings) {
+			sum += weighting;
+		}
+		return sum;
+	}
+
+	/**
+	 * Gets the overall fitness of the current state.
+	 *
+	 * @return the overall fitness
+	 */
+	public double getOverallFitness() {
+		return this.overallFitness;
+	}
+
+	/**
+	 * Score move. Scores a single character change with the constraints.
+	 *
+	 * @param position
+	 *            the position
+	 * @param oldChar
+	 *            the old char
+	 * @param newChar
+	 *            the new char
+	 * @return the overall fitness the solution would have after the change
+	 */
+	private double scoreMove(final int position, final byte oldChar, final byte newChar) {
+		for (int i = 0; i < this.constraints.length; i++) {
+			this.candidateFitnesses[i] = this.constraints[i].getFitnessAfter(position, oldChar, newChar);
+		}
+		return this.weightedSum(this.candidateFitnesses);
+	}
+
+	/**
+	 * Select move. Makes one move of the last batch scored by
+	 * {@link #evaluateMoves(int[], byte[], byte[], int, double[])} the candidate,
+	 * as if it had been scored on its own by
+	 * {@link #evaluateMove(int, byte, byte)}.
+	 *
+	 * @param move
+	 *            the index of the move in the batch
+	 */
+	public void selectMove(final int move) {
+		for (int i = 0; i < this.constraints.length; i++) {
+			this.candidateFitnesses[i] = this.batchFitnesses[i][move];
+		}
+	}
+
+	/**
+	 * To fitness.
+	 *
+	 * @param solution
+	 *            the solution
+	 * @param fitnesses
+	 *            the fitnesses per constraint
+	 * @return the fitness
+	 */
+	private Fitness toFitness(final String solution, final double[] fitnesses) {
+		final Map<String, Double> fitnessesPerConstraint = new HashMap<>();
+		for (int i = 0; i < this.constraints.length; i++) {
+			fitnessesPerConstraint.put(this.constraints[i].getName(), fitnesses[i]);
+		}
+		return new Fitness(this.ctx, solution, fitnessesPerConstraint);
+	}
+
+	/**
+	 * Weighted sum.
+	 *
+	 * @param fitnesses
+	 *            the fitnesses per constraint
+	 * @return the overall fitness
+	 */
+	private double weightedSum(final double[] fitnesses) {
+		double sum = 0;
+		for (int i = 0; i < fitnesses.length; i++) {
+			sum += fitnesses[i] * this.weightings[i];
+		}
+		return sum;
+	}
+}
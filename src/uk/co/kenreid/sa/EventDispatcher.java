@@ -0,0 +1,222 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The Class EventDispatcher. Hands the events of one run to its listeners. The
+ * run writes each event into the next free slot of a ring and moves on; a
+ * thread of the dispatcher's own drains whatever has built up, in order, and
+ * calls the listeners. The run never waits on a listener: if the ring is full,
+ * an accept, improve or temperature event is dropped and counted. Only start
+ * and finish wait for room, so a listener always hears both. Closing waits
+ * for every event already in the ring to be handled, so a listener slower than
+ * the run holds up the end of it by at most a ring's worth of events.
+ *
+ * There is one writer (the run) and one reader (the dispatcher thread). Each
+ * owns one counter and only reads the other's, so no locks are needed.
+ *
+ * @param <S>
+ *            the type of state
+ */
+final class EventDispatcher<S> {
+
+	/**
+	 * The most state the ring holds, as the problem sizes it (e.g. bytes of
+	 * solution), which bounds its size.
+	 */
+	private static final int MAXIMUM_BUFFERED_BYTES = 8 << 20;
+
+	/** The most events the ring holds. */
+	private static final int MAXIMUM_CAPACITY = 4096;
+
+	/** The least events the ring holds. */
+	private static final int MINIMUM_CAPACITY = 16;
+
+	/** How long the dispatcher thread sleeps when there is nothing to do. */
+	private static final long PARK_NANOS = 100000;
+
+	/** Whether the run has finished publishing. */
+	private volatile boolean closed;
+
+	/** The number of events dropped for want of room. */
+	private long dropped;
+
+	/** The number of events handled, written by the dispatcher thread only. */
+	private final AtomicLong handled = new AtomicLong();
+
+	/** The listeners. */
+	private final AnnealingListener[] listeners;
+
+	/** The mask turning a count into a slot. */
+	private final int mask;
+
+	/** The number of events published, written by the run only. */
+	private final AtomicLong published = new AtomicLong();
+
+	/** The slots. */
+	private final List<AnnealingEvent<S>> slots;
+
+	/** The dispatcher thread. */
+	private final Thread thread;
+
+	/**
+	 * Instantiates a new event dispatcher and starts its thread.
+	 *
+	 * @param source
+	 *            the run
+	 * @param stateSize
+	 *            the size of a state, see {@link Problem#getSize(Object)}
+	 * @param listeners
+	 *            the listeners
+	 */
+	EventDispatcher(final SimulatedAnnealing<S, ?> source, final int stateSize, final List<AnnealingListener> listeners) {
+		this.listeners = listeners.toArray(new AnnealingListener[listeners.size()]);
+		final int fits = Integer.highestOneBit(Math.max(1, EventDispatcher.MAXIMUM_BUFFERED_BYTES / Math.max(1, stateSize)));
+		final int capacity = Math.max(EventDispatcher.MINIMUM_CAPACITY, Math.min(EventDispatcher.MAXIMUM_CAPACITY, fits));
+		this.mask = capacity - 1;
+		this.slots = new ArrayList<>(capacity);
+		for (int slot = 0; slot < capacity; slot++) {
+			this.slots.add(new AnnealingEvent<>(source));
+		}
+		this.thread = new Thread(this::drain, "annealing-events");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Close. Publishes nothing more, and waits for every event published to be
+	 * handled.
+	 */
+	void close() {
+		this.closed = true;
+		LockSupport.unpark(this.thread);
+		try {
+			this.thread.join();
+		}
+		catch (final InterruptedException e) {
+			System.err.println(e);
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Dispatch one event to every listener. A listener that throws is reported
+	 * and the others still hear of it.
+	 *
+	 * @param event
+	 *            the event
+	 */
+	private void dispatch(final AnnealingEvent<S> event) {
+		for (final AnnealingListener listener : this.listeners) {
+			try {
+				switch (event.getType()) {
+				case ACCEPT:
+					listener.onAccept(event);
+					break;
+				case FINISH:
+					listener.onFinish(event);
+					break;
+				case IMPROVE:
+					listener.onImprove(event);
+					break;
+				case START:
+					listener.onStart(event);
+					break;
+				default:
+					listener.onTemperature(event);
+					break;
+				}
+			}
+			catch (final RuntimeException e) {
+				System.err.println(e);
+			}
+		}
+	}
+
+	/**
+	 * Drain. The dispatcher thread: handles events as they build up, until closed
+	 * and empty.
+	 */
+	private void drain() {
+		long next = 0;
+		while (true) {
+			final long available = this.published.get();
+			if (next == available) {
+				if (this.closed && next == this.published.get()) {
+					return;
+				}
+				LockSupport.parkNanos(this, EventDispatcher.PARK_NANOS);
+				continue;
+			}
+			while (next < available) {
+				this.dispatch(this.slots.get((int) next & this.mask));
+				next++;
+			}
+			this.handled.lazySet(next);
+		}
+	}
+
+	/**
+	 * Gets the number of events dropped for want of room.
+	 *
+	 * @return the dropped
+	 */
+	long getDropped() {
+		return this.dropped;
+	}
+
+	/**
+	 * Offer. Publishes an event if there is room, else drops it. Run thread only.
+	 *
+	 * @param type
+	 *            the type
+	 * @param iteration
+	 *            the iteration
+	 * @param temperature
+	 *            the temperature
+	 * @param fitness
+	 *            the fitness
+	 * @param state
+	 *            the state, copied
+	 */
+	void offer(final AnnealingEvent.Type type, final long iteration, final double temperature, final double fitness, final S state) {
+		final long next = this.published.get();
+		if (next - this.handled.get() > this.mask) {
+			this.dropped++;
+			return;
+		}
+		this.slots.get((int) next & this.mask).set(type, iteration, temperature, fitness, state);
+		this.published.lazySet(next + 1);
+	}
+
+	/**
+	 * Put. Publishes an event, waiting for room if need be. Run thread only.
+	 *
+	 * @param type
+	 *            the type
+	 * @param iteration
+	 *            the iteration
+	 * @param temperature
+	 *            the temperature
+	 * @param fitness
+	 *            the fitness
+	 * @param state
+	 *            the state, copied
+	 */
+	void put(final AnnealingEvent.Type type, final long iteration, final double temperature, final double fitness, final S state) {
+		final long next = this.published.get();
+		while (next - this.handled.get() > this.mask) {
+			LockSupport.unpark(this.thread);
+			Thread.yield();
+		}
+		this.slots.get((int) next & this.mask).set(type, iteration, temperature, fitness, state);
+		this.published.lazySet(next + 1);
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Class ExponentialCooling. Exponential cooling to a budget: the same shape
+ * as geometric cooling, but driven by how far through the budget the run is, so
+ * the floor is reached exactly when the iterations or the wall time run out.
+ * With a wall time budget the run finishes on time whatever the speed of the
+ * machine or the size of the problem.
+ */
+public class ExponentialCooling extends AbstractCoolingSchedule {
+
+	/**
+	 * Instantiates a new exponential cooling.
+	 *
+	 * @param startingTemperature
+	 *            the starting temperature
+	 * @param minimumTemperature
+	 *            the minimum temperature
+	 * @param budget
+	 *            the budget, which must have a limit
+	 */
+	public ExponentialCooling(final double startingTemperature, final double minimumTemperature, final Budget budget) {
+		super(startingTemperature, minimumTemperature, budget);
+		if (!budget.isBounded()) {
+			throw new IllegalArgumentException("Exponential cooling needs an iteration or wall time budget");
+		}
+	}
+
+	@Override
+	public double nextTemperature(final long iteration, final long elapsedNanos, final double temperature) {
+		final double progress = this.budget.progress(iteration, elapsedNanos);
+		return this.startingTemperature * Math.pow(this.minimumTemperature / this.startingTemperature, progress);
+	}
+}
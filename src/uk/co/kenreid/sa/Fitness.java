@@ -4,11 +4,14 @@
  */
 package uk.co.kenreid.sa;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
 import uk.co.kenreid.dataobjects.Context;
+import uk.co.kenreid.dataobjects.Target;
 import uk.co.kenreid.function.Function;
+import uk.co.kenreid.function.MismatchCounter;
 
 /**
  * The Class Fitness. Contains two soft constraints as examples, but SC2 always
@@ -35,8 +38,8 @@ public class Fitness {
 	/** The overall fitness. */
 	double overallFitness = 0;
 
-	/** The solution. */
-	final String solution;
+	/** The solution, i.e. the problem. */
+	final Target solution;
 
 	/**
 	 * Instantiates a new fitness.
@@ -49,12 +52,39 @@ public class Fitness {
 	public Fitness(final Context ctx, final String currentSolution) {
 		this.ctx = ctx;
 		this.currentSolution = currentSolution;
-		this.solution = ctx.getProblem();
+		this.solution = ctx.getTarget();
 
 		// run soft constraint checks, store as is
 		this.getFitnessesPerConstraintWithoutWeightingsApplied().put("SC1", this.sc1());
 		this.getFitnessesPerConstraintWithoutWeightingsApplied().put("SC2", this.sc2());
 
+		this.applyWeightings();
+	}
+
+	/**
+	 * Instantiates a new fitness from constraint values that have already been
+	 * worked out (e.g. by {@link DeltaFitness}), without rescanning the solution.
+	 *
+	 * @param ctx
+	 *            the ctx
+	 * @param currentSolution
+	 *            the current solution
+	 * @param fitnessesPerConstraintWithoutWeightingsApplied
+	 *            the fitnesses per constraint without weightings applied
+	 */
+	public Fitness(final Context ctx, final String currentSolution, final Map<String, Double> fitnessesPerConstraintWithoutWeightingsApplied) {
+		this.ctx = ctx;
+		this.currentSolution = currentSolution;
+		this.solution = ctx.getTarget();
+		this.fitnessesPerConstraintWithoutWeightingsApplied = fitnessesPerConstraintWithoutWeightingsApplied;
+
+		this.applyWeightings();
+	}
+
+	/**
+	 * Apply weightings.
+	 */
+	private void applyWeightings() {
 		// store parameterised weighted versions
 		this.getFitnessesPerConstraintWithWeightingsApplied().put("SC1",
 				this.fitnessesPerConstraintWithoutWeightingsApplied.get("SC1") * this.ctx.getWeightingsPerConstraint().get("SC1"));
@@ -109,12 +139,14 @@ public class Fitness {
 	}
 
 	/**
-	 * Sc 1.
+	 * Sc 1. Solutions are one byte per character (ISO 8859-1), as throughout the
+	 * engine, so the comparison is done on bytes, several at a time. Should either
+	 * string have a character that does not fit in a byte, the characters are
+	 * compared instead, as turning it into bytes would make it '?'.
 	 *
 	 * @return the double
 	 */
 	private double sc1() {
-		double failCounter = 0;
 		int lengthOfShortestString = 0;
 		if (this.currentSolution.length() > this.solution.length()) {
 			lengthOfShortestString = this.solution.length();
@@ -122,11 +154,17 @@ public class Fitness {
 		else {
 			lengthOfShortestString = this.currentSolution.length();
 		}
-		for (int charCounter = 0; charCounter < lengthOfShortestString; charCounter++) {
-			final char correctChar = this.solution.charAt(charCounter);
-			final char attemptChar = this.currentSolution.charAt(charCounter);
-			if (correctChar != attemptChar) {
-				failCounter++;
+		double failCounter = 0;
+		if (this.solution.isSingleByte() && Target.isSingleByte(this.currentSolution)) {
+			final byte[] attempt = this.currentSolution.getBytes(StandardCharsets.ISO_8859_1);
+			failCounter = MismatchCounter.count(this.solution.getBytes(), attempt, lengthOfShortestString);
+		}
+		else {
+			final String problem = this.solution.toString();
+			for (int charCounter = 0; charCounter < lengthOfShortestString; charCounter++) {
+				if (problem.charAt(charCounter) != this.currentSolution.charAt(charCounter)) {
+					failCounter++;
+				}
 			}
 		}
 		final double fitness = (lengthOfShortestString - failCounter) / lengthOfShortestString;
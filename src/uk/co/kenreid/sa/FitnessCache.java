@@ -0,0 +1,304 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Class FitnessCache. Remembers the fitness per constraint of solutions
+ * that have already been scored, keyed by their {@link SolutionHash}, so a
+ * solution seen before (a move that puts back the character already there, a
+ * move undoing the last one, another chain passing the same way) is not scored
+ * again. Only worth having when constraints are expensive; a character match is
+ * cheaper to redo than to look up.
+ *
+ * The cache holds a fixed number of entries in sets of {@link #WAYS}. A
+ * solution can only go in the set its hash picks, and when that set is full
+ * the entry to go is chosen by CLOCK: each entry has a referenced bit, set on
+ * every hit, and the hand passes over referenced entries once (clearing the
+ * bit) before evicting the first unreferenced one. The sets are split between
+ * a number of stripes, each with its own lock, so chains sharing the cache
+ * only wait for each other when they want the same stripe.
+ *
+ * Entries are matched on the whole 64 bit hash, not the solution, so two
+ * solutions with the same hash would share an entry. Among the few million
+ * solutions a run might see that is vanishingly unlikely. A cache should only
+ * be shared by runs of the same problem with the same constraints.
+ */
+public final class FitnessCache {
+
+	/** The default number of stripes. */
+	public static final int DEFAULT_STRIPES = 64;
+
+	/** The number of entries in each set. */
+	private static final int WAYS = 4;
+
+	/**
+	 * Power of two.
+	 *
+	 * @param n
+	 *            the n
+	 * @return the least power of two no less than n
+	 */
+	private static int powerOfTwo(final int n) {
+		return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+	}
+
+	/** The number of entries evicted. */
+	private final LongAdder evictions = new LongAdder();
+
+	/** The CLOCK hand of each set, as a way within the set. */
+	private final int[] hands;
+
+	/** The number of hits. */
+	private final LongAdder hits = new LongAdder();
+
+	/** The hash of each entry. */
+	private final long[] keys;
+
+	/** The lock of each stripe. */
+	private final Object[] locks;
+
+	/** The number of misses. */
+	private final LongAdder misses = new LongAdder();
+
+	/** Whether each entry is in use. */
+	private final boolean[] occupied;
+
+	/** The referenced bit of each entry. */
+	private final boolean[] referenced;
+
+	/** The mask picking a set from a hash. */
+	private final int setMask;
+
+	/** The number of entries in use. */
+	private final LongAdder size = new LongAdder();
+
+	/** The mask picking a stripe from a set. */
+	private final int stripeMask;
+
+	/** The fitnesses per constraint of each entry, reused when replaced. */
+	private final double[][] values;
+
+	/**
+	 * Instantiates a new fitness cache with the default number of stripes.
+	 *
+	 * @param capacity
+	 *            the least number of entries, rounded up to a power of two
+	 */
+	public FitnessCache(final int capacity) {
+		this(capacity, FitnessCache.DEFAULT_STRIPES);
+	}
+
+	/**
+	 * Instantiates a new fitness cache.
+	 *
+	 * @param capacity
+	 *            the least number of entries, rounded up to a power of two
+	 * @param stripes
+	 *            the number of stripes, rounded up to a power of two and capped at
+	 *            the number of sets
+	 */
+	public FitnessCache(final int capacity, final int stripes) {
+		if (capacity < 1 || stripes < 1) {
+			throw new IllegalArgumentException("Capacity and stripes must be positive: " + capacity + ", " + stripes);
+		}
+		final int sets = FitnessCache.powerOfTwo((capacity + FitnessCache.WAYS - 1) / FitnessCache.WAYS);
+		final int stripeCount = Math.min(FitnessCache.powerOfTwo(stripes), sets);
+		this.setMask = sets - 1;
+		this.stripeMask = stripeCount - 1;
+		this.hands = new int[sets];
+		this.keys = new long[sets * FitnessCache.WAYS];
+		this.occupied = new boolean[this.keys.length];
+		this.referenced = new boolean[this.keys.length];
+		this.values = new double[this.keys.length][];
+		this.locks = new Object[stripeCount];
+		for (int stripe = 0; stripe < stripeCount; stripe++) {
+			this.locks[stripe] = new Object();
+		}
+	}
+
+	/**
+	 * Clear. Empties the cache and zeroes the counters.
+	 */
+	public void clear() {
+		for (int stripe = 0; stripe < this.locks.length; stripe++) {
+			synchronized (this.locks[stripe]) {
+				for (int set = stripe; set <= this.setMask; set += this.locks.length) {
+					for (int way = 0; way < FitnessCache.WAYS; way++) {
+						this.occupied[set * FitnessCache.WAYS + way] = false;
+					}
+				}
+			}
+		}
+		this.evictions.reset();
+		this.hits.reset();
+		this.misses.reset();
+		this.size.reset();
+	}
+
+	/**
+	 * Gets the fitnesses per constraint of a solution, if they are cached.
+	 *
+	 * @param hash
+	 *            the hash of the solution
+	 * @param destination
+	 *            receives the fitnesses per constraint on a hit
+	 * @return true, if it was a hit
+	 */
+	public boolean get(final long hash, final double[] destination) {
+		final int set = (int) hash & this.setMask;
+		synchronized (this.locks[set & this.stripeMask]) {
+			final int first = set * FitnessCache.WAYS;
+			for (int entry = first; entry < first + FitnessCache.WAYS; entry++) {
+				if (this.occupied[entry] && this.keys[entry] == hash) {
+					this.referenced[entry] = true;
+					System.arraycopy(this.values[entry], 0, destination, 0, this.values[entry].length);
+					this.hits.increment();
+					return true;
+				}
+			}
+		}
+		this.misses.increment();
+		return false;
+	}
+
+	/**
+	 * Gets the capacity.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return this.keys.length;
+	}
+
+	/**
+	 * Gets the number of entries evicted.
+	 *
+	 * @return the evictions
+	 */
+	public long getEvictions() {
+		return this.evictions.sum();
+	}
+
+	/**
+	 * Gets the hit rate.
+	 *
+	 * @return the hit rate, or 0 before any lookup
+	 */
+	public double getHitRate() {
+		final long hits = this.hits.sum();
+		final long lookups = hits + this.misses.sum();
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	/**
+	 * Gets the number of hits.
+	 *
+	 * @return the hits
+	 */
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	/**
+	 * Gets the number of misses.
+	 *
+	 * @return the misses
+	 */
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	/**
+	 * Gets the number of entries in use.
+	 *
+	 * @return the size
+	 */
+	public long getSize() {
+		return this.size.sum();
+	}
+
+	/**
+	 * Put. Caches the fitnesses per constraint of a solution, evicting an entry
+	 * of its set if the set is full.
+	 *
+	 * @param hash
+	 *            the hash of the solution
+	 * @param fitnesses
+	 *            the fitnesses per constraint, copied
+	 */
+	public void put(final long hash, final double[] fitnesses) {
+		final int set = (int) hash & this.setMask;
+		synchronized (this.locks[set & this.stripeMask]) {
+			final int first = set * FitnessCache.WAYS;
+			int free = -1;
+			for (int entry = first; entry < first + FitnessCache.WAYS; entry++) {
+				if (!this.occupied[entry]) {
+					if (free < 0) {
+						free = entry;
+					}
+				}
+				else if (this.keys[entry] == hash) {
+					this.store(entry, hash, fitnesses);
+					return;
+				}
+			}
+			if (free >= 0) {
+				this.size.increment();
+			}
+			else {
+				free = this.victim(set);
+				this.evictions.increment();
+			}
+			this.store(free, hash, fitnesses);
+		}
+	}
+
+	/**
+	 * Store. Must hold the lock of the entry's stripe.
+	 *
+	 * @param entry
+	 *            the entry
+	 * @param hash
+	 *            the hash
+	 * @param fitnesses
+	 *            the fitnesses per constraint
+	 */
+	private void store(final int entry, final long hash, final double[] fitnesses) {
+		if (this.values[entry] == null || this.values[entry].length != fitnesses.length) {
+			this.values[entry] = new double[fitnesses.length];
+		}
+		System.arraycopy(fitnesses, 0, this.values[entry], 0, fitnesses.length);
+		this.keys[entry] = hash;
+		this.occupied[entry] = true;
+		this.referenced[entry] = false;
+	}
+
+	@Override
+	public String toString() {
+		return "Fitness cache: " + this.getSize() + "/" + this.getCapacity() + " entries, " + this.getHits() + " hits, " + this.getMisses() + " misses ("
+				+ String.format("%.1f", 100 * this.getHitRate()) + "%), " + this.getEvictions() + " evictions";
+	}
+
+	/**
+	 * Victim. Moves the CLOCK hand of a full set on to the entry to evict. Must
+	 * hold the lock of the set's stripe.
+	 *
+	 * @param set
+	 *            the set
+	 * @return the entry to evict
+	 */
+	private int victim(final int set) {
+		final int first = set * FitnessCache.WAYS;
+		int hand = this.hands[set];
+		while (this.referenced[first + hand]) {
+			this.referenced[first + hand] = false;
+			hand = (hand + 1) % FitnessCache.WAYS;
+		}
+		this.hands[set] = (hand + 1) % FitnessCache.WAYS;
+		return first + hand;
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Class GeometricCooling. The original schedule: the temperature is
+ * multiplied by (1 - cooling rate) every iteration, until it reaches the floor.
+ */
+public class GeometricCooling extends AbstractCoolingSchedule {
+
+	/**
+	 * For budget. Works out the cooling rate that reaches the minimum temperature
+	 * in exactly the given number of iterations.
+	 *
+	 * @param startingTemperature
+	 *            the starting temperature
+	 * @param minimumTemperature
+	 *            the minimum temperature
+	 * @param iterations
+	 *            the iterations
+	 * @return the geometric cooling
+	 */
+	public static GeometricCooling forBudget(final double startingTemperature, final double minimumTemperature, final long iterations) {
+		final double coolingRate = 1 - Math.pow(minimumTemperature / startingTemperature, 1.0 / iterations);
+		return new GeometricCooling(startingTemperature, coolingRate, minimumTemperature, Budget.iterations(iterations));
+	}
+
+	/** The cooling rate. */
+	private final double coolingRate;
+
+	/**
+	 * Instantiates a new geometric cooling.
+	 *
+	 * @param startingTemperature
+	 *            the starting temperature
+	 * @param coolingRate
+	 *            the cooling rate
+	 * @param minimumTemperature
+	 *            the minimum temperature
+	 * @param budget
+	 *            the budget
+	 */
+	public GeometricCooling(final double startingTemperature, final double coolingRate, final double minimumTemperature, final Budget budget) {
+		super(startingTemperature, minimumTemperature, budget);
+		this.coolingRate = coolingRate;
+	}
+
+	/**
+	 * Gets the cooling rate.
+	 *
+	 * @return the cooling rate
+	 */
+	public double getCoolingRate() {
+		return this.coolingRate;
+	}
+
+	/**
+	 * Expected iterations from the starting temperature down to the floor, or the
+	 * iteration budget if that is smaller.
+	 *
+	 * @return the expected iterations, or -1 if cooling never reaches the floor
+	 *         and there is no iteration budget
+	 */
+	@Override
+	public long getExpectedIterations() {
+		long iterations;
+		if (this.startingTemperature <= this.minimumTemperature) {
+			iterations = 0;
+		}
+		else if (this.coolingRate <= 0 || this.coolingRate >= 1) {
+			iterations = -1;
+		}
+		else {
+			iterations = (long) Math.ceil(Math.log(this.minimumTemperature / this.startingTemperature) / Math.log(1 - this.coolingRate));
+		}
+		final long budgetIterations = this.budget.getMaximumIterations();
+		if (budgetIterations >= 0 && (iterations < 0 || budgetIterations < iterations)) {
+			iterations = budgetIterations;
+		}
+		return iterations;
+	}
+
+	@Override
+	public double nextTemperature(final long iteration, final long elapsedNanos, final double temperature) {
+		return temperature * (1 - this.coolingRate);
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Class Incumbent. The best solution a run has found so far, as it stood at
+ * one moment. Never changed once made, so it can be handed to other threads
+ * while the run carries on.
+ *
+ * @param <S>
+ *            the type of state
+ */
+public final class Incumbent<S> {
+
+	/** The fitness. */
+	private final double fitness;
+
+	/** The iteration it was found at. */
+	private final long iteration;
+
+	/** The problem, to describe the state. */
+	private final Problem<S, ?> problem;
+
+	/** The description of the state, made the first time it is asked for. */
+	private volatile String solution;
+
+	/** The state, a copy of the run's own. */
+	private final S state;
+
+	/**
+	 * Instantiates a new incumbent.
+	 *
+	 * @param problem
+	 *            the problem
+	 * @param state
+	 *            the state, a copy no one else changes
+	 * @param fitness
+	 *            the fitness
+	 * @param iteration
+	 *            the iteration it was found at
+	 */
+	Incumbent(final Problem<S, ?> problem, final S state, final double fitness, final long iteration) {
+		this.problem = problem;
+		this.state = state;
+		this.fitness = fitness;
+		this.iteration = iteration;
+	}
+
+	/**
+	 * Gets the fitness.
+	 *
+	 * @return the fitness
+	 */
+	public double getFitness() {
+		return this.fitness;
+	}
+
+	/**
+	 * Gets the iteration it was found at.
+	 *
+	 * @return the iteration
+	 */
+	public long getIteration() {
+		return this.iteration;
+	}
+
+	/**
+	 * Gets the solution, as the problem describes it.
+	 *
+	 * @return the solution
+	 */
+	public String getSolution() {
+		String description = this.solution;
+		if (description == null) {
+			description = this.problem.describe(this.state);
+			this.solution = description;
+		}
+		return description;
+	}
+
+	/**
+	 * Gets the state. Must not be changed.
+	 *
+	 * @return the state
+	 */
+	public S getState() {
+		return this.state;
+	}
+
+	@Override
+	public String toString() {
+		return this.getSolution() + " (fitness " + this.fitness + ", iteration " + this.iteration + ")";
+	}
+}
@@ -0,0 +1,257 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import uk.co.kenreid.dataobjects.Context;
+import uk.co.kenreid.function.RandomSource;
+import uk.co.kenreid.function.XoroshiroRandom;
+
+/**
+ * The Class IslandAnnealing. The island model: a number of
+ * {@link SimulatedAnnealing} runs, the islands, each cooling on its own thread
+ * as a single run would. Every so many iterations each island sends its best
+ * solution, if it has found a better one since it last sent, to its neighbours,
+ * and takes in the best solution sent to it, carrying on from there if it is
+ * fitter than where it is now. Islands explore apart, as the chains of
+ * {@link MultiStartAnnealing} do, but a good solution found on one spreads to
+ * the rest.
+ *
+ * Each island has an inbox holding the fittest solution sent to it since it last
+ * looked, which senders update with a compare-and-set and the island empties
+ * with a get-and-set. Nothing is locked and no island ever waits for another,
+ * unlike the barrier of {@link ParallelTempering}. As a result, which solutions
+ * arrive when depends on how the threads are scheduled, so a seeded run is not
+ * repeatable exactly, though each island starts from the same place every time.
+ *
+ * @param <S>
+ *            the type of state
+ * @param <M>
+ *            the type of move
+ */
+public class IslandAnnealing<S, M> {
+
+	/**
+	 * The Enum Topology, i.e. which islands an island sends its solutions to.
+	 */
+	public enum Topology {
+
+		/** Every other island. */
+		FULLY_CONNECTED,
+
+		/** The next island along, the last sending to the first. */
+		RING
+	}
+
+	/**
+	 * Fitter.
+	 *
+	 * @param <S>
+	 *            the type of state
+	 * @param held
+	 *            the solution held, or null for none
+	 * @param arrived
+	 *            the solution arrived
+	 * @return the fitter of the two, the one held if they are as fit
+	 */
+	private static <S> Incumbent<S> fitter(final Incumbent<S> held, final Incumbent<S> arrived) {
+		return held == null || arrived.getFitness() > held.getFitness() ? arrived : held;
+	}
+
+	/** The ctx, copied for each island. */
+	private final Context ctx;
+
+	/** The inbox of each island. */
+	private AtomicReferenceArray<Incumbent<S>> inboxes;
+
+	/** The islands. */
+	private final int islands;
+
+	/** The iterations each island does between migrations. */
+	private final long migrationInterval;
+
+	/** The migrations, i.e. solutions taken in by an island from another. */
+	private final LongAdder migrations = new LongAdder();
+
+	/** The problem, shared by every island. */
+	private final Problem<S, M> problem;
+
+	/** The runs, one per island. */
+	private List<SimulatedAnnealing<S, M>> runs;
+
+	/** The topology. */
+	private final Topology topology;
+
+	/**
+	 * Instantiates a new island annealing.
+	 *
+	 * @param ctx
+	 *            the ctx
+	 * @param problem
+	 *            the problem
+	 * @param islands
+	 *            the number of islands, each run on its own thread
+	 * @param migrationInterval
+	 *            the iterations each island does between migrations
+	 * @param topology
+	 *            the topology
+	 */
+	public IslandAnnealing(final Context ctx, final Problem<S, M> problem, final int islands, final long migrationInterval, final Topology topology) {
+		if (islands < 1) {
+			throw new IllegalArgumentException("At least one island is needed, was " + islands);
+		}
+		if (migrationInterval < 1) {
+			throw new IllegalArgumentException("The migration interval must be positive, was " + migrationInterval);
+		}
+		this.ctx = ctx;
+		this.problem = problem;
+		this.islands = islands;
+		this.migrationInterval = migrationInterval;
+		this.topology = topology;
+	}
+
+	/**
+	 * Emigrate. Sends a solution to the neighbours of an island.
+	 *
+	 * @param island
+	 *            the island sending
+	 * @param emigrant
+	 *            the solution
+	 */
+	private void emigrate(final int island, final Incumbent<S> emigrant) {
+		if (this.topology == Topology.RING) {
+			this.inboxes.accumulateAndGet((island + 1) % this.islands, emigrant, IslandAnnealing::fitter);
+		}
+		else {
+			for (int neighbour = 0; neighbour < this.islands; neighbour++) {
+				if (neighbour != island) {
+					this.inboxes.accumulateAndGet(neighbour, emigrant, IslandAnnealing::fitter);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the migrations so far, i.e. the solutions taken in by an island from
+	 * another.
+	 *
+	 * @return the migrations
+	 */
+	public long getMigrations() {
+		return this.migrations.sum();
+	}
+
+	/**
+	 * Gets the islands, in order.
+	 *
+	 * @return the runs, one per island
+	 */
+	public List<SimulatedAnnealing<S, M>> getRuns() {
+		return new ArrayList<>(this.runs);
+	}
+
+	/**
+	 * Go. Blocks until every island has finished, which is as soon as one of them
+	 * reaches the target fitness.
+	 *
+	 * @return the island with the fittest solution
+	 */
+	public SimulatedAnnealing<S, M> go() {
+		this.runs = new ArrayList<>(this.islands);
+		this.inboxes = new AtomicReferenceArray<>(this.islands);
+		this.migrations.reset();
+		// one master stream, split for each island in turn
+		final RandomSource master = this.ctx.getSeed() == null ? new XoroshiroRandom() : new XoroshiroRandom(this.ctx.getSeed());
+		for (int island = 0; island < this.islands; island++) {
+			final Context islandCtx = this.ctx.copy();
+			islandCtx.setVerbose(false);
+			islandCtx.setTracePolicy(TracePolicy.off());
+			this.runs.add(new SimulatedAnnealing<>(islandCtx, this.problem, master.split()));
+		}
+
+		final CancellationToken token = new CancellationToken();
+		final ExecutorService pool = Executors.newFixedThreadPool(this.islands);
+		try {
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int island = 0; island < this.islands; island++) {
+				final int index = island;
+				futures.add(pool.submit(() -> this.run(index, token)));
+			}
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for islands", e);
+		}
+		catch (final ExecutionException e) {
+			throw new IllegalStateException("An island failed", e.getCause());
+		}
+		finally {
+			token.cancel();
+			pool.shutdownNow();
+		}
+		SimulatedAnnealing<S, M> best = this.runs.get(0);
+		for (final SimulatedAnnealing<S, M> run : this.runs) {
+			if (run.getFinalFitness() > best.getFinalFitness()) {
+				best = run;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Run one island, migrating between stretches of annealing, until it is over.
+	 * The first island to reach the target fitness, or to fail, cancels the token,
+	 * so the rest stop too.
+	 *
+	 * @param island
+	 *            the island
+	 * @param token
+	 *            the token, shared by every island
+	 */
+	private void run(final int island, final CancellationToken token) {
+		final SimulatedAnnealing<S, M> run = this.runs.get(island);
+		final double targetFitness = run.getContext().getTargetFitness();
+		boolean over = false;
+		try {
+			run.initialise();
+			run.beginAnnealing();
+			Incumbent<S> sent = null;
+			while (!over) {
+				over = run.annealFor(token, this.migrationInterval);
+				final Incumbent<S> incumbent = run.getIncumbent();
+				if (this.islands > 1 && incumbent != sent) {
+					this.emigrate(island, incumbent);
+					sent = incumbent;
+				}
+				if (incumbent.getFitness() >= targetFitness) {
+					token.cancel();
+				}
+				final Incumbent<S> immigrant = this.inboxes.getAndSet(island, null);
+				if (!over && immigrant != null && immigrant.getFitness() > run.getFitness()) {
+					run.setCurrentState(immigrant.getState());
+					this.migrations.increment();
+				}
+			}
+		}
+		finally {
+			// an island that failed stops the rest, rather than leave them to run on
+			if (!over) {
+				token.cancel();
+			}
+			run.endAnnealing();
+		}
+	}
+}
@@ -0,0 +1,36 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Class LinearCooling. The temperature falls in a straight line from the
+ * starting temperature to the floor over the budget, by iterations or wall
+ * time.
+ */
+public class LinearCooling extends AbstractCoolingSchedule {
+
+	/**
+	 * Instantiates a new linear cooling.
+	 *
+	 * @param startingTemperature
+	 *            the starting temperature
+	 * @param minimumTemperature
+	 *            the minimum temperature
+	 * @param budget
+	 *            the budget, which must have a limit
+	 */
+	public LinearCooling(final double startingTemperature, final double minimumTemperature, final Budget budget) {
+		super(startingTemperature, minimumTemperature, budget);
+		if (!budget.isBounded()) {
+			throw new IllegalArgumentException("Linear cooling needs an iteration or wall time budget");
+		}
+	}
+
+	@Override
+	public double nextTemperature(final long iteration, final long elapsedNanos, final double temperature) {
+		final double progress = this.budget.progress(iteration, elapsedNanos);
+		return this.startingTemperature + (this.minimumTemperature - this.startingTemperature) * progress;
+	}
+}
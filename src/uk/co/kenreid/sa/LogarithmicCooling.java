@@ -0,0 +1,36 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Class LogarithmicCooling. The classic slow schedule T(k) = c / ln(k + 2),
+ * scaled so T(0) is the starting temperature. It cools far too slowly to reach
+ * a useful floor on its own, so the run is ended by the budget.
+ */
+public class LogarithmicCooling extends AbstractCoolingSchedule {
+
+	/** ln(2), so that the first iteration runs at the starting temperature. */
+	private static final double LN_2 = Math.log(2);
+
+	/**
+	 * Instantiates a new logarithmic cooling.
+	 *
+	 * @param startingTemperature
+	 *            the starting temperature
+	 * @param budget
+	 *            the budget, which must have a limit
+	 */
+	public LogarithmicCooling(final double startingTemperature, final Budget budget) {
+		super(startingTemperature, 0, budget);
+		if (!budget.isBounded()) {
+			throw new IllegalArgumentException("Logarithmic cooling needs an iteration or wall time budget");
+		}
+	}
+
+	@Override
+	public double nextTemperature(final long iteration, final long elapsedNanos, final double temperature) {
+		return this.startingTemperature * LogarithmicCooling.LN_2 / Math.log(iteration + 2);
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Class LundyMeesCooling. Lundy and Mees' schedule, T(k+1) = T(k) / (1 +
+ * beta * T(k)), which cools quickly while hot and slowly once cold.
+ */
+public class LundyMeesCooling extends AbstractCoolingSchedule {
+
+	/** The iterations beta is set for when there is no iteration budget. */
+	public static final long DEFAULT_ITERATIONS = 1000000;
+
+	/**
+	 * For budget. Works out beta so that the floor is reached in exactly the
+	 * iteration budget. With a wall time budget only, beta is set for
+	 * {@link #DEFAULT_ITERATIONS} and the run ends when the time runs out.
+	 *
+	 * @param startingTemperature
+	 *            the starting temperature
+	 * @param minimumTemperature
+	 *            the minimum temperature
+	 * @param budget
+	 *            the budget
+	 * @return the lundy mees cooling
+	 */
+	public static LundyMeesCooling forBudget(final double startingTemperature, final double minimumTemperature, final Budget budget) {
+		long iterations = budget.getMaximumIterations();
+		if (iterations <= 0) {
+			iterations = LundyMeesCooling.DEFAULT_ITERATIONS;
+		}
+		// 1 / T(k) = 1 / T(0) + k * beta
+		final double beta = (1 / minimumTemperature - 1 / startingTemperature) / iterations;
+		return new LundyMeesCooling(startingTemperature, beta, minimumTemperature, budget);
+	}
+
+	/** The beta. */
+	private final double beta;
+
+	/**
+	 * Instantiates a new lundy mees cooling.
+	 *
+	 * @param startingTemperature
+	 *            the starting temperature
+	 * @param beta
+	 *            the beta
+	 * @param minimumTemperature
+	 *            the minimum temperature
+	 * @param budget
+	 *            the budget
+	 */
+	public LundyMeesCooling(final double startingTemperature, final double beta, final double minimumTemperature, final Budget budget) {
+		super(startingTemperature, minimumTemperature, budget);
+		this.beta = beta;
+	}
+
+	/**
+	 * Gets the beta.
+	 *
+	 * @return the beta
+	 */
+	public double getBeta() {
+		return this.beta;
+	}
+
+	@Override
+	public long getExpectedIterations() {
+		long iterations = (long) Math.ceil((1 / this.minimumTemperature - 1 / this.startingTemperature) / this.beta);
+		final long budgetIterations = this.budget.getMaximumIterations();
+		if (budgetIterations >= 0 && budgetIterations < iterations) {
+			iterations = budgetIterations;
+		}
+		return iterations;
+	}
+
+	@Override
+	public double nextTemperature(final long iteration, final long elapsedNanos, final double temperature) {
+		return temperature / (1 + this.beta * temperature);
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import uk.co.kenreid.function.RandomSource;
+
+/**
+ * The Interface MoveOperator. One kind of move for a {@link Problem}, e.g. a
+ * single substitution or a swap. Several operators can be handed to an
+ * {@link OperatorSelector}, which picks between them as the run goes on; the
+ * problem scores and makes whatever move an operator proposes.
+ *
+ * @param <S>
+ *            the type of state
+ * @param <M>
+ *            the type of move
+ */
+public interface MoveOperator<S, M> {
+
+	/**
+	 * Gets the name.
+	 *
+	 * @return the name
+	 */
+	String getName();
+
+	/**
+	 * Propose. Fills in the move with a random move of this kind. Must not change
+	 * the state.
+	 *
+	 * @param state
+	 *            the state
+	 * @param move
+	 *            the move to fill in
+	 * @param random
+	 *            the random source
+	 */
+	void propose(S state, M move, RandomSource random);
+}
@@ -0,0 +1,121 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import uk.co.kenreid.dataobjects.ChainStatistics;
+import uk.co.kenreid.dataobjects.Context;
+import uk.co.kenreid.function.RandomSource;
+import uk.co.kenreid.function.XoroshiroRandom;
+
+/**
+ * The Class MultiStartAnnealing. Runs a number of independent
+ * {@link SimulatedAnnealing} chains at once and keeps the best. Each chain has
+ * its own copy of the context and its own random number generator, so the
+ * chains share nothing while running; the only coordination is picking the best
+ * once they have all finished. The generators are split in chain order from one
+ * master, seeded from the context, so a seeded run can be repeated exactly.
+ *
+ * @param <S>
+ *            the type of state
+ * @param <M>
+ *            the type of move
+ */
+public class MultiStartAnnealing<S, M> {
+
+	/** The chains. */
+	private final int chains;
+
+	/** The ctx, copied for each chain. */
+	private final Context ctx;
+
+	/** The parallelism. */
+	private final int parallelism;
+
+	/** The problem, shared by every chain. */
+	private final Problem<S, M> problem;
+
+	/**
+	 * Instantiates a new multi start annealing, using one thread per core.
+	 *
+	 * @param ctx
+	 *            the ctx
+	 * @param problem
+	 *            the problem
+	 * @param chains
+	 *            the number of chains
+	 */
+	public MultiStartAnnealing(final Context ctx, final Problem<S, M> problem, final int chains) {
+		this(ctx, problem, chains, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Instantiates a new multi start annealing.
+	 *
+	 * @param ctx
+	 *            the ctx
+	 * @param problem
+	 *            the problem
+	 * @param chains
+	 *            the number of chains
+	 * @param parallelism
+	 *            the number of threads
+	 */
+	public MultiStartAnnealing(final Context ctx, final Problem<S, M> problem, final int chains, final int parallelism) {
+		if (chains < 1) {
+			throw new IllegalArgumentException("At least one chain is needed, was " + chains);
+		}
+		this.ctx = ctx;
+		this.problem = problem;
+		this.chains = chains;
+		this.parallelism = Math.max(1, Math.min(parallelism, chains));
+	}
+
+	/**
+	 * Go. Blocks until every chain has finished.
+	 *
+	 * @return the result
+	 */
+	public MultiStartResult<S, M> go() {
+		final ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+		try {
+			final List<SimulatedAnnealing<S, M>> sAs = new ArrayList<>();
+			final List<ForkJoinTask<ChainStatistics>> tasks = new ArrayList<>();
+			final RandomSource master = this.ctx.getSeed() == null ? new XoroshiroRandom() : new XoroshiroRandom(this.ctx.getSeed());
+			for (int chain = 0; chain < this.chains; chain++) {
+				final Context chainCtx = this.ctx.copy();
+				// several chains printing every accepted solution at once is unreadable
+				chainCtx.setVerbose(false);
+				final SimulatedAnnealing<S, M> sA = new SimulatedAnnealing<>(chainCtx, this.problem, master.split());
+				final int chainIndex = chain;
+				sAs.add(sA);
+				tasks.add(pool.submit(() -> {
+					final long start = System.nanoTime();
+					sA.go();
+					return new ChainStatistics(chainIndex, sA.getFinalFitness(), sA.getIterations(), (System.nanoTime() - start) / 1000000);
+				}));
+			}
+
+			// best-of reduction
+			final List<ChainStatistics> chainStatistics = new ArrayList<>();
+			int bestChain = 0;
+			for (int chain = 0; chain < this.chains; chain++) {
+				final ChainStatistics statistics = tasks.get(chain).join();
+				chainStatistics.add(statistics);
+				if (statistics.getFinalFitness() > chainStatistics.get(bestChain).getFinalFitness()) {
+					bestChain = chain;
+				}
+			}
+			return new MultiStartResult<>(sAs.get(bestChain), bestChain, chainStatistics);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+}
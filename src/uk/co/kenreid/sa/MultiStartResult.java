@@ -0,0 +1,83 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.List;
+
+import uk.co.kenreid.dataobjects.ChainStatistics;
+
+/**
+ * The Class MultiStartResult. The best chain of a multi-start run, plus the
+ * statistics of every chain.
+ *
+ * @param <S>
+ *            the type of state
+ * @param <M>
+ *            the type of move
+ */
+public class MultiStartResult<S, M> {
+
+	/** The best chain. */
+	private final SimulatedAnnealing<S, M> best;
+
+	/** The index of the best chain. */
+	private final int bestChain;
+
+	/** The statistics per chain, in chain order. */
+	private final List<ChainStatistics> chainStatistics;
+
+	/**
+	 * Instantiates a new multi start result.
+	 *
+	 * @param best
+	 *            the best chain
+	 * @param bestChain
+	 *            the index of the best chain
+	 * @param chainStatistics
+	 *            the statistics per chain
+	 */
+	public MultiStartResult(final SimulatedAnnealing<S, M> best, final int bestChain, final List<ChainStatistics> chainStatistics) {
+		this.best = best;
+		this.bestChain = bestChain;
+		this.chainStatistics = chainStatistics;
+	}
+
+	/**
+	 * Gets the best chain. Its context and trace are its own, so it can be passed
+	 * to Output like a single run.
+	 *
+	 * @return the best chain
+	 */
+	public SimulatedAnnealing<S, M> getBest() {
+		return this.best;
+	}
+
+	/**
+	 * Gets the index of the best chain.
+	 *
+	 * @return the best chain index
+	 */
+	public int getBestChain() {
+		return this.bestChain;
+	}
+
+	/**
+	 * Gets the best solution.
+	 *
+	 * @return the best solution
+	 */
+	public String getBestSolution() {
+		return this.best.getBestSolution();
+	}
+
+	/**
+	 * Gets the statistics per chain.
+	 *
+	 * @return the chain statistics
+	 */
+	public List<ChainStatistics> getChainStatistics() {
+		return this.chainStatistics;
+	}
+}
@@ -0,0 +1,334 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import uk.co.kenreid.function.RandomSource;
+
+/**
+ * The Class OperatorSelector. Adaptive choice between a number of
+ * {@link MoveOperator}s, as a bandit: each operator is scored on the net fall
+ * in energy its recent moves made (accepted moves that made things worse count
+ * against it) per nanosecond they took, and picked with
+ * probability in proportion to its score (probability matching), never less
+ * than a minimum so an operator that has gone quiet can come back. Scores are
+ * recency weighted, so as the temperature falls and different moves start
+ * paying off, the probabilities follow.
+ *
+ * Timing every step would cost as much as some steps, so only every 16th step
+ * is timed, and the probabilities are worked out again at the same rate.
+ *
+ * A run picks between operators when its context names some, see
+ * {@link uk.co.kenreid.dataobjects.Context#setOperators(List)}; how often each
+ * was picked, accepted and how far it got the run can be read back after.
+ *
+ * @param <S>
+ *            the type of state
+ * @param <M>
+ *            the type of move
+ */
+public class OperatorSelector<S, M> {
+
+	/** The name standing for every operator of a problem. */
+	public static final String ALL = "all";
+
+	/** The default adaptation rate. */
+	public static final double DEFAULT_ADAPTATION_RATE = 0.1;
+
+	/** The default minimum probability of each operator. */
+	public static final double DEFAULT_MINIMUM_PROBABILITY = 0.01;
+
+	/**
+	 * The weight of the latest timing. Costs settle quickly whatever the
+	 * adaptation rate, so one slow early timing (before the JIT has compiled an
+	 * operator) does not hold an operator back for long.
+	 */
+	private static final double COST_RATE = 0.1;
+
+	/** How often a step is timed, and the probabilities updated. A power of 2. */
+	private static final int INTERVAL = 16;
+
+	/**
+	 * Creates a selector between the operators named, out of those a problem
+	 * has.
+	 *
+	 * @param <S>
+	 *            the type of state
+	 * @param <M>
+	 *            the type of move
+	 * @param available
+	 *            the operators of the problem
+	 * @param names
+	 *            the names of the operators wanted, or {@link #ALL}
+	 * @return the operator selector, or null if no operators are named
+	 */
+	public static <S, M> OperatorSelector<S, M> create(final List<MoveOperator<S, M>> available, final List<String> names) {
+		if (names.isEmpty()) {
+			return null;
+		}
+		if (names.size() == 1 && OperatorSelector.ALL.equals(names.get(0))) {
+			return new OperatorSelector<>(available);
+		}
+		final List<MoveOperator<S, M>> operators = new ArrayList<>();
+		for (final String name : names) {
+			MoveOperator<S, M> found = null;
+			for (final MoveOperator<S, M> operator : available) {
+				if (operator.getName().equals(name)) {
+					found = operator;
+				}
+			}
+			if (found == null) {
+				throw new IllegalArgumentException("Unknown move operator: " + name);
+			}
+			operators.add(found);
+		}
+		return new OperatorSelector<>(operators);
+	}
+
+	/**
+	 * Parses the names of operators, separated by commas, e.g. from a parameter
+	 * file.
+	 *
+	 * @param names
+	 *            the names, or null or blank for none
+	 * @return the names
+	 */
+	public static List<String> parseNames(final String names) {
+		if (names == null || names.trim().isEmpty()) {
+			return Collections.emptyList();
+		}
+		final List<String> parsed = new ArrayList<>();
+		for (final String name : names.split(",")) {
+			parsed.add(name.trim());
+		}
+		return parsed;
+	}
+
+	/** The number of moves of each operator accepted. */
+	private final long[] acceptances;
+
+	/** The adaptation rate, i.e. the weight of the latest outcome. */
+	private final double adaptationRate;
+
+	/** The cost of each operator, in nanoseconds per step, 0 until timed. */
+	private final double[] costs;
+
+	/** The cumulative probabilities, in operator order. */
+	private final double[] cumulativeProbabilities;
+
+	/** The minimum probability of each operator. */
+	private final double minimumProbability;
+
+	/** The operators. */
+	private final List<MoveOperator<S, M>> operators;
+
+	/** The total fall in energy of the accepted moves of each operator. */
+	private final double[] improvements;
+
+	/** The improvement per step of each operator, recency weighted. */
+	private final double[] rewards;
+
+	/** The number of times each operator has been picked. */
+	private final long[] selections;
+
+	/** The steps so far. */
+	private long steps;
+
+	/**
+	 * Instantiates a new operator selector with the default rates.
+	 *
+	 * @param operators
+	 *            the operators
+	 */
+	public OperatorSelector(final List<MoveOperator<S, M>> operators) {
+		this(operators, OperatorSelector.DEFAULT_ADAPTATION_RATE, OperatorSelector.DEFAULT_MINIMUM_PROBABILITY);
+	}
+
+	/**
+	 * Instantiates a new operator selector.
+	 *
+	 * @param operators
+	 *            the operators
+	 * @param adaptationRate
+	 *            the adaptation rate, between 0 and 1
+	 * @param minimumProbability
+	 *            the minimum probability of each operator
+	 */
+	public OperatorSelector(final List<MoveOperator<S, M>> operators, final double adaptationRate, final double minimumProbability) {
+		if (operators.isEmpty()) {
+			throw new IllegalArgumentException("At least one operator is needed");
+		}
+		this.operators = new ArrayList<>(operators);
+		this.adaptationRate = adaptationRate;
+		this.minimumProbability = Math.min(minimumProbability, 1.0 / operators.size());
+		this.acceptances = new long[operators.size()];
+		this.costs = new double[operators.size()];
+		this.cumulativeProbabilities = new double[operators.size()];
+		this.improvements = new double[operators.size()];
+		this.rewards = new double[operators.size()];
+		this.selections = new long[operators.size()];
+		this.updateProbabilities();
+	}
+
+	/**
+	 * Gets the number of moves of an operator accepted.
+	 *
+	 * @param operator
+	 *            the index of the operator
+	 * @return the acceptances
+	 */
+	public long getAcceptances(final int operator) {
+		return this.acceptances[operator];
+	}
+
+	/**
+	 * Gets the total fall in energy of the accepted moves of an operator, i.e.
+	 * how far it got the run. Moves that made things worse count against it.
+	 *
+	 * @param operator
+	 *            the index of the operator
+	 * @return the improvement
+	 */
+	public double getImprovement(final int operator) {
+		return this.improvements[operator];
+	}
+
+	/**
+	 * Gets the operator.
+	 *
+	 * @param operator
+	 *            the index of the operator
+	 * @return the operator
+	 */
+	public MoveOperator<S, M> getOperator(final int operator) {
+		return this.operators.get(operator);
+	}
+
+	/**
+	 * Gets the number of operators.
+	 *
+	 * @return the operator count
+	 */
+	public int getOperatorCount() {
+		return this.operators.size();
+	}
+
+	/**
+	 * Gets the current probability of picking an operator.
+	 *
+	 * @param operator
+	 *            the index of the operator
+	 * @return the probability
+	 */
+	public double getProbability(final int operator) {
+		return this.cumulativeProbabilities[operator] - (operator == 0 ? 0 : this.cumulativeProbabilities[operator - 1]);
+	}
+
+	/**
+	 * Gets the number of times an operator has been picked.
+	 *
+	 * @param operator
+	 *            the index of the operator
+	 * @return the selections
+	 */
+	public long getSelections(final int operator) {
+		return this.selections[operator];
+	}
+
+	/**
+	 * Checks if the next step should be timed.
+	 *
+	 * @return true, if it should
+	 */
+	boolean isTimed() {
+		return (this.steps & OperatorSelector.INTERVAL - 1) == 0;
+	}
+
+	/**
+	 * Reward. Records the outcome of a step.
+	 *
+	 * @param operator
+	 *            the index of the operator used
+	 * @param accepted
+	 *            whether the move was accepted
+	 * @param improvement
+	 *            the fall in energy, 0 if the move was not accepted
+	 * @param nanos
+	 *            the time the step took, or -1 if it was not timed
+	 */
+	void reward(final int operator, final boolean accepted, final double improvement, final long nanos) {
+		this.selections[operator]++;
+		if (accepted) {
+			this.acceptances[operator]++;
+			this.improvements[operator] += improvement;
+		}
+		this.rewards[operator] += this.adaptationRate * (improvement - this.rewards[operator]);
+		if (nanos >= 0) {
+			this.costs[operator] = this.costs[operator] == 0 ? Math.max(1, nanos) : this.costs[operator] + OperatorSelector.COST_RATE * (nanos - this.costs[operator]);
+		}
+		this.steps++;
+		if ((this.steps & OperatorSelector.INTERVAL - 1) == 0) {
+			this.updateProbabilities();
+		}
+	}
+
+	/**
+	 * Select. Picks an operator at random, by the current probabilities.
+	 *
+	 * @param random
+	 *            the random source
+	 * @return the index of the operator
+	 */
+	int select(final RandomSource random) {
+		final double r = random.nextDouble();
+		final int last = this.cumulativeProbabilities.length - 1;
+		for (int operator = 0; operator < last; operator++) {
+			if (r < this.cumulativeProbabilities[operator]) {
+				return operator;
+			}
+		}
+		return last;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		for (int operator = 0; operator < this.operators.size(); operator++) {
+			sb.append(this.operators.get(operator).getName()).append(": ").append(this.selections[operator]).append(" picked, ")
+					.append(this.acceptances[operator]).append(" accepted, improvement ").append(String.format("%.1f", this.improvements[operator]))
+					.append(", p=").append(String.format("%.3f", this.getProbability(operator))).append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Update probabilities. Each operator gets the minimum, and the rest is
+	 * shared out in proportion to improvement per nanosecond. Until every
+	 * operator has been timed, or while nothing is improving, all are equally
+	 * likely.
+	 */
+	private void updateProbabilities() {
+		final int count = this.operators.size();
+		double total = 0;
+		boolean allTimed = true;
+		for (int operator = 0; operator < count; operator++) {
+			if (this.costs[operator] == 0) {
+				allTimed = false;
+				break;
+			}
+			total += Math.max(0, this.rewards[operator]) / this.costs[operator];
+		}
+		double cumulative = 0;
+		for (int operator = 0; operator < count; operator++) {
+			final double share = allTimed && total > 0 ? Math.max(0, this.rewards[operator]) / this.costs[operator] / total : 1.0 / count;
+			cumulative += this.minimumProbability + (1 - count * this.minimumProbability) * share;
+			this.cumulativeProbabilities[operator] = cumulative;
+		}
+		this.cumulativeProbabilities[count - 1] = 1;
+	}
+}
@@ -0,0 +1,307 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import uk.co.kenreid.dataobjects.Context;
+import uk.co.kenreid.function.Function;
+import uk.co.kenreid.function.RandomSource;
+import uk.co.kenreid.function.XoroshiroRandom;
+
+/**
+ * The Class ParallelTempering. Replica exchange: a number of
+ * {@link SimulatedAnnealing} replicas, each held at a fixed temperature from a
+ * geometric ladder and each running on its own thread. Every so many steps all
+ * replicas meet at a barrier, and replicas at neighbouring temperatures swap
+ * using the Metropolis exchange criterion on the same energy as
+ * {@link SimulatedAnnealing}. Good solutions drift down to the cold end while
+ * the hot end keeps exploring, which gets out of local optima that a single
+ * cooling chain gets stuck in.
+ *
+ * Exchanges are done by the barrier action while every replica is waiting, so
+ * replicas never lock each other while stepping. Swapping is done by swapping
+ * temperatures, which is equivalent to swapping states but costs nothing.
+ *
+ * @param <S>
+ *            the type of state
+ * @param <M>
+ *            the type of move
+ */
+public class ParallelTempering<S, M> {
+
+	/** The accepted swaps, per pair of neighbouring rungs. */
+	private long[] acceptedSwaps;
+
+	/** The attempted swaps, per pair of neighbouring rungs. */
+	private long[] attemptedSwaps;
+
+	/** The coldest temperature. */
+	private final double coldestTemperature;
+
+	/** The ctx, copied for each replica. Its temperature is the hottest. */
+	private final Context ctx;
+
+	/** The exchanges done so far. */
+	private int exchanges;
+
+	/** The first failure of a replica, or null if none has failed. */
+	private volatile Throwable failure;
+
+	/** The function, used for the exchange criterion. */
+	Function function;
+
+	/** The temperature of each rung, coldest first. */
+	private double[] ladder;
+
+	/** The maximum number of exchanges. */
+	private final int maximumExchanges;
+
+	/** The problem, shared by every replica. */
+	private final Problem<S, M> problem;
+
+	/** The replicas. */
+	private final int replicas;
+
+	/** The replica currently at each rung, coldest first. */
+	private List<SimulatedAnnealing<S, M>> rungs;
+
+	/** The steps each replica takes between exchanges. */
+	private final int stepsPerExchange;
+
+	/** Whether the run is over. Only written by the barrier action. */
+	private volatile boolean stopped;
+
+	/**
+	 * Instantiates a new parallel tempering.
+	 *
+	 * @param ctx
+	 *            the ctx, whose temperature is used for the hottest replica
+	 * @param problem
+	 *            the problem
+	 * @param replicas
+	 *            the number of replicas
+	 * @param coldestTemperature
+	 *            the temperature of the coldest replica
+	 * @param stepsPerExchange
+	 *            the steps each replica takes between exchanges
+	 * @param maximumExchanges
+	 *            the maximum number of exchanges
+	 */
+	public ParallelTempering(final Context ctx, final Problem<S, M> problem, final int replicas, final double coldestTemperature, final int stepsPerExchange,
+			final int maximumExchanges) {
+		if (replicas < 1) {
+			throw new IllegalArgumentException("At least one replica is needed, was " + replicas);
+		}
+		if (coldestTemperature <= 0 || coldestTemperature > ctx.getTemperature()) {
+			throw new IllegalArgumentException("The coldest temperature must be positive and no hotter than " + ctx.getTemperature());
+		}
+		this.ctx = ctx;
+		this.problem = problem;
+		this.replicas = replicas;
+		this.coldestTemperature = coldestTemperature;
+		this.stepsPerExchange = stepsPerExchange;
+		this.maximumExchanges = maximumExchanges;
+	}
+
+	/**
+	 * Best replica.
+	 *
+	 * @return the replica with the fittest current solution
+	 */
+	private SimulatedAnnealing<S, M> bestReplica() {
+		SimulatedAnnealing<S, M> best = this.rungs.get(0);
+		for (final SimulatedAnnealing<S, M> replica : this.rungs) {
+			if (replica.getFitness() > best.getFitness()) {
+				best = replica;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Exchange. Runs as the barrier action, so every replica is waiting and none
+	 * is stepping. Alternates between even and odd pairs of rungs.
+	 */
+	private void exchange() {
+		for (int rung = this.exchanges % 2; rung + 1 < this.replicas; rung += 2) {
+			final SimulatedAnnealing<S, M> colder = this.rungs.get(rung);
+			final SimulatedAnnealing<S, M> hotter = this.rungs.get(rung + 1);
+			final double colderEnergy = SimulatedAnnealing.energyCost(colder.getFitness());
+			final double hotterEnergy = SimulatedAnnealing.energyCost(hotter.getFitness());
+			final double exponent = (1 / this.ladder[rung] - 1 / this.ladder[rung + 1]) * (colderEnergy - hotterEnergy);
+			this.attemptedSwaps[rung]++;
+			if (exponent >= 0 || this.function.getRandom().nextDouble() < Math.exp(exponent)) {
+				this.rungs.set(rung, hotter);
+				this.rungs.set(rung + 1, colder);
+				hotter.setTemperature(this.ladder[rung]);
+				colder.setTemperature(this.ladder[rung + 1]);
+				this.acceptedSwaps[rung]++;
+			}
+		}
+		this.exchanges++;
+		if (this.exchanges >= this.maximumExchanges || this.bestReplica().getFitness() >= this.problem.getMaximumFitness()) {
+			this.stopped = true;
+		}
+	}
+
+	/**
+	 * Gets the exchange acceptance rate between a rung and the next hotter one.
+	 *
+	 * @param rung
+	 *            the rung, 0 being the coldest
+	 * @return the exchange acceptance rate
+	 */
+	public double getExchangeAcceptanceRate(final int rung) {
+		return this.attemptedSwaps[rung] == 0 ? 0 : (double) this.acceptedSwaps[rung] / this.attemptedSwaps[rung];
+	}
+
+	/**
+	 * Gets the exchanges done.
+	 *
+	 * @return the exchanges
+	 */
+	public int getExchanges() {
+		return this.exchanges;
+	}
+
+	/**
+	 * Gets the temperature ladder, coldest first.
+	 *
+	 * @return the ladder
+	 */
+	public double[] getLadder() {
+		return this.ladder.clone();
+	}
+
+	/**
+	 * Gets the replicas, in rung order (coldest first).
+	 *
+	 * @return the replicas
+	 */
+	public List<SimulatedAnnealing<S, M>> getRungs() {
+		return new ArrayList<>(this.rungs);
+	}
+
+	/**
+	 * Go. Blocks until the maximum number of exchanges is reached or a replica
+	 * finds a perfect solution.
+	 *
+	 * @return the replica with the fittest solution
+	 */
+	public SimulatedAnnealing<S, M> go() {
+		this.ladder = new double[this.replicas];
+		for (int rung = 0; rung < this.replicas; rung++) {
+			final double position = this.replicas == 1 ? 0 : (double) rung / (this.replicas - 1);
+			this.ladder[rung] = this.coldestTemperature * Math.pow(this.ctx.getTemperature() / this.coldestTemperature, position);
+		}
+		this.rungs = new ArrayList<>(this.replicas);
+		// one master stream, split for the exchanges and then each replica in turn
+		final RandomSource master = this.ctx.getSeed() == null ? new XoroshiroRandom() : new XoroshiroRandom(this.ctx.getSeed());
+		this.function = new Function(master.split());
+		this.acceptedSwaps = new long[Math.max(0, this.replicas - 1)];
+		this.attemptedSwaps = new long[Math.max(0, this.replicas - 1)];
+		this.exchanges = 0;
+		this.failure = null;
+		this.stopped = this.maximumExchanges <= 0;
+
+		final ExecutorService pool = Executors.newFixedThreadPool(this.replicas);
+		try {
+			// built inside the try so a replica that fails to start still finishes those before it
+			for (int rung = 0; rung < this.replicas; rung++) {
+				final Context replicaCtx = this.ctx.copy();
+				replicaCtx.setVerbose(false);
+				replicaCtx.setTracePolicy(TracePolicy.off());
+				// replicas are only stepped, never annealed, so a monitor would never move on
+				replicaCtx.setMonitored(false);
+				final SimulatedAnnealing<S, M> replica = new SimulatedAnnealing<>(replicaCtx, this.problem, master.split());
+				this.rungs.add(replica);
+				replica.initialise();
+				replica.setTemperature(this.ladder[rung]);
+			}
+			final CyclicBarrier barrier = new CyclicBarrier(this.replicas, this::exchange);
+			final List<Future<?>> futures = new ArrayList<>();
+			for (final SimulatedAnnealing<S, M> replica : this.rungs) {
+				futures.add(pool.submit(() -> this.run(replica, barrier)));
+			}
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for replicas", e);
+		}
+		catch (final ExecutionException e) {
+			// the replica that failed, not one that only saw the barrier break
+			throw new IllegalStateException("A replica failed", this.failure == null ? e.getCause() : this.failure);
+		}
+		finally {
+			pool.shutdownNow();
+			// every replica is finished, even if one failed, so none is left monitored
+			try {
+				pool.awaitTermination(10, TimeUnit.SECONDS);
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			for (final SimulatedAnnealing<S, M> replica : this.rungs) {
+				replica.finish();
+			}
+		}
+		// the best solution any replica found, which need not be where it ended up
+		SimulatedAnnealing<S, M> best = this.rungs.get(0);
+		for (final SimulatedAnnealing<S, M> replica : this.rungs) {
+			if (replica.getFinalFitness() > best.getFinalFitness()) {
+				best = replica;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Run one replica until the barrier action says to stop. A replica that
+	 * fails breaks the barrier, so the rest stop too rather than wait for it
+	 * forever.
+	 *
+	 * @param replica
+	 *            the replica
+	 * @param barrier
+	 *            the barrier
+	 */
+	private void run(final SimulatedAnnealing<S, M> replica, final CyclicBarrier barrier) {
+		final double maximumFitness = this.problem.getMaximumFitness();
+		try {
+			while (!this.stopped) {
+				for (int step = 0; step < this.stepsPerExchange && replica.getFitness() < maximumFitness; step++) {
+					replica.step();
+				}
+				barrier.await();
+			}
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			barrier.reset();
+		}
+		catch (final BrokenBarrierException e) {
+			throw new IllegalStateException("Another replica failed", e);
+		}
+		catch (final RuntimeException | Error e) {
+			if (this.failure == null) {
+				this.failure = e;
+			}
+			barrier.reset();
+			throw e;
+		}
+	}
+}
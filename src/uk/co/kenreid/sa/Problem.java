@@ -0,0 +1,273 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.Collections;
+import java.util.List;
+
+import uk.co.kenreid.function.RandomSource;
+
+/**
+ * The Interface Problem. Everything {@link SimulatedAnnealing} needs to know
+ * about a problem: how to make a starting state, propose a move, score it, and
+ * make it. Higher fitness is better, as elsewhere in the engine; it is turned
+ * into energy by {@link SimulatedAnnealing#energyCost(double)}.
+ *
+ * Moves are proposed into move objects the run owns and reuses, and the state
+ * is changed in place, so a step need not allocate anything. The state is
+ * expected to keep whatever it needs (a running count, a total distance) to
+ * score a move and report its fitness without rescanning itself. A problem
+ * holds nothing of a run, so one can be shared by several chains; everything a
+ * run changes is in its state.
+ *
+ * The default methods are the extras some features need: the acceptance
+ * table, the trace columns, batches of moves, checkpoints and operators.
+ *
+ * @param <S>
+ *            the type of state, i.e. a solution plus any running totals
+ * @param <M>
+ *            the type of move
+ */
+public interface Problem<S, M> {
+
+	/**
+	 * Apply. Makes the move, changing the state in place.
+	 *
+	 * @param state
+	 *            the state
+	 * @param move
+	 *            the move, as proposed for this state
+	 */
+	void apply(S state, M move);
+
+	/**
+	 * Copy. Copies one state over another, e.g. to snapshot the best state so
+	 * far. A destination being annealed is rescored, so it can go on scoring
+	 * moves.
+	 *
+	 * @param source
+	 *            the source
+	 * @param destination
+	 *            the destination, or null to make a new state
+	 * @return the destination, or the new state
+	 */
+	S copy(S source, S destination);
+
+	/**
+	 * Creates the initial state.
+	 *
+	 * @param random
+	 *            the random source
+	 * @return the state
+	 */
+	S createInitialState(RandomSource random);
+
+	/**
+	 * Creates a move object for the run to propose moves into.
+	 *
+	 * @return the move
+	 */
+	M createMove();
+
+	/**
+	 * Describe. The state as a person would read it, e.g. for the output.
+	 *
+	 * @param state
+	 *            the state
+	 * @return the description
+	 */
+	String describe(S state);
+
+	/**
+	 * Evaluate move. The fitness the move would give, without making it.
+	 *
+	 * @param state
+	 *            the state
+	 * @param move
+	 *            the move, as proposed for this state
+	 * @return the fitness after the move
+	 */
+	double evaluateMove(S state, M move);
+
+	/**
+	 * Evaluate moves. Scores a batch of moves, each against the state as it is.
+	 * By default one at a time; a problem can do better, e.g. in one pass.
+	 *
+	 * @param state
+	 *            the state
+	 * @param moves
+	 *            the moves, as proposed for this state
+	 * @param count
+	 *            the number of moves
+	 * @param fitnesses
+	 *            the fitness after each move, filled in
+	 */
+	default void evaluateMoves(final S state, final List<M> moves, final int count, final double[] fitnesses) {
+		for (int k = 0; k < count; k++) {
+			fitnesses[k] = this.evaluateMove(state, moves.get(k));
+		}
+	}
+
+	/**
+	 * From bytes. Rebuilds a state written by {@link #toBytes(Object)}, ready to
+	 * be annealed.
+	 *
+	 * @param bytes
+	 *            the bytes
+	 * @return the state
+	 */
+	default S fromBytes(final byte[] bytes) {
+		throw new UnsupportedOperationException("States of " + this.getClass().getSimpleName() + " cannot be restored");
+	}
+
+	/**
+	 * Gets the weighted fitness of one constraint for the move last scored. Used
+	 * for the trace.
+	 *
+	 * @param state
+	 *            the state
+	 * @param constraintIndex
+	 *            the constraint index, see {@link #getConstraintNames()}
+	 * @return the weighted fitness
+	 */
+	default double getCandidateWeightedFitness(final S state, final int constraintIndex) {
+		throw new IndexOutOfBoundsException("Constraint " + constraintIndex);
+	}
+
+	/**
+	 * Gets the names of the constraints the fitness is made of, if it is
+	 * traced per constraint.
+	 *
+	 * @return the constraint names
+	 */
+	default String[] getConstraintNames() {
+		return new String[0];
+	}
+
+	/**
+	 * Gets a fingerprint of the problem, so a checkpoint is only resumed on the
+	 * problem it was taken of.
+	 *
+	 * @return the fingerprint
+	 */
+	default long getFingerprint() {
+		return 0;
+	}
+
+	/**
+	 * Gets the fitness of a state. Called after every step, so should be O(1) for
+	 * a state that keeps its fitness up to date.
+	 *
+	 * @param state
+	 *            the state
+	 * @return the fitness
+	 */
+	double getFitness(S state);
+
+	/**
+	 * Gets the fitness quantum, i.e. the step every fitness of the state is a
+	 * whole multiple of, so acceptance probabilities can be tabulated.
+	 *
+	 * @param state
+	 *            the state
+	 * @return the fitness quantum, or NaN if the fitness is continuous
+	 */
+	default double getFitnessQuantum(final S state) {
+		return Double.NaN;
+	}
+
+	/**
+	 * Gets the maximum fitness, i.e. a perfect solution.
+	 *
+	 * @return the maximum fitness
+	 */
+	default double getMaximumFitness() {
+		return 1.0;
+	}
+
+	/**
+	 * Gets the move operators the problem offers besides its own move, for
+	 * {@link OperatorSelector}.
+	 *
+	 * @return the operators
+	 */
+	default List<MoveOperator<S, M>> getOperators() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Gets the size of a state, e.g. the length of a string, as reported and as
+	 * used to bound buffers of states.
+	 *
+	 * @param state
+	 *            the state
+	 * @return the size
+	 */
+	int getSize(S state);
+
+	/**
+	 * Propose move. Fills in the move with a random move from the state. Must not
+	 * change the state.
+	 *
+	 * @param state
+	 *            the state
+	 * @param move
+	 *            the move to fill in
+	 * @param random
+	 *            the random source
+	 */
+	void proposeMove(S state, M move, RandomSource random);
+
+	/**
+	 * Select move. Makes one move of the batch last scored by
+	 * {@link #evaluateMoves(Object, List, int, double[])} the move last scored,
+	 * for {@link #getCandidateWeightedFitness(Object, int)}.
+	 *
+	 * @param state
+	 *            the state
+	 * @param move
+	 *            the index of the move in the batch
+	 */
+	default void selectMove(final S state, final int move) {
+		// nothing is traced per constraint by default
+	}
+
+	/**
+	 * To bytes. Writes a state out, for a checkpoint.
+	 *
+	 * @param state
+	 *            the state
+	 * @return the bytes
+	 */
+	default byte[] toBytes(final S state) {
+		throw new UnsupportedOperationException("States of " + this.getClass().getSimpleName() + " cannot be saved");
+	}
+
+	/**
+	 * Trace initial state. Lets the trace replay accepted moves, if the state is
+	 * a string of bytes.
+	 *
+	 * @param state
+	 *            the state
+	 * @param trace
+	 *            the trace
+	 */
+	default void traceInitialState(final S state, final TraceRecorder trace) {
+		// accepted moves are not replayed by default
+	}
+
+	/**
+	 * Trace move. Records the bytes an accepted move changes, see
+	 * {@link #traceInitialState(Object, TraceRecorder)}.
+	 *
+	 * @param move
+	 *            the move
+	 * @param trace
+	 *            the trace
+	 */
+	default void traceMove(final M move, final TraceRecorder trace) {
+		// accepted moves are not replayed by default
+	}
+}
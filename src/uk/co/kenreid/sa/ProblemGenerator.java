@@ -0,0 +1,118 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.nio.charset.StandardCharsets;
+
+import uk.co.kenreid.function.XoroshiroRandom;
+
+/**
+ * The Class ProblemGenerator. Makes synthetic problems, i.e. strings to be
+ * found, of any length, for seeing how the engine scales. Problems are drawn
+ * from the first few of the characters a mutation can create, so every one can
+ * be solved. The same arguments always give the same problem.
+ */
+public final class ProblemGenerator {
+
+	/**
+	 * The Enum Structure, i.e. how the characters of a problem are laid out.
+	 */
+	public enum Structure {
+
+		/** Tokens of random characters between delimiters, like the passcode. */
+		DELIMITED,
+
+		/** Each character drawn independently. */
+		RANDOM,
+
+		/** A short random motif, repeated. */
+		REPETITIVE
+	}
+
+	/** The delimiter of delimited problems. */
+	static final byte DELIMITER = StringMatchProblem.POTENTIALS[StringMatchProblem.POTENTIALS.length - 1];
+
+	/** The longest token of a delimited problem. */
+	static final int MAXIMUM_TOKEN_LENGTH = 8;
+
+	/** The length of the motif of a repetitive problem. */
+	static final int MOTIF_LENGTH = 16;
+
+	/**
+	 * Generate a problem.
+	 *
+	 * @param length
+	 *            the length
+	 * @param alphabet
+	 *            the number of distinct characters the problem is made from, at
+	 *            most {@link #getMaximumAlphabet()}. Delimited problems also
+	 *            have the delimiter.
+	 * @param structure
+	 *            the structure
+	 * @param seed
+	 *            the seed
+	 * @return the problem
+	 */
+	public static String generate(final int length, final int alphabet, final Structure structure, final long seed) {
+		if (length < 1) {
+			throw new IllegalArgumentException("Length must be at least 1: " + length);
+		}
+		if (alphabet < 1 || alphabet > ProblemGenerator.getMaximumAlphabet()) {
+			throw new IllegalArgumentException("Alphabet must be between 1 and " + ProblemGenerator.getMaximumAlphabet() + ": " + alphabet);
+		}
+		final XoroshiroRandom random = new XoroshiroRandom(seed);
+		final byte[] problem = new byte[length];
+		switch (structure) {
+		case DELIMITED:
+			// the delimiter is left out of the tokens, so it only ever delimits
+			final int tokenAlphabet = Math.min(alphabet, StringMatchProblem.POTENTIALS.length - 1);
+			int tokenLeft = 1 + random.nextInt(ProblemGenerator.MAXIMUM_TOKEN_LENGTH);
+			for (int i = 0; i < length; i++) {
+				if (tokenLeft == 0 && i < length - 1) {
+					problem[i] = ProblemGenerator.DELIMITER;
+					tokenLeft = 1 + random.nextInt(ProblemGenerator.MAXIMUM_TOKEN_LENGTH);
+				}
+				else {
+					problem[i] = StringMatchProblem.POTENTIALS[random.nextInt(tokenAlphabet)];
+					tokenLeft--;
+				}
+			}
+			break;
+		case RANDOM:
+			for (int i = 0; i < length; i++) {
+				problem[i] = StringMatchProblem.POTENTIALS[random.nextInt(alphabet)];
+			}
+			break;
+		case REPETITIVE:
+			final byte[] motif = new byte[Math.min(length, ProblemGenerator.MOTIF_LENGTH)];
+			for (int i = 0; i < motif.length; i++) {
+				motif[i] = StringMatchProblem.POTENTIALS[random.nextInt(alphabet)];
+			}
+			for (int i = 0; i < length; i += motif.length) {
+				System.arraycopy(motif, 0, problem, i, Math.min(motif.length, length - i));
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown structure: " + structure);
+		}
+		return new String(problem, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Gets the maximum alphabet, i.e. the number of characters a mutation can
+	 * create.
+	 *
+	 * @return the maximum alphabet
+	 */
+	public static int getMaximumAlphabet() {
+		return StringMatchProblem.POTENTIALS.length;
+	}
+
+	/**
+	 * Instantiates a new problem generator.
+	 */
+	private ProblemGenerator() {
+	}
+}
@@ -4,12 +4,18 @@
  */
 package uk.co.kenreid.sa;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 
 import uk.co.kenreid.dataobjects.Context;
 import uk.co.kenreid.function.Function;
+import uk.co.kenreid.function.RandomSource;
+import uk.co.kenreid.function.XoroshiroRandom;
+import uk.co.kenreid.monitor.AnnealingMonitor;
+import uk.co.kenreid.monitor.FlightEvents;
 
 /**
  * The Class SimulatedAnnealing. Fairly simple example of SA. Basically works by
@@ -21,41 +27,184 @@ import uk.co.kenreid.function.Function;
  *
  * For a useful run down of simulated annealing I recommend
  * http://www.theprojectspot.com/tutorial-post/simulated-annealing-algorithm-for-beginners/6
+ *
+ * What is annealed is a {@link Problem}; the passcode of the example is a
+ * {@link StringMatchProblem}.
+ *
+ * @param <S>
+ *            the type of state
+ * @param <M>
+ *            the type of move
  */
-public class SimulatedAnnealing {
+public class SimulatedAnnealing<S, M> {
+
+	/**
+	 * The least time between publishing the incumbent while a run goes on. Every
+	 * incumbent is a copy of the best state, and early on the best improves
+	 * almost every step.
+	 */
+	private static final long INCUMBENT_INTERVAL_NANOS = 10000000;
+
+	/**
+	 * Energy cost of a solution, lower is better. Shared with the other engines so
+	 * they all anneal on the same scale.
+	 *
+	 * @param fitness
+	 *            the fitness
+	 * @return the energy cost
+	 */
+	static double energyCost(final double fitness) {
+		return (1 - fitness) * 10000;
+	}
+
+	/** The moves accepted since the run started (or resumed). */
+	private long acceptedMoves;
+
+	/**
+	 * The acceptance probabilities, when the fitness moves in whole quanta, or
+	 * null if it is continuous.
+	 */
+	private AcceptanceTable acceptanceTable;
+
+	/** The fitness after each move of the current batch. */
+	private double[] batchFitnesses;
+
+	/** The moves of the current batch, reused from batch to batch. */
+	private List<M> batchMoves;
 
-	/** The accepted solutions. */
-	List<String> acceptedSolutions = new ArrayList<>();
+	/** The operator that proposed each move of the current batch. */
+	private int[] batchOperators;
 
-	/** The cooling rate. */
-	private double coolingRate;
+	/** The batch policy. */
+	private BatchPolicy batchPolicy;
+
+	/** The best fitness of the run so far. */
+	private double bestFitness;
+
+	/** The iteration the best state was found at. */
+	private long bestIteration;
+
+	/**
+	 * The best state of the run so far. Copied over from the current state on
+	 * every improvement, the state itself is reused from run to run.
+	 */
+	private S bestState;
+
+	/** The fitness of the last move proposed. */
+	private double candidateFitness;
+
+	/** The file checkpoints are written to, or null for none. */
+	private Path checkpointFile;
+
+	/** The elapsed wall time of the run at the last checkpoint. */
+	private long checkpointNanos;
 
 	/** The ctx. */
 	private final Context ctx;
 
-	/** The current solution. */
-	private String currentSolution;
+	/**
+	 * The current state. Moves are made to it in place; it is only described by
+	 * {@link #getCurrentSolution()}.
+	 */
+	private S currentState;
+
+	/** The number of events of the last run dropped because a listener lagged. */
+	private long droppedEvents;
+
+	/** The dispatcher of this run's events, or null if nothing is listening. */
+	private EventDispatcher<S> events;
+
+	/** The elapsed wall time of the run, refreshed periodically. */
+	private long elapsedNanos;
+
+	/** The best fitness of the last run. */
+	private double finalFitness;
+
+	/** The elapsed wall time of the run at the last flight recorder sample. */
+	private long flightProgressNanos;
+
+	/** The flight recorder event of this run, or null if not recorded. */
+	private Object flightRun;
 
-	/** The fitnesses. */
-	private final List<Double> fitnesses = new ArrayList<>();
+	/** The function, holding this run's own random source. */
+	final Function function;
 
-	/** The fitness object over time. */
-	private LinkedHashMap<Integer, Fitness> fitnessObjectOverTime = new LinkedHashMap<>();
+	/**
+	 * The best solution so far, replaced (never changed) when published so other
+	 * threads can read it while the run goes on.
+	 */
+	private volatile Incumbent<S> incumbent;
+
+	/** The elapsed wall time of the run when the incumbent was last published. */
+	private long incumbentNanos;
+
+	/** Whether the best state has improved since the incumbent was published. */
+	private boolean incumbentStale;
+
+	/** The iterations of the last run. */
+	private long iterations;
+
+	/** A copy of the random initial state. */
+	private S initialState;
+
+	/** The JMX view of this run while it goes on, or null if not monitored. */
+	private AnnealingMonitor monitor;
+
+	/** The move proposed by each step, reused from step to step. */
+	private final M move;
 
-	/** The function. */
-	Function function = new Function();
+	/** The iteration at which the wall time is next looked at. */
+	private long nextClockCheck;
+
+	/**
+	 * The selector between the move operators of the context, or null if the
+	 * problem's own move is used.
+	 */
+	private OperatorSelector<S, M> operatorSelector;
+
+	/** The problem. */
+	private final Problem<S, M> problem;
+
+	/** The cooling schedule. */
+	private CoolingSchedule schedule;
+
+	/** The start of the run, from System.nanoTime(). */
+	private long startNanos;
 
 	/** The temperature. */
 	private double temperature;
 
+	/** The trace. */
+	private TraceRecorder trace;
+
 	/**
 	 * Instantiates a new simulated annealing.
 	 *
 	 * @param ctx
 	 *            the ctx
+	 * @param problem
+	 *            the problem
+	 */
+	public SimulatedAnnealing(final Context ctx, final Problem<S, M> problem) {
+		this(ctx, problem, ctx.getSeed() == null ? new XoroshiroRandom() : new XoroshiroRandom(ctx.getSeed()));
+	}
+
+	/**
+	 * Instantiates a new simulated annealing drawing on the given random source,
+	 * e.g. one split from a master source for one of several chains.
+	 *
+	 * @param ctx
+	 *            the ctx
+	 * @param problem
+	 *            the problem
+	 * @param random
+	 *            the random source, used by this run only
 	 */
-	public SimulatedAnnealing(final Context ctx) {
+	public SimulatedAnnealing(final Context ctx, final Problem<S, M> problem, final RandomSource random) {
 		this.ctx = ctx;
+		this.problem = problem;
+		this.function = new Function(random);
+		this.move = problem.createMove();
 	}
 
 	/**
@@ -67,214 +216,722 @@ public class SimulatedAnnealing {
 	 *            the mutated solution fitness
 	 * @return the double
 	 */
-	private double acceptanceProbability(final double originalSolutionFitness, final double mutatedSolutionFitness) {
+	double acceptanceProbability(final double originalSolutionFitness, final double mutatedSolutionFitness) {
 		// if fitness has improved, keep it!
-		final double originalEnergyCost = (1 - originalSolutionFitness) * 10000;
-		final double newEnergyCost = (1 - mutatedSolutionFitness) * 10000;
+		final double originalEnergyCost = SimulatedAnnealing.energyCost(originalSolutionFitness);
+		final double newEnergyCost = SimulatedAnnealing.energyCost(mutatedSolutionFitness);
 
 		if (newEnergyCost < originalEnergyCost) {
 			return 1.0;
 		}
 		// otherwise, MAYBE keep it
-		final double chance = 1 / (1 + Math.exp((newEnergyCost - originalEnergyCost) / this.temperature));
-		return chance;
+		if (this.acceptanceTable != null) {
+			return this.acceptanceTable.probability(originalSolutionFitness, mutatedSolutionFitness);
+		}
+		return AcceptanceTable.barker(newEnergyCost - originalEnergyCost, this.temperature);
+	}
+
+	/**
+	 * Anneal. The loop of a run, from wherever the run is up to, until the
+	 * schedule finishes or the best fitness reaches the target. When the context
+	 * names a checkpoint file, a checkpoint is written every so often, and once
+	 * more if the run is cancelled; a run that finishes deletes it, as there is
+	 * nothing left to resume. The caller ends the run with
+	 * {@link #endAnnealing()}, in a finally, so the monitor, listeners and flight
+	 * recorder hear the run is over even if it failed.
+	 *
+	 * @param token
+	 *            the token
+	 */
+	private void anneal(final CancellationToken token) {
+		this.beginAnnealing();
+		this.annealFor(token, Long.MAX_VALUE);
+		if (this.checkpointFile != null && !token.isCancelled()) {
+			this.deleteCheckpoint();
+		}
 	}
 
 	/**
-	 * Cool system.
+	 * Anneal for a number of iterations, carrying on the loop of a run begun with
+	 * {@link #beginAnnealing()}, e.g. to stop every so often for something else
+	 * before carrying on. Once the run is over, {@link #endAnnealing()} finishes
+	 * it.
+	 *
+	 * @param token
+	 *            the token
+	 * @param maximumIterations
+	 *            the most iterations to do this time, or Long.MAX_VALUE for no
+	 *            limit
+	 * @return true, if the run is over, i.e. the schedule has finished, the target
+	 *         fitness has been reached or the token has been cancelled
 	 */
-	private void coolSystem() {
-		this.temperature *= 1 - this.coolingRate;
+	boolean annealFor(final CancellationToken token, final long maximumIterations) {
+		final long checkpointIntervalNanos = this.ctx.getCheckpointIntervalMillis() * 1000000;
+		final int batchSize = this.batchPolicy.getSize();
+		final double targetFitness = this.ctx.getTargetFitness();
+		final long stopAt = maximumIterations == Long.MAX_VALUE ? Long.MAX_VALUE : this.iterations + maximumIterations;
+		while (!this.schedule.isFinished(this.iterations, this.elapsedNanos, this.temperature) && this.bestFitness < targetFitness) {
+			if (this.iterations >= stopAt) {
+				this.publishIncumbent();
+				return false;
+			}
+			if (batchSize == 1) {
+				this.step();
+			}
+			else {
+				this.stepBatch();
+			}
+
+			// wall time is only looked at every so often, it is not free
+			boolean clockChecked = false;
+			if (this.iterations >= this.nextClockCheck) {
+				this.nextClockCheck = this.iterations + 256;
+				this.elapsedNanos = System.nanoTime() - this.startNanos;
+				clockChecked = true;
+				if (this.incumbentStale && this.elapsedNanos - this.incumbentNanos >= SimulatedAnnealing.INCUMBENT_INTERVAL_NANOS) {
+					this.publishIncumbent();
+				}
+				if (this.events != null) {
+					this.events.offer(AnnealingEvent.Type.TEMPERATURE, this.iterations, this.temperature, this.problem.getFitness(this.currentState),
+							this.currentState);
+				}
+				if (this.monitor != null) {
+					this.publishMetrics();
+				}
+				if (FlightEvents.isProgressEnabled() && this.elapsedNanos - this.flightProgressNanos >= FlightEvents.PROGRESS_INTERVAL_NANOS) {
+					this.flightProgressNanos = this.elapsedNanos;
+					FlightEvents.progress(this.iterations, this.acceptedMoves, this.temperature, this.problem.getFitness(this.currentState),
+							this.bestFitness);
+				}
+			}
+
+			// cool simulated annealing, once per proposal
+			for (int proposal = 0; proposal < batchSize; proposal++) {
+				this.coolSystem();
+			}
+
+			// checkpoints are only taken between iterations, once cooled
+			if (clockChecked) {
+				if (token.isCancelled()) {
+					if (this.checkpointFile != null) {
+						this.writeCheckpoint();
+					}
+					this.publishIncumbent();
+					return true;
+				}
+				if (this.checkpointFile != null && this.elapsedNanos - this.checkpointNanos >= checkpointIntervalNanos) {
+					this.writeCheckpoint();
+				}
+			}
+		}
+		this.publishIncumbent();
+		return true;
 	}
 
 	/**
-	 * Creates the random string. Thanks to here for this code:
-	 * https://www.baeldung.com/java-random-string This can theoretically be used
-	 * for any string input.
+	 * Begin annealing, from wherever the run is up to, once initialised or
+	 * resumed.
+	 */
+	void beginAnnealing() {
+		this.checkpointFile = this.ctx.getCheckpointFile();
+		this.checkpointNanos = this.elapsedNanos;
+		this.nextClockCheck = this.iterations + 256;
+	}
+
+	/**
+	 * Checkpoint. Takes a copy of everything needed to carry on the run from
+	 * here. Called between iterations, e.g. by the run itself every so often
+	 * when the context names a checkpoint file.
 	 *
-	 * @return the string
+	 * @return the checkpoint
+	 */
+	public Checkpoint checkpoint() {
+		if (!(this.function.getRandom() instanceof XoroshiroRandom)) {
+			throw new IllegalStateException("The random source of this run cannot be checkpointed");
+		}
+		return new Checkpoint(this.problem.getFingerprint(), this.iterations, this.elapsedNanos, this.temperature, this.candidateFitness,
+				((XoroshiroRandom) this.function.getRandom()).getState(), this.problem.toBytes(this.initialState),
+				this.problem.toBytes(this.currentState), this.problem.toBytes(this.bestState), this.bestFitness, this.bestIteration);
+	}
+
+	/**
+	 * Cool system, as the cooling schedule says.
+	 */
+	private void coolSystem() {
+		this.setTemperature(this.schedule.nextTemperature(this.iterations, this.elapsedNanos, this.temperature));
+	}
+
+	/**
+	 * Delete checkpoint. A checkpoint that cannot be deleted is reported, and
+	 * would be resumed as a finished run, which stops at once.
+	 */
+	private void deleteCheckpoint() {
+		try {
+			Files.deleteIfExists(this.checkpointFile);
+		}
+		catch (final IOException e) {
+			System.err.println(e);
+		}
+	}
+
+	/**
+	 * End annealing, once the loop is over, or has failed. Safe to call however
+	 * far the run got.
+	 */
+	void endAnnealing() {
+		this.elapsedNanos = System.nanoTime() - this.startNanos;
+		this.finish();
+	}
+
+	/**
+	 * Finish. Records the outcome of the run, and lets go of the monitor and the
+	 * dispatcher.
 	 */
-	private String createRandomString() {
-		final String potentialCharacters = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-		final int solutionLength = this.ctx.getProblem().length();
-		String initialAttempt = "";
-		while (initialAttempt.length() != solutionLength) {
-			initialAttempt = initialAttempt + potentialCharacters.charAt(this.function.getRandom().nextInt(potentialCharacters.length()));
+	void finish() {
+		this.finalFitness = this.bestFitness;
+		this.publishIncumbent();
+		FlightEvents.runFinished(this.flightRun, this.iterations, this.acceptedMoves, this.temperature, this.bestFitness);
+		this.flightRun = null;
+		if (this.monitor != null) {
+			this.publishMetrics();
+			this.monitor.unregister();
+			this.monitor = null;
 		}
-		return initialAttempt;
+		if (this.events != null) {
+			// nothing is offered after finish, so the count is final
+			this.droppedEvents = this.events.getDropped();
+			try {
+				// a run that failed before it had a best state has nothing to report
+				if (this.bestState != null) {
+					this.events.put(AnnealingEvent.Type.FINISH, this.iterations, this.temperature, this.bestFitness, this.bestState);
+				}
+			}
+			finally {
+				this.events.close();
+				this.events = null;
+			}
+		}
+	}
+
+	/**
+	 * Gets the best solution of the last run, as the problem describes it. The
+	 * current solution can be worse, if the run ended after uphill moves.
+	 *
+	 * @return the best solution
+	 */
+	public String getBestSolution() {
+		return this.problem.describe(this.bestState);
+	}
 
+	/**
+	 * Gets the best state of the last run. Must not be changed.
+	 *
+	 * @return the best state
+	 */
+	public S getBestState() {
+		return this.bestState;
 	}
 
 	/**
-	 * Gets the accepted solutions.
+	 * Gets the context.
 	 *
-	 * @return the accepted solutions
+	 * @return the context
 	 */
-	public List<String> getAcceptedSolutions() {
-		return this.acceptedSolutions;
+	public Context getContext() {
+		return this.ctx;
 	}
 
 	/**
-	 * Gets the current solution.
+	 * Gets the current solution, as the problem describes it.
 	 *
 	 * @return the current solution
 	 */
 	public String getCurrentSolution() {
-		return this.currentSolution;
+		return this.problem.describe(this.currentState);
 	}
 
 	/**
-	 * Gets the fitness object over time.
+	 * Gets the number of events of the last run that listeners never heard of,
+	 * because they fell too far behind.
 	 *
-	 * @return the fitness object over time
+	 * @return the dropped events
 	 */
-	public LinkedHashMap<Integer, Fitness> getFitnessObjectOverTime() {
-		return this.fitnessObjectOverTime;
+	public long getDroppedEvents() {
+		return this.droppedEvents;
 	}
 
 	/**
-	 * Gets the fitness over time.
+	 * Gets the elapsed wall time of the last run.
 	 *
-	 * @return the fitness over time
+	 * @return the elapsed time in nanoseconds
 	 */
-	public List<Double> getFitnessOverTime() {
-		return this.fitnesses;
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
 	}
 
 	/**
-	 * Go.
+	 * Gets the fitness of the best solution of the last run.
+	 *
+	 * @return the final fitness
 	 */
-	public void go() {
+	public double getFinalFitness() {
+		return this.finalFitness;
+	}
+
+	/**
+	 * Gets the fitness of the current solution.
+	 *
+	 * @return the fitness
+	 */
+	double getFitness() {
+		return this.problem.getFitness(this.currentState);
+	}
+
+	/**
+	 * Gets the best solution so far. Can be called from any thread, at any time.
+	 * While the run goes on, a better solution is published at most every 10 ms,
+	 * and whenever {@link #annealFor(CancellationToken, long)} returns, so can be
+	 * a little behind the run.
+	 *
+	 * @return the incumbent, or null if the run has not started yet
+	 */
+	public Incumbent<S> getIncumbent() {
+		return this.incumbent;
+	}
 
-		// analytical vars
-		double prevFitness = 0.0;
-		double currFitness = 0.0;
-		double bestFitness = 0.0;
+	/**
+	 * Gets the random initial state of the last run. Must not be changed.
+	 *
+	 * @return the initial state
+	 */
+	public S getInitialState() {
+		return this.initialState;
+	}
 
-		// sA specific vars
-		this.temperature = this.ctx.getTemperature();
-		this.coolingRate = this.ctx.getCoolingRate();
+	/**
+	 * Gets the iterations of the last run.
+	 *
+	 * @return the iterations
+	 */
+	public long getIterations() {
+		return this.iterations;
+	}
 
-		// Initial solution
-		this.setCurrentSolution(this.createRandomString());
-		String previousSolution;
-		final Fitness originalFitness = new Fitness(this.ctx, this.getCurrentSolution());
-		// Store original fitness for output later
-		this.ctx.setOriginalSolutionFitness(originalFitness.getFitnessesPerConstraintWithoutWeightingsApplied());
-		this.ctx.setOriginalSolutionWeightedFitness(originalFitness.getFitnessesPerConstraintWithWeightingsApplied());
+	/**
+	 * Gets the operator selector of the last run, with how often each operator
+	 * was picked and accepted.
+	 *
+	 * @return the operator selector, or null if the problem's own move was used
+	 */
+	public OperatorSelector<S, M> getOperatorSelector() {
+		return this.operatorSelector;
+	}
 
-		if (this.ctx.isVerbose()) {
-			System.out.println("\nInitial attempt:\n" + this.getCurrentSolution());
-			System.out.println("Actual solution is:\n" + this.ctx.getProblem());
-			System.out.println("Initial fitness is: " + originalFitness.getOverallFitness());
-		}
+	/**
+	 * Gets the problem.
+	 *
+	 * @return the problem
+	 */
+	public Problem<S, M> getProblem() {
+		return this.problem;
+	}
 
-		int iterations = 0;
+	/**
+	 * Gets the temperature.
+	 *
+	 * @return the temperature
+	 */
+	double getTemperature() {
+		return this.temperature;
+	}
 
-		while (this.temperature > 0.00001 && currFitness != 1) {
-			// Save previous solution in case we revert.
-			// remember strings are immutable, so this is fine.
-			previousSolution = this.getCurrentSolution();
+	/**
+	 * Gets the trace of the last run.
+	 *
+	 * @return the trace
+	 */
+	public TraceRecorder getTrace() {
+		return this.trace;
+	}
 
-			// change a random character in the String.
-			this.setCurrentSolution(this.mutateString(this.getCurrentSolution()));
+	/**
+	 * Go.
+	 */
+	public void go() {
+		this.go(new CancellationToken());
+	}
 
-			// analyze new state
-			final Fitness fitness = new Fitness(this.ctx, this.getCurrentSolution());
+	/**
+	 * Go, stopping early if the token is cancelled. The token is looked at as
+	 * often as the wall time is, so a cancelled run stops within 256 iterations.
+	 *
+	 * @param token
+	 *            the token
+	 */
+	public void go(final CancellationToken token) {
+		try {
+			this.initialise();
+			this.anneal(token);
+		}
+		finally {
+			this.endAnnealing();
+		}
+	}
 
-			this.getFitnessObjectOverTime().put(iterations, fitness);
+	/**
+	 * Initialise. Creates the random initial state, resets everything recorded
+	 * about the run and sets the starting temperature.
+	 */
+	void initialise() {
+		this.schedule = this.ctx.getCoolingSchedule();
+		this.startNanos = System.nanoTime();
+		this.elapsedNanos = 0;
 
-			// new fitness value
-			currFitness = fitness.getOverallFitness();
-			// overall fitness over time saved for analytics
-			this.fitnesses.add(currFitness);
+		// Initial solution
+		this.currentState = this.problem.createInitialState(this.function.getRandom());
+		// Store original for output later
+		this.initialState = this.problem.copy(this.currentState, this.initialState);
+		this.iterations = 0;
+
+		this.prepare();
+		this.setTemperature(this.schedule.getStartingTemperature());
+		final double initialFitness = this.problem.getFitness(this.currentState);
+		if (this.events != null) {
+			this.events.put(AnnealingEvent.Type.START, 0, this.temperature, initialFitness, this.currentState);
+		}
+		this.startFlight();
+		this.candidateFitness = 0.0;
+		this.bestFitness = initialFitness;
+		this.snapshotBest(0);
+		this.publishIncumbent();
+	}
 
-			// decide to keep or not, depending on runtime.
-			final double acceptanceProbability = this.acceptanceProbability(prevFitness, currFitness);
+	/**
+	 * Prepare. Sets up the acceptance table, the operators, the trace, the events,
+	 * the monitor and the batch buffers around the current state. The iterations
+	 * and elapsed time should already be those the run starts from.
+	 */
+	private void prepare() {
+		final double fitnessQuantum = this.problem.getFitnessQuantum(this.currentState);
+		this.acceptanceTable = Double.isNaN(fitnessQuantum) ? null : new AcceptanceTable(fitnessQuantum, this.problem.getMaximumFitness());
+		this.operatorSelector = OperatorSelector.create(this.problem.getOperators(), this.ctx.getOperators());
 
-			// accept change
-			if (acceptanceProbability > this.function.getRandom().nextDouble()) {
-				if (this.ctx.isVerbose()) {
-					System.out.println(this.getCurrentSolution());
-				}
+		this.trace = new TraceRecorder(this.ctx.getTracePolicy(), this.schedule.getExpectedIterations(), this.problem.getConstraintNames());
+		this.problem.traceInitialState(this.currentState, this.trace);
 
-				// store each improved solution
-				this.acceptedSolutions.add(this.getCurrentSolution());
+		// events only cost anything if someone is listening
+		if (this.events != null) {
+			this.events.close();
+		}
+		this.droppedEvents = 0;
+		final List<AnnealingListener> listeners = new ArrayList<>(this.ctx.getListeners());
+		if (this.ctx.isVerbose()) {
+			listeners.add(new VerboseListener());
+		}
+		this.events = listeners.isEmpty() ? null : new EventDispatcher<>(this, this.problem.getSize(this.currentState), listeners);
 
-				// set previous to current, as we accept this change.
-				prevFitness = currFitness;
-				previousSolution = this.getCurrentSolution();
+		if (this.monitor != null) {
+			this.monitor.unregister();
+		}
+		this.acceptedMoves = 0;
+		this.monitor = null;
+		if (this.ctx.isMonitored()) {
+			this.monitor = new AnnealingMonitor(this.schedule, this.iterations, this.elapsedNanos);
+			this.monitor.register();
+		}
 
-				// if best found yet, save it!
-				if (currFitness > bestFitness) {
-					bestFitness = currFitness;
-				}
+		this.batchPolicy = this.ctx.getBatchPolicy();
+		final int batchSize = this.batchPolicy.getSize();
+		if (this.batchMoves == null || this.batchMoves.size() != batchSize) {
+			this.batchFitnesses = new double[batchSize];
+			this.batchOperators = new int[batchSize];
+			this.batchMoves = new ArrayList<>(batchSize);
+			for (int k = 0; k < batchSize; k++) {
+				this.batchMoves.add(this.problem.createMove());
 			}
+		}
+	}
 
-			// reject change
-			else {
-				this.setCurrentSolution(previousSolution);
-			}
+	/**
+	 * Publish incumbent. Replaces the incumbent with a copy of the best state, if
+	 * that has improved since it was last published.
+	 */
+	private void publishIncumbent() {
+		if (this.incumbentStale) {
+			this.incumbent = new Incumbent<>(this.problem, this.problem.copy(this.bestState, null), this.bestFitness, this.bestIteration);
+			this.incumbentNanos = this.elapsedNanos;
+			this.incumbentStale = false;
+		}
+	}
+
+	/**
+	 * Publish metrics to the monitor.
+	 */
+	private void publishMetrics() {
+		this.monitor.publish(this.iterations, this.acceptedMoves, this.temperature, this.problem.getFitness(this.currentState), this.bestFitness,
+				this.elapsedNanos);
+	}
 
-			// cool simulated annealing
-			this.coolSystem();
-			iterations++;
+	/**
+	 * Resume. Carries on a run from a checkpoint, as if it had never stopped. The
+	 * context should have the settings the run was started with. A run picking
+	 * between operators starts learning which pay off afresh, so does not go on
+	 * exactly as it would have.
+	 *
+	 * @param checkpoint
+	 *            the checkpoint
+	 */
+	public void resume(final Checkpoint checkpoint) {
+		this.resume(checkpoint, new CancellationToken());
+	}
 
+	/**
+	 * Resume, stopping early if the token is cancelled.
+	 *
+	 * @param checkpoint
+	 *            the checkpoint
+	 * @param token
+	 *            the token
+	 */
+	public void resume(final Checkpoint checkpoint, final CancellationToken token) {
+		if (checkpoint.getProblemHash() != this.problem.getFingerprint()) {
+			throw new IllegalArgumentException("The checkpoint is of a different problem");
 		}
-		String recommendation = "";
-		if (bestFitness != 1.0) {
-			recommendation = ". It is recommended to run for more iterations to get the correct answer.";
+		if (!(this.function.getRandom() instanceof XoroshiroRandom)) {
+			throw new IllegalStateException("The random source of this run cannot be restored");
 		}
-		if (this.ctx.isVerbose()) {
-			System.out.println("\nAfter " + iterations + " iterations, this solution was produced (solution directly below for comparison):");
-			System.out.println(this.getCurrentSolution());
-			System.out.println(this.ctx.getProblem());
-			System.out.println("Best fitness: " + bestFitness + recommendation + "\n");
+		((XoroshiroRandom) this.function.getRandom()).setState(checkpoint.getRandomState());
+
+		try {
+			this.schedule = this.ctx.getCoolingSchedule();
+			this.elapsedNanos = checkpoint.getElapsedNanos();
+			this.startNanos = System.nanoTime() - this.elapsedNanos;
+
+			this.initialState = this.problem.copy(this.problem.fromBytes(checkpoint.getInitialSolution()), this.initialState);
+			this.currentState = this.problem.fromBytes(checkpoint.getCurrentSolution());
+			this.iterations = checkpoint.getIterations();
+
+			this.prepare();
+			this.candidateFitness = checkpoint.getCandidateFitness();
+			this.bestState = this.problem.copy(this.problem.fromBytes(checkpoint.getBestSolution()), this.bestState);
+			this.bestFitness = checkpoint.getBestFitness();
+			this.bestIteration = checkpoint.getBestIteration();
+			this.incumbentStale = true;
+			this.publishIncumbent();
+			this.setTemperature(checkpoint.getTemperature());
+
+			if (this.events != null) {
+				this.events.put(AnnealingEvent.Type.START, this.iterations, this.temperature, this.problem.getFitness(this.currentState),
+						this.currentState);
+			}
+			this.startFlight();
+
+			this.anneal(token);
+		}
+		finally {
+			this.endAnnealing();
 		}
 	}
 
 	/**
-	 * Mutate string.
+	 * Sets the current state, e.g. to one brought over from another run, once
+	 * the run has started. The state given is copied, not kept.
 	 *
-	 * @param currentSolution
-	 *            the current solution
-	 * @return the string
+	 * @param state
+	 *            the new current state
 	 */
-	private String mutateString(final String currentSolution) {
-		// probably easiest way to mutate string is like this, without importing any
-		// libraries to allow a regex-ish generator.
+	public void setCurrentState(final S state) {
+		this.currentState = this.problem.copy(state, this.currentState);
+		final double fitness = this.problem.getFitness(this.currentState);
+		if (fitness > this.bestFitness) {
+			this.bestFitness = fitness;
+			this.snapshotBest(this.iterations);
+		}
+	}
 
-		// can create string with any of these following characters
-		final String potentials = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ1234567890-";
+	/**
+	 * Sets the temperature, e.g. for a replica held at a fixed temperature.
+	 *
+	 * @param temperature
+	 *            the new temperature
+	 */
+	void setTemperature(final double temperature) {
+		this.temperature = temperature;
+		if (this.acceptanceTable != null) {
+			this.acceptanceTable.setTemperature(temperature);
+		}
+	}
 
-		// builder used to modify string
-		final StringBuilder builder = new StringBuilder(currentSolution);
+	/**
+	 * Snapshot best. Copies the current state into the best state. The incumbent
+	 * is published from it later, see {@link #publishIncumbent()}.
+	 *
+	 * @param iteration
+	 *            the iteration it was found at
+	 */
+	private void snapshotBest(final long iteration) {
+		this.bestState = this.problem.copy(this.currentState, this.bestState);
+		this.bestIteration = iteration;
+		this.incumbentStale = true;
+		if (this.events != null) {
+			this.events.offer(AnnealingEvent.Type.IMPROVE, iteration, this.temperature, this.bestFitness, this.bestState);
+		}
+		FlightEvents.improved(iteration, this.bestFitness, this.temperature);
+	}
 
-		// character at a random point in the string is modified with a random character
-		// from the potentials
-		builder.setCharAt(this.function.getRandom().nextInt(currentSolution.length()),
-				potentials.charAt(this.function.getRandom().nextInt(potentials.length())));
-		return builder.toString();
+	/**
+	 * Start flight. Records the start of the run with the flight recorder, if it
+	 * is recording annealing runs.
+	 */
+	private void startFlight() {
+		this.flightProgressNanos = this.elapsedNanos;
+		this.flightRun = FlightEvents.runStarted(this.schedule, this.ctx.getSeed(), this.temperature, this.batchPolicy.getSize(),
+				this.problem.getSize(this.currentState), this.iterations);
 	}
 
 	/**
-	 * Sets the current solution.
+	 * Step. Proposes a single move at the current temperature, and makes it or
+	 * not. Does not cool the system.
 	 *
-	 * @param currentSolution
-	 *            the new current solution
+	 * @return true, if the move was accepted
 	 */
-	public void setCurrentSolution(final String currentSolution) {
-		this.currentSolution = currentSolution;
+	boolean step() {
+		final RandomSource random = this.function.getRandom();
+		final int operator = this.operatorSelector == null ? -1 : this.operatorSelector.select(random);
+		final long stepStart = operator >= 0 && this.operatorSelector.isTimed() ? System.nanoTime() : -1;
+		if (operator < 0) {
+			this.problem.proposeMove(this.currentState, this.move, random);
+		}
+		else {
+			this.operatorSelector.getOperator(operator).propose(this.currentState, this.move, random);
+		}
+
+		// analyze new state
+		this.candidateFitness = this.problem.evaluateMove(this.currentState, this.move);
+
+		// decide to keep or not, depending on runtime.
+		final double currentFitness = this.problem.getFitness(this.currentState);
+		final double acceptanceProbability = this.acceptanceProbability(currentFitness, this.candidateFitness);
+		final boolean accepted = acceptanceProbability > random.nextDouble();
+
+		// fitness over time saved for analytics, accepted moves can be replayed later
+		this.trace.record(this.iterations, this.temperature, this.candidateFitness, accepted, this.problem, this.currentState);
+
+		// accept change
+		if (accepted) {
+			if (this.trace.isReplayable()) {
+				this.problem.traceMove(this.move, this.trace);
+			}
+			// current fitness moves on, as we accept this change.
+			this.problem.apply(this.currentState, this.move);
+			this.acceptedMoves++;
+			if (this.events != null) {
+				this.events.offer(AnnealingEvent.Type.ACCEPT, this.iterations, this.temperature, this.candidateFitness, this.currentState);
+			}
+
+			// if best found yet, save it!
+			if (this.candidateFitness > this.bestFitness) {
+				this.bestFitness = this.candidateFitness;
+				this.snapshotBest(this.iterations);
+			}
+		}
+
+		// operators that get the run further are picked more
+		if (operator >= 0) {
+			final double improvement = accepted ? SimulatedAnnealing.energyCost(currentFitness) - SimulatedAnnealing.energyCost(this.candidateFitness) : 0;
+			this.operatorSelector.reward(operator, accepted, improvement, stepStart < 0 ? -1 : System.nanoTime() - stepStart);
+		}
+		this.iterations++;
+		return accepted;
 	}
 
 	/**
-	 * Sets the fitness object over time.
+	 * Step batch. Proposes a batch of moves, each against the current state,
+	 * scores them together, and makes at most one of them as the batch policy
+	 * says. Counts as one iteration per proposal. Does not cool the system.
 	 *
-	 * @param fitnessObjectOverTime
-	 *            the fitness object over time
+	 * @return true, if a move was accepted
+	 */
+	boolean stepBatch() {
+		final RandomSource random = this.function.getRandom();
+		final int batchSize = this.batchMoves.size();
+		final long batchStart = this.operatorSelector != null && this.operatorSelector.isTimed() ? System.nanoTime() : -1;
+		for (int k = 0; k < batchSize; k++) {
+			if (this.operatorSelector == null) {
+				this.problem.proposeMove(this.currentState, this.batchMoves.get(k), random);
+			}
+			else {
+				this.batchOperators[k] = this.operatorSelector.select(random);
+				this.operatorSelector.getOperator(this.batchOperators[k]).propose(this.currentState, this.batchMoves.get(k), random);
+			}
+		}
+		this.problem.evaluateMoves(this.currentState, this.batchMoves, batchSize, this.batchFitnesses);
+
+		// pick the move to keep, if any
+		final double currentFitness = this.problem.getFitness(this.currentState);
+		int chosen = -1;
+		for (int k = 0; k < batchSize; k++) {
+			final double acceptanceProbability = this.acceptanceProbability(currentFitness, this.batchFitnesses[k]);
+			if (acceptanceProbability > random.nextDouble()) {
+				if (this.batchPolicy.getSelection() == BatchPolicy.Selection.FIRST_ACCEPTED) {
+					chosen = k;
+					break;
+				}
+				if (chosen == -1 || this.batchFitnesses[k] > this.batchFitnesses[chosen]) {
+					chosen = k;
+				}
+			}
+		}
+
+		// every proposal goes in the trace, in order, so accepted moves still replay
+		for (int k = 0; k < batchSize; k++) {
+			this.problem.selectMove(this.currentState, k);
+			this.trace.record(this.iterations + k, this.temperature, this.batchFitnesses[k], k == chosen, this.problem, this.currentState);
+			if (k == chosen && this.trace.isReplayable()) {
+				this.problem.traceMove(this.batchMoves.get(k), this.trace);
+			}
+		}
+		this.iterations += batchSize;
+
+		// the proposals share the time of the batch
+		if (this.operatorSelector != null) {
+			final long nanos = batchStart < 0 ? -1 : (System.nanoTime() - batchStart) / batchSize;
+			for (int k = 0; k < batchSize; k++) {
+				final double improvement = k == chosen ? SimulatedAnnealing.energyCost(currentFitness) - SimulatedAnnealing.energyCost(this.batchFitnesses[k]) : 0;
+				this.operatorSelector.reward(this.batchOperators[k], k == chosen, improvement, nanos);
+			}
+		}
+
+		if (chosen == -1) {
+			this.candidateFitness = this.batchFitnesses[batchSize - 1];
+			return false;
+		}
+		this.candidateFitness = this.batchFitnesses[chosen];
+		this.problem.apply(this.currentState, this.batchMoves.get(chosen));
+		this.acceptedMoves++;
+		if (this.events != null) {
+			this.events.offer(AnnealingEvent.Type.ACCEPT, this.iterations - batchSize + chosen, this.temperature, this.candidateFitness,
+					this.currentState);
+		}
+		if (this.candidateFitness > this.bestFitness) {
+			this.bestFitness = this.candidateFitness;
+			this.snapshotBest(this.iterations - batchSize + chosen);
+		}
+		return true;
+	}
+
+	/**
+	 * Write checkpoint. A checkpoint that cannot be written is reported and the
+	 * run goes on.
 	 */
-	public void setFitnessObjectOverTime(final LinkedHashMap<Integer, Fitness> fitnessObjectOverTime) {
-		this.fitnessObjectOverTime = fitnessObjectOverTime;
+	private void writeCheckpoint() {
+		try {
+			this.checkpoint().write(this.checkpointFile);
+		}
+		catch (final IOException e) {
+			System.err.println(e);
+		}
+		this.checkpointNanos = this.elapsedNanos;
 	}
 
 }
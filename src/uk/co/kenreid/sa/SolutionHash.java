@@ -0,0 +1,94 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import uk.co.kenreid.dataobjects.Target;
+
+/**
+ * The Class SolutionHash. A 64 bit hash of a solution, made by XORing together
+ * one well mixed term per position and character (in the manner of Zobrist
+ * hashing, but with each term worked out rather than kept in a table, so it
+ * costs no memory however long the solution). Changing one character changes
+ * two terms, so the hash of a neighbouring solution is worked out from the
+ * current hash without looking at the rest of the solution.
+ */
+final class SolutionHash {
+
+	/** The golden ratio increment, spreading position and character apart. */
+	private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Of. Hashes a whole solution.
+	 *
+	 * @param solution
+	 *            the solution
+	 * @return the hash
+	 */
+	static long of(final byte[] solution) {
+		long hash = 0;
+		for (int position = 0; position < solution.length; position++) {
+			hash ^= SolutionHash.term(position, solution[position]);
+		}
+		return hash;
+	}
+
+	/**
+	 * Of. Hashes a whole target, as if it were a solution.
+	 *
+	 * @param target
+	 *            the target
+	 * @return the hash
+	 */
+	static long of(final Target target) {
+		long hash = 0;
+		for (int position = 0; position < target.length(); position++) {
+			hash ^= SolutionHash.term(position, target.byteAt(position));
+		}
+		return hash;
+	}
+
+	/**
+	 * Term. The contribution of one character at one position, from the SplitMix64
+	 * finaliser.
+	 *
+	 * @param position
+	 *            the position
+	 * @param character
+	 *            the character
+	 * @return the term
+	 */
+	private static long term(final int position, final byte character) {
+		long z = (((long) position << 8 | character & 0xFF) + 1) * SolutionHash.GOLDEN;
+		z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+		return z ^ z >>> 31;
+	}
+
+	/**
+	 * Update. The hash after one character is changed.
+	 *
+	 * @param hash
+	 *            the hash before the change
+	 * @param position
+	 *            the position
+	 * @param oldChar
+	 *            the old char
+	 * @param newChar
+	 *            the new char
+	 * @return the hash after the change
+	 */
+	static long update(final long hash, final int position, final byte oldChar, final byte newChar) {
+		if (oldChar == newChar) {
+			return hash;
+		}
+		return hash ^ SolutionHash.term(position, oldChar) ^ SolutionHash.term(position, newChar);
+	}
+
+	/**
+	 * Instantiates a new solution hash.
+	 */
+	private SolutionHash() {
+	}
+}
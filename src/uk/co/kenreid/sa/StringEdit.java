@@ -0,0 +1,127 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.Arrays;
+
+/**
+ * The Class StringEdit. A move for {@link StringMatchProblem}: a number of
+ * character changes, each at a different position, made together. A single
+ * substitution is one change, an adjacent swap two, and so on. Mutable, so one
+ * instance is reused for every step.
+ */
+public class StringEdit {
+
+	/** The number of changes. */
+	private int count;
+
+	/** The new character of each change. */
+	private byte[] newChars = new byte[8];
+
+	/** The old character of each change. */
+	private byte[] oldChars = new byte[8];
+
+	/** The position of each change. */
+	private int[] positions = new int[8];
+
+	/**
+	 * Adds a change. Positions must not repeat within an edit.
+	 *
+	 * @param position
+	 *            the position
+	 * @param oldChar
+	 *            the character there now
+	 * @param newChar
+	 *            the character to put there
+	 */
+	public void add(final int position, final byte oldChar, final byte newChar) {
+		if (this.count == this.positions.length) {
+			this.newChars = Arrays.copyOf(this.newChars, this.count * 2);
+			this.oldChars = Arrays.copyOf(this.oldChars, this.count * 2);
+			this.positions = Arrays.copyOf(this.positions, this.count * 2);
+		}
+		this.positions[this.count] = position;
+		this.oldChars[this.count] = oldChar;
+		this.newChars[this.count] = newChar;
+		this.count++;
+	}
+
+	/**
+	 * Clear. Removes every change, ready for the next proposal.
+	 */
+	public void clear() {
+		this.count = 0;
+	}
+
+	/**
+	 * Checks if the edit changes the given position.
+	 *
+	 * @param position
+	 *            the position
+	 * @return true, if it does
+	 */
+	public boolean contains(final int position) {
+		for (int i = 0; i < this.count; i++) {
+			if (this.positions[i] == position) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the number of changes.
+	 *
+	 * @return the count
+	 */
+	public int getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Gets the new char of a change.
+	 *
+	 * @param change
+	 *            the change
+	 * @return the new char
+	 */
+	public byte getNewChar(final int change) {
+		return this.newChars[change];
+	}
+
+	/**
+	 * Gets the old char of a change.
+	 *
+	 * @param change
+	 *            the change
+	 * @return the old char
+	 */
+	public byte getOldChar(final int change) {
+		return this.oldChars[change];
+	}
+
+	/**
+	 * Gets the position of a change.
+	 *
+	 * @param change
+	 *            the change
+	 * @return the position
+	 */
+	public int getPosition(final int change) {
+		return this.positions[change];
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < this.count; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(this.positions[i]).append(": ").append((char) (this.oldChars[i] & 0xff)).append(" -> ").append((char) (this.newChars[i] & 0xff));
+		}
+		return sb.toString();
+	}
+}
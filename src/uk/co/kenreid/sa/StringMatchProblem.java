@@ -0,0 +1,281 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import uk.co.kenreid.dataobjects.Context;
+import uk.co.kenreid.dataobjects.Target;
+import uk.co.kenreid.function.RandomSource;
+
+/**
+ * The Class StringMatchProblem. The passcode problem: guess the target string
+ * one change at a time. Scored as in {@link Fitness}, SC1 (proportion of
+ * matching characters) and SC2 (always 1) weighted from the context, with each
+ * move scored from the positions it changes only by a {@link DeltaFitness}.
+ *
+ * Moves are {@link StringEdit}s. By default a move is a single substitution;
+ * the operators in {@link StringOperators} propose other kinds.
+ */
+public class StringMatchProblem implements Problem<StringMatchProblem.State, StringEdit> {
+
+	/**
+	 * The Class State. A guess, and its fitness. The state being annealed keeps
+	 * a {@link DeltaFitness} to score moves with; a copy, e.g. of the best state,
+	 * only keeps the fitness it had.
+	 */
+	public static final class State {
+
+		/** The scoring of the solution, or null for a copy. */
+		private final DeltaFitness deltaFitness;
+
+		/** The overall fitness of a copy. */
+		private double fitness;
+
+		/** The fitnesses per constraint of a copy. */
+		private final double[] fitnesses;
+
+		/** The solution, one byte per character. Read by the operators. */
+		final byte[] solution;
+
+		/**
+		 * Instantiates a new state.
+		 *
+		 * @param solution
+		 *            the solution
+		 * @param deltaFitness
+		 *            the scoring of the solution, or null for a copy
+		 */
+		State(final byte[] solution, final DeltaFitness deltaFitness) {
+			this.solution = solution;
+			this.deltaFitness = deltaFitness;
+			this.fitnesses = new double[StringMatchProblem.CONSTRAINT_NAMES.length];
+		}
+
+		/**
+		 * Gets the fitness per constraint, without rescanning the solution.
+		 *
+		 * @param ctx
+		 *            the ctx, for the weightings
+		 * @return the fitness
+		 */
+		public Fitness getFitness(final Context ctx) {
+			final double[] constraintFitnesses = this.fitnesses.clone();
+			if (this.deltaFitness != null) {
+				this.deltaFitness.copyFitnesses(constraintFitnesses);
+			}
+			final Map<String, Double> fitnessesPerConstraint = new HashMap<>();
+			for (int i = 0; i < constraintFitnesses.length; i++) {
+				fitnessesPerConstraint.put(StringMatchProblem.CONSTRAINT_NAMES[i], constraintFitnesses[i]);
+			}
+			return new Fitness(ctx, this.getSolution(), fitnessesPerConstraint);
+		}
+
+		/**
+		 * Gets the solution.
+		 *
+		 * @return the solution
+		 */
+		public String getSolution() {
+			return new String(this.solution, StandardCharsets.ISO_8859_1);
+		}
+	}
+
+	/** The constraint names, in the order they are scored. */
+	private static final String[] CONSTRAINT_NAMES = { "SC1", "SC2" };
+
+	/** The characters the initial random solution is made from. */
+	static final byte[] INITIAL_POTENTIALS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".getBytes(StandardCharsets.ISO_8859_1);
+
+	/**
+	 * The characters a mutation can create. Probably easiest way to mutate string
+	 * is like this, without importing any libraries to allow a regex-ish
+	 * generator.
+	 */
+	static final byte[] POTENTIALS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ1234567890-".getBytes(StandardCharsets.ISO_8859_1);
+
+	/** The ctx. */
+	private final Context ctx;
+
+	/** The target. */
+	private final Target target;
+
+	/**
+	 * Instantiates a new string match problem for the context's problem and
+	 * weightings.
+	 *
+	 * @param ctx
+	 *            the ctx
+	 */
+	public StringMatchProblem(final Context ctx) {
+		this.ctx = ctx;
+		this.target = ctx.getTarget();
+	}
+
+	@Override
+	public void apply(final State state, final StringEdit move) {
+		for (int change = 0; change < move.getCount(); change++) {
+			state.solution[move.getPosition(change)] = move.getNewChar(change);
+		}
+		state.deltaFitness.apply(move);
+	}
+
+	@Override
+	public State copy(final State source, final State destination) {
+		final State copy;
+		if (destination == null || destination.solution.length != source.solution.length) {
+			copy = new State(source.solution.clone(), null);
+		}
+		else {
+			copy = destination;
+			System.arraycopy(source.solution, 0, copy.solution, 0, source.solution.length);
+		}
+		if (copy.deltaFitness != null) {
+			copy.deltaFitness.evaluate(copy.solution);
+			return copy;
+		}
+		copy.fitness = this.getFitness(source);
+		if (source.deltaFitness != null) {
+			source.deltaFitness.copyFitnesses(copy.fitnesses);
+		}
+		else {
+			System.arraycopy(source.fitnesses, 0, copy.fitnesses, 0, source.fitnesses.length);
+		}
+		return copy;
+	}
+
+	/**
+	 * Creates the random initial state. Thanks to here for the original code:
+	 * https://www.baeldung.com/java-random-string This can theoretically be used
+	 * for any string input.
+	 *
+	 * @param random
+	 *            the random source
+	 * @return the state
+	 */
+	@Override
+	public State createInitialState(final RandomSource random) {
+		final byte[] solution = new byte[this.target.length()];
+		for (int i = 0; i < solution.length; i++) {
+			solution[i] = StringMatchProblem.INITIAL_POTENTIALS[random.nextInt(StringMatchProblem.INITIAL_POTENTIALS.length)];
+		}
+		return new State(solution, this.score(solution));
+	}
+
+	@Override
+	public StringEdit createMove() {
+		return new StringEdit();
+	}
+
+	@Override
+	public String describe(final State state) {
+		return state.getSolution();
+	}
+
+	@Override
+	public double evaluateMove(final State state, final StringEdit move) {
+		return state.deltaFitness.evaluateEdit(move);
+	}
+
+	@Override
+	public void evaluateMoves(final State state, final List<StringEdit> moves, final int count, final double[] fitnesses) {
+		state.deltaFitness.evaluateEdits(moves, count, fitnesses);
+	}
+
+	@Override
+	public State fromBytes(final byte[] bytes) {
+		if (bytes.length != this.target.length()) {
+			throw new IllegalArgumentException("A solution of " + bytes.length + " characters, for a problem of " + this.target.length());
+		}
+		final byte[] solution = bytes.clone();
+		return new State(solution, this.score(solution));
+	}
+
+	@Override
+	public double getCandidateWeightedFitness(final State state, final int constraintIndex) {
+		return state.deltaFitness.getCandidateWeightedFitness(constraintIndex);
+	}
+
+	@Override
+	public String[] getConstraintNames() {
+		return StringMatchProblem.CONSTRAINT_NAMES.clone();
+	}
+
+	@Override
+	public long getFingerprint() {
+		return SolutionHash.of(this.target);
+	}
+
+	@Override
+	public double getFitness(final State state) {
+		return state.deltaFitness == null ? state.fitness : state.deltaFitness.getOverallFitness();
+	}
+
+	@Override
+	public double getFitnessQuantum(final State state) {
+		return state.deltaFitness.getFitnessQuantum();
+	}
+
+	@Override
+	public double getMaximumFitness() {
+		double sum = 0;
+		for (final String constraintName : StringMatchProblem.CONSTRAINT_NAMES) {
+			sum += this.ctx.getWeightingsPerConstraint().get(constraintName);
+		}
+		return sum;
+	}
+
+	@Override
+	public List<MoveOperator<State, StringEdit>> getOperators() {
+		return StringOperators.all();
+	}
+
+	@Override
+	public int getSize(final State state) {
+		return state.solution.length;
+	}
+
+	@Override
+	public void proposeMove(final State state, final StringEdit move, final RandomSource random) {
+		StringOperators.substitution().propose(state, move, random);
+	}
+
+	/**
+	 * Score. Sets up the scoring of a solution about to be annealed.
+	 *
+	 * @param solution
+	 *            the solution
+	 * @return the delta fitness
+	 */
+	private DeltaFitness score(final byte[] solution) {
+		return new DeltaFitness(this.ctx, solution, new CharacterMatchConstraint(StringMatchProblem.CONSTRAINT_NAMES[0], this.target),
+				new ConstantConstraint(StringMatchProblem.CONSTRAINT_NAMES[1], 1));
+	}
+
+	@Override
+	public void selectMove(final State state, final int move) {
+		state.deltaFitness.selectMove(move);
+	}
+
+	@Override
+	public byte[] toBytes(final State state) {
+		return state.solution.clone();
+	}
+
+	@Override
+	public void traceInitialState(final State state, final TraceRecorder trace) {
+		trace.setInitialSolution(state.solution);
+	}
+
+	@Override
+	public void traceMove(final StringEdit move, final TraceRecorder trace) {
+		for (int change = 0; change < move.getCount(); change++) {
+			trace.recordChange(move.getPosition(change), move.getNewChar(change));
+		}
+	}
+}
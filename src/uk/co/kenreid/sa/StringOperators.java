@@ -0,0 +1,279 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.util.Arrays;
+import java.util.List;
+
+import uk.co.kenreid.function.RandomSource;
+
+/**
+ * The Class StringOperators. Move operators for {@link StringMatchProblem}. The
+ * single substitution is the move the engine has always made; the others make
+ * bigger or more structured changes, which pay off when the target has
+ * structure, e.g. the repeated "-" delimiters of the passcode, or a run of
+ * characters that is right but out of place. Lengths of blocks and segments,
+ * and numbers of points, favour the short end.
+ */
+public final class StringOperators {
+
+	/**
+	 * The Class AdjacentSwap. Swaps two neighbouring characters.
+	 */
+	private static class AdjacentSwap implements MoveOperator<StringMatchProblem.State, StringEdit> {
+
+		@Override
+		public String getName() {
+			return "adjacent swap";
+		}
+
+		@Override
+		public void propose(final StringMatchProblem.State state, final StringEdit move, final RandomSource random) {
+			final byte[] solution = state.solution;
+			if (solution.length < 2) {
+				StringOperators.SUBSTITUTION.propose(state, move, random);
+				return;
+			}
+			final int position = random.nextInt(solution.length - 1);
+			move.clear();
+			move.add(position, solution[position], solution[position + 1]);
+			move.add(position + 1, solution[position + 1], solution[position]);
+		}
+	}
+
+	/**
+	 * The Class BlockShift. Rotates a block of characters one place left or
+	 * right.
+	 */
+	private static class BlockShift implements MoveOperator<StringMatchProblem.State, StringEdit> {
+
+		/** The maximum length of block. */
+		private final int maximumLength;
+
+		/**
+		 * Instantiates a new block shift.
+		 *
+		 * @param maximumLength
+		 *            the maximum length of block
+		 */
+		BlockShift(final int maximumLength) {
+			this.maximumLength = maximumLength;
+		}
+
+		@Override
+		public String getName() {
+			return "block shift";
+		}
+
+		@Override
+		public void propose(final StringMatchProblem.State state, final StringEdit move, final RandomSource random) {
+			final byte[] solution = state.solution;
+			final int longest = Math.min(this.maximumLength, solution.length);
+			if (longest < 2) {
+				StringOperators.SUBSTITUTION.propose(state, move, random);
+				return;
+			}
+			final int length = StringOperators.shortBiasedLength(2, longest, random);
+			final int start = random.nextInt(solution.length - length + 1);
+			final int shift = random.nextInt(2) == 0 ? 1 : length - 1;
+			move.clear();
+			for (int i = 0; i < length; i++) {
+				move.add(start + i, solution[start + i], solution[start + (i + shift) % length]);
+			}
+		}
+	}
+
+	/**
+	 * The Class MultiPointSubstitution. Substitutes several characters at once,
+	 * anywhere in the string.
+	 */
+	private static class MultiPointSubstitution implements MoveOperator<StringMatchProblem.State, StringEdit> {
+
+		/** The maximum number of points. */
+		private final int maximumPoints;
+
+		/**
+		 * Instantiates a new multi point substitution.
+		 *
+		 * @param maximumPoints
+		 *            the maximum number of points
+		 */
+		MultiPointSubstitution(final int maximumPoints) {
+			this.maximumPoints = maximumPoints;
+		}
+
+		@Override
+		public String getName() {
+			return "multi-point substitution";
+		}
+
+		@Override
+		public void propose(final StringMatchProblem.State state, final StringEdit move, final RandomSource random) {
+			final byte[] solution = state.solution;
+			final int most = Math.min(this.maximumPoints, solution.length);
+			if (most < 2) {
+				StringOperators.SUBSTITUTION.propose(state, move, random);
+				return;
+			}
+			final int points = StringOperators.shortBiasedLength(2, most, random);
+			move.clear();
+			for (int point = 0; point < points; point++) {
+				int position;
+				do {
+					position = random.nextInt(solution.length);
+				}
+				while (move.contains(position));
+				move.add(position, solution[position], StringMatchProblem.POTENTIALS[random.nextInt(StringMatchProblem.POTENTIALS.length)]);
+			}
+		}
+	}
+
+	/**
+	 * The Class SegmentCopy. Copies a run of characters from one place over
+	 * another.
+	 */
+	private static class SegmentCopy implements MoveOperator<StringMatchProblem.State, StringEdit> {
+
+		/** The maximum length of segment. */
+		private final int maximumLength;
+
+		/**
+		 * Instantiates a new segment copy.
+		 *
+		 * @param maximumLength
+		 *            the maximum length of segment
+		 */
+		SegmentCopy(final int maximumLength) {
+			this.maximumLength = maximumLength;
+		}
+
+		@Override
+		public String getName() {
+			return "segment copy";
+		}
+
+		@Override
+		public void propose(final StringMatchProblem.State state, final StringEdit move, final RandomSource random) {
+			final byte[] solution = state.solution;
+			final int length = StringOperators.shortBiasedLength(1, Math.min(this.maximumLength, solution.length), random);
+			final int from = random.nextInt(solution.length - length + 1);
+			final int to = random.nextInt(solution.length - length + 1);
+			move.clear();
+			for (int i = 0; i < length; i++) {
+				move.add(to + i, solution[to + i], solution[from + i]);
+			}
+		}
+	}
+
+	/**
+	 * The Class Substitution. Replaces one character with a random one.
+	 */
+	private static class Substitution implements MoveOperator<StringMatchProblem.State, StringEdit> {
+
+		@Override
+		public String getName() {
+			return "substitution";
+		}
+
+		@Override
+		public void propose(final StringMatchProblem.State state, final StringEdit move, final RandomSource random) {
+			final int position = random.nextInt(state.solution.length);
+			final byte newChar = StringMatchProblem.POTENTIALS[random.nextInt(StringMatchProblem.POTENTIALS.length)];
+			move.clear();
+			move.add(position, state.solution[position], newChar);
+		}
+	}
+
+	/** The default maximum length of a block or segment, or number of points. */
+	public static final int DEFAULT_MAXIMUM_LENGTH = 8;
+
+	/** The single substitution. Holds no state, so is shared. */
+	private static final Substitution SUBSTITUTION = new Substitution();
+
+	/**
+	 * Adjacent swap.
+	 *
+	 * @return the move operator
+	 */
+	public static MoveOperator<StringMatchProblem.State, StringEdit> adjacentSwap() {
+		return new AdjacentSwap();
+	}
+
+	/**
+	 * All five operators, with the default maximum lengths.
+	 *
+	 * @return the move operators
+	 */
+	public static List<MoveOperator<StringMatchProblem.State, StringEdit>> all() {
+		return Arrays.asList(StringOperators.substitution(), StringOperators.adjacentSwap(), StringOperators.blockShift(StringOperators.DEFAULT_MAXIMUM_LENGTH),
+				StringOperators.multiPointSubstitution(StringOperators.DEFAULT_MAXIMUM_LENGTH), StringOperators.segmentCopy(StringOperators.DEFAULT_MAXIMUM_LENGTH));
+	}
+
+	/**
+	 * Block shift.
+	 *
+	 * @param maximumLength
+	 *            the maximum length of block
+	 * @return the move operator
+	 */
+	public static MoveOperator<StringMatchProblem.State, StringEdit> blockShift(final int maximumLength) {
+		return new BlockShift(maximumLength);
+	}
+
+	/**
+	 * Multi point substitution.
+	 *
+	 * @param maximumPoints
+	 *            the maximum number of points
+	 * @return the move operator
+	 */
+	public static MoveOperator<StringMatchProblem.State, StringEdit> multiPointSubstitution(final int maximumPoints) {
+		return new MultiPointSubstitution(maximumPoints);
+	}
+
+	/**
+	 * Segment copy.
+	 *
+	 * @param maximumLength
+	 *            the maximum length of segment
+	 * @return the move operator
+	 */
+	public static MoveOperator<StringMatchProblem.State, StringEdit> segmentCopy(final int maximumLength) {
+		return new SegmentCopy(maximumLength);
+	}
+
+	/**
+	 * Short biased length. A length from minimum up, each one half as likely as
+	 * the one before, capped at the maximum. Small edits are the ones that get
+	 * accepted once the solution is mostly right, so they are tried most.
+	 *
+	 * @param minimum
+	 *            the minimum
+	 * @param maximum
+	 *            the maximum
+	 * @param random
+	 *            the random source
+	 * @return the length
+	 */
+	private static int shortBiasedLength(final int minimum, final int maximum, final RandomSource random) {
+		final int extra = Long.numberOfTrailingZeros(random.nextLong() | 1L << 62);
+		return Math.min(maximum, minimum + extra);
+	}
+
+	/**
+	 * Substitution.
+	 *
+	 * @return the move operator
+	 */
+	public static MoveOperator<StringMatchProblem.State, StringEdit> substitution() {
+		return StringOperators.SUBSTITUTION;
+	}
+
+	/**
+	 * Instantiates a new string operators.
+	 */
+	private StringOperators() {
+	}
+}
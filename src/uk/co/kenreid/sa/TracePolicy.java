@@ -0,0 +1,266 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Class TracePolicy. Decides which iterations a {@link TraceRecorder} keeps:
+ * all of them, every Nth, the most recent N (ring buffer), or none.
+ *
+ * A trace that keeps all or every Nth iteration is still bounded: once it holds
+ * its most rows, it thins itself to every other row it has and from then on
+ * keeps half as many iterations, as often as it needs to. A trace that has
+ * thinned is no longer complete.
+ */
+public final class TracePolicy {
+
+	/**
+	 * The Enum Retention.
+	 */
+	public enum Retention {
+
+		/** Every iteration. */
+		FULL,
+
+		/** Every Nth iteration. */
+		EVERY_NTH,
+
+		/** The most recent N iterations. */
+		RING,
+
+		/** Nothing. */
+		OFF
+	}
+
+	/**
+	 * The default most rows of a trace that grows, four times the most
+	 * preallocated: about 10 MB with the two constraints of the passcode, and
+	 * enough for a whole default run.
+	 */
+	public static final int DEFAULT_MAXIMUM_ROWS = 1 << 18;
+
+	/**
+	 * The most rows preallocated for a trace that grows. A long run's trace grows
+	 * as it goes, rather than taking all its memory up front for a run that may
+	 * stop early.
+	 */
+	private static final int MAXIMUM_PREALLOCATION = 1 << 16;
+
+	/**
+	 * Check maximum rows.
+	 *
+	 * @param maximumRows
+	 *            the most rows
+	 * @return the most rows, if at least 2
+	 */
+	private static int checkMaximumRows(final int maximumRows) {
+		if (maximumRows < 2) {
+			throw new IllegalArgumentException("maximumRows must be at least 2, was " + maximumRows);
+		}
+		return maximumRows;
+	}
+
+	/**
+	 * Creates a policy by name, as given in the parameter file: full, full M,
+	 * every N, every N M, ring N or off, where M is the most rows kept.
+	 *
+	 * @param name
+	 *            the name, or null or blank for full
+	 * @return the trace policy
+	 */
+	public static TracePolicy create(final String name) {
+		final String[] words = name == null ? new String[0] : name.trim().toLowerCase().split("\\s+");
+		if (words.length == 0 || words[0].isEmpty()) {
+			return TracePolicy.full();
+		}
+		try {
+			switch (words[0]) {
+			case "full":
+				if (words.length <= 2) {
+					return words.length == 1 ? TracePolicy.full() : TracePolicy.full(Integer.parseInt(words[1]));
+				}
+				break;
+			case "every":
+				if (words.length == 2 || words.length == 3) {
+					return TracePolicy.everyNth(Integer.parseInt(words[1]),
+							words.length == 2 ? TracePolicy.DEFAULT_MAXIMUM_ROWS : Integer.parseInt(words[2]));
+				}
+				break;
+			case "ring":
+				if (words.length == 2) {
+					return TracePolicy.ring(Integer.parseInt(words[1]));
+				}
+				break;
+			case "off":
+				if (words.length == 1) {
+					return TracePolicy.off();
+				}
+				break;
+			default:
+				break;
+			}
+		}
+		catch (final NumberFormatException e) {
+			throw new IllegalArgumentException("Unknown trace policy: " + name, e);
+		}
+		throw new IllegalArgumentException("Unknown trace policy: " + name);
+	}
+
+	/**
+	 * Every nth, keeping at most the default number of rows.
+	 *
+	 * @param n
+	 *            keep iterations 0, n, 2n...
+	 * @return the trace policy
+	 */
+	public static TracePolicy everyNth(final int n) {
+		return TracePolicy.everyNth(n, TracePolicy.DEFAULT_MAXIMUM_ROWS);
+	}
+
+	/**
+	 * Every nth.
+	 *
+	 * @param n
+	 *            keep iterations 0, n, 2n...
+	 * @param maximumRows
+	 *            the most rows kept, before the trace thins
+	 * @return the trace policy
+	 */
+	public static TracePolicy everyNth(final int n, final int maximumRows) {
+		if (n < 1) {
+			throw new IllegalArgumentException("n must be at least 1, was " + n);
+		}
+		return new TracePolicy(Retention.EVERY_NTH, n, TracePolicy.checkMaximumRows(maximumRows));
+	}
+
+	/**
+	 * Full, keeping at most the default number of rows.
+	 *
+	 * @return the trace policy
+	 */
+	public static TracePolicy full() {
+		return TracePolicy.full(TracePolicy.DEFAULT_MAXIMUM_ROWS);
+	}
+
+	/**
+	 * Full.
+	 *
+	 * @param maximumRows
+	 *            the most rows kept, before the trace thins
+	 * @return the trace policy
+	 */
+	public static TracePolicy full(final int maximumRows) {
+		return new TracePolicy(Retention.FULL, 1, TracePolicy.checkMaximumRows(maximumRows));
+	}
+
+	/**
+	 * Off.
+	 *
+	 * @return the trace policy
+	 */
+	public static TracePolicy off() {
+		return new TracePolicy(Retention.OFF, 0, 0);
+	}
+
+	/**
+	 * Ring.
+	 *
+	 * @param capacity
+	 *            the number of most recent iterations to keep
+	 * @return the trace policy
+	 */
+	public static TracePolicy ring(final int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be at least 1, was " + capacity);
+		}
+		return new TracePolicy(Retention.RING, capacity, capacity);
+	}
+
+	/** The most rows kept. */
+	private final int maximumRows;
+
+	/** The parameter: N for every-Nth, the capacity for a ring. */
+	private final int parameter;
+
+	/** The retention. */
+	private final Retention retention;
+
+	/**
+	 * Instantiates a new trace policy.
+	 *
+	 * @param retention
+	 *            the retention
+	 * @param parameter
+	 *            the parameter
+	 * @param maximumRows
+	 *            the most rows kept
+	 */
+	private TracePolicy(final Retention retention, final int parameter, final int maximumRows) {
+		this.retention = retention;
+		this.parameter = parameter;
+		this.maximumRows = maximumRows;
+	}
+
+	/**
+	 * Gets the number of rows to preallocate.
+	 *
+	 * @param expectedIterations
+	 *            the expected number of iterations, or -1 if not known
+	 * @return the capacity
+	 */
+	int getCapacity(final long expectedIterations) {
+		final long expected = expectedIterations < 0 ? 1024 : expectedIterations;
+		switch (this.retention) {
+		case FULL:
+			return (int) Math.min(Math.min(expected, TracePolicy.MAXIMUM_PREALLOCATION), this.maximumRows);
+		case EVERY_NTH:
+			return (int) Math.min(Math.min(expected / this.parameter + 1, TracePolicy.MAXIMUM_PREALLOCATION), this.maximumRows);
+		case RING:
+			return this.parameter;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Gets the most rows kept.
+	 *
+	 * @return the maximum rows
+	 */
+	public int getMaximumRows() {
+		return this.maximumRows;
+	}
+
+	/**
+	 * Gets the parameter.
+	 *
+	 * @return N for every-Nth, the capacity for a ring
+	 */
+	public int getParameter() {
+		return this.parameter;
+	}
+
+	/**
+	 * Gets the retention.
+	 *
+	 * @return the retention
+	 */
+	public Retention getRetention() {
+		return this.retention;
+	}
+
+	@Override
+	public String toString() {
+		switch (this.retention) {
+		case FULL:
+			return this.retention + "(at most " + this.maximumRows + ")";
+		case EVERY_NTH:
+			return this.retention + "(" + this.parameter + ", at most " + this.maximumRows + ")";
+		case RING:
+			return this.retention + "(" + this.parameter + ")";
+		default:
+			return this.retention.toString();
+		}
+	}
+}
@@ -0,0 +1,413 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Class TraceRecorder. Keeps the per-iteration history of a run in primitive
+ * columns rather than one object per iteration. Which iterations are kept is
+ * decided by a {@link TracePolicy}; the columns are preallocated from the
+ * expected number of iterations, up to a point, so a short run with a known
+ * length does not resize them. A trace that reaches the most rows its policy
+ * allows thins itself, see {@link TracePolicy}.
+ *
+ * For a problem whose solution is a string of bytes, the bytes each accepted
+ * move changes are kept too (see {@link Problem#traceMove(Object, TraceRecorder)}),
+ * so the accepted solutions can be replayed from the initial one.
+ *
+ * Rows are read back in chronological order with indices 0 to size() - 1.
+ */
+public class TraceRecorder {
+
+	/** The largest array the columns can grow to. */
+	private static final int MAXIMUM_CAPACITY = Integer.MAX_VALUE - 8;
+
+	/**
+	 * Grow. Doubles a capacity, as far as the largest array allows.
+	 *
+	 * @param capacity
+	 *            the capacity
+	 * @return the new capacity, the same if it can grow no further
+	 */
+	private static int grow(final int capacity) {
+		return (int) Math.min(Math.max(16, capacity * 2L), TraceRecorder.MAXIMUM_CAPACITY);
+	}
+
+	/** The accepted flags. */
+	private boolean[] accepted;
+
+	/** The capacity. */
+	private int capacity;
+
+	/** The new character of each change, see {@link #recordChange(int, byte)}. */
+	private byte[] changeCharacters = new byte[0];
+
+	/** The position of each change. */
+	private int[] changePositions = new int[0];
+
+	/** The row of each change. */
+	private int[] changeRows = new int[0];
+
+	/** The number of changes held. */
+	private int changes;
+
+	/** The constraint names, in column order. */
+	private final String[] constraintNames;
+
+	/** The overall fitnesses. */
+	private double[] fitnesses;
+
+	/** The initial solution, for replaying accepted moves. */
+	private byte[] initialSolution;
+
+	/** The iterations. */
+	private long[] iterations;
+
+	/** The policy. */
+	private final TracePolicy policy;
+
+	/** The number of rows held. */
+	private int size;
+
+	/** The index of the oldest row, only moves once a ring has wrapped. */
+	private int start;
+
+	/**
+	 * The iterations kept are multiples of the stride: N for every-Nth, 1 for
+	 * full, doubled each time the trace thins.
+	 */
+	private long stride;
+
+	/** The temperatures. */
+	private double[] temperatures;
+
+	/** Whether any iteration was dropped because of the policy. */
+	private boolean truncated;
+
+	/** The weighted fitnesses per constraint, one column per constraint. */
+	private double[][] weightedFitnesses;
+
+	/**
+	 * Instantiates a new trace recorder.
+	 *
+	 * @param policy
+	 *            the policy
+	 * @param expectedIterations
+	 *            the expected number of iterations, or -1 if not known
+	 * @param constraintNames
+	 *            the constraint names
+	 */
+	public TraceRecorder(final TracePolicy policy, final long expectedIterations, final String... constraintNames) {
+		this.policy = policy;
+		this.constraintNames = constraintNames;
+		this.stride = policy.getRetention() == TracePolicy.Retention.EVERY_NTH ? policy.getParameter() : 1;
+		this.allocate(policy.getCapacity(expectedIterations));
+	}
+
+	/**
+	 * Allocate.
+	 *
+	 * @param newCapacity
+	 *            the new capacity
+	 */
+	private void allocate(final int newCapacity) {
+		this.capacity = newCapacity;
+		this.iterations = this.iterations == null ? new long[newCapacity] : Arrays.copyOf(this.iterations, newCapacity);
+		this.temperatures = this.temperatures == null ? new double[newCapacity] : Arrays.copyOf(this.temperatures, newCapacity);
+		this.fitnesses = this.fitnesses == null ? new double[newCapacity] : Arrays.copyOf(this.fitnesses, newCapacity);
+		this.accepted = this.accepted == null ? new boolean[newCapacity] : Arrays.copyOf(this.accepted, newCapacity);
+		if (this.weightedFitnesses == null) {
+			this.weightedFitnesses = new double[this.constraintNames.length][];
+		}
+		for (int c = 0; c < this.constraintNames.length; c++) {
+			this.weightedFitnesses[c] = this.weightedFitnesses[c] == null ? new double[newCapacity] : Arrays.copyOf(this.weightedFitnesses[c], newCapacity);
+		}
+	}
+
+	/**
+	 * Gets the accepted solutions, rebuilt by replaying every accepted move on the
+	 * initial solution. Only possible when the trace is complete.
+	 *
+	 * @return the accepted solutions, or an empty list if the trace is not
+	 *         complete
+	 */
+	public List<String> getAcceptedSolutions() {
+		final List<String> acceptedSolutions = new ArrayList<>();
+		if (!this.isComplete()) {
+			return acceptedSolutions;
+		}
+		final byte[] solution = this.initialSolution.clone();
+		int change = 0;
+		for (int row = 0; row < this.size; row++) {
+			if (this.accepted[row]) {
+				while (change < this.changes && this.changeRows[change] == row) {
+					solution[this.changePositions[change]] = this.changeCharacters[change];
+					change++;
+				}
+				acceptedSolutions.add(new String(solution, StandardCharsets.ISO_8859_1));
+			}
+		}
+		return acceptedSolutions;
+	}
+
+	/**
+	 * Gets the constraint index.
+	 *
+	 * @param constraintName
+	 *            the constraint name
+	 * @return the constraint index, or -1 if not recorded
+	 */
+	public int getConstraintIndex(final String constraintName) {
+		for (int c = 0; c < this.constraintNames.length; c++) {
+			if (this.constraintNames[c].equals(constraintName)) {
+				return c;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the overall fitness of the candidate at a row.
+	 *
+	 * @param row
+	 *            the row
+	 * @return the fitness
+	 */
+	public double getFitness(final int row) {
+		return this.fitnesses[this.index(row)];
+	}
+
+	/**
+	 * Gets the iteration of a row.
+	 *
+	 * @param row
+	 *            the row
+	 * @return the iteration
+	 */
+	public long getIteration(final int row) {
+		return this.iterations[this.index(row)];
+	}
+
+	/**
+	 * Gets the policy.
+	 *
+	 * @return the policy
+	 */
+	public TracePolicy getPolicy() {
+		return this.policy;
+	}
+
+	/**
+	 * Gets the temperature of a row.
+	 *
+	 * @param row
+	 *            the row
+	 * @return the temperature
+	 */
+	public double getTemperature(final int row) {
+		return this.temperatures[this.index(row)];
+	}
+
+	/**
+	 * Gets the weighted fitness of one constraint for the candidate at a row.
+	 *
+	 * @param row
+	 *            the row
+	 * @param constraintIndex
+	 *            the constraint index, see {@link #getConstraintIndex(String)}
+	 * @return the weighted fitness
+	 */
+	public double getWeightedFitness(final int row, final int constraintIndex) {
+		return this.weightedFitnesses[constraintIndex][this.index(row)];
+	}
+
+	/**
+	 * Index of a row in the columns.
+	 *
+	 * @param row
+	 *            the row
+	 * @return the index
+	 */
+	private int index(final int row) {
+		if (row < 0 || row >= this.size) {
+			throw new IndexOutOfBoundsException("Row " + row + " of " + this.size);
+		}
+		final int index = this.start + row;
+		return index < this.capacity ? index : index - this.capacity;
+	}
+
+	/**
+	 * Checks if accepted.
+	 *
+	 * @param row
+	 *            the row
+	 * @return true, if the move at that row was accepted
+	 */
+	public boolean isAccepted(final int row) {
+		return this.accepted[this.index(row)];
+	}
+
+	/**
+	 * Checks if is complete, i.e. every iteration since the initial solution was
+	 * kept.
+	 *
+	 * @return true, if is complete
+	 */
+	public boolean isComplete() {
+		return this.initialSolution != null && !this.truncated && this.policy.getRetention() == TracePolicy.Retention.FULL;
+	}
+
+	/**
+	 * Checks if is replayable, i.e. the changes of accepted moves are wanted, see
+	 * {@link #recordChange(int, byte)}. A full trace stops being replayable once
+	 * it has thinned.
+	 *
+	 * @return true, if is replayable
+	 */
+	public boolean isReplayable() {
+		return this.initialSolution != null && this.policy.getRetention() == TracePolicy.Retention.FULL && this.stride == 1;
+	}
+
+	/**
+	 * Record an iteration.
+	 *
+	 * @param <S>
+	 *            the type of state
+	 * @param iteration
+	 *            the iteration
+	 * @param temperature
+	 *            the temperature
+	 * @param fitness
+	 *            the overall fitness of the candidate
+	 * @param wasAccepted
+	 *            whether the move was accepted
+	 * @param problem
+	 *            the problem, whose candidate is the move just scored
+	 * @param state
+	 *            the state the move was scored against
+	 */
+	public <S> void record(final long iteration, final double temperature, final double fitness, final boolean wasAccepted, final Problem<S, ?> problem,
+			final S state) {
+		final TracePolicy.Retention retention = this.policy.getRetention();
+		if (retention == TracePolicy.Retention.OFF || retention != TracePolicy.Retention.RING && iteration % this.stride != 0) {
+			this.truncated = true;
+			return;
+		}
+		final int index;
+		if (retention == TracePolicy.Retention.RING) {
+			// once full, overwrite the oldest row
+			if (this.size < this.capacity) {
+				index = this.size++;
+			}
+			else {
+				index = this.start;
+				this.start = this.start + 1 == this.capacity ? 0 : this.start + 1;
+				this.truncated = true;
+			}
+		}
+		else {
+			if (this.size == this.capacity) {
+				final int newCapacity = Math.min(TraceRecorder.grow(this.capacity), this.policy.getMaximumRows());
+				if (newCapacity > this.capacity) {
+					this.allocate(newCapacity);
+				}
+				else {
+					this.thin();
+					if (iteration % this.stride != 0) {
+						return;
+					}
+				}
+			}
+			index = this.size++;
+		}
+		this.iterations[index] = iteration;
+		this.temperatures[index] = temperature;
+		this.fitnesses[index] = fitness;
+		this.accepted[index] = wasAccepted;
+		for (int c = 0; c < this.constraintNames.length; c++) {
+			this.weightedFitnesses[c][index] = problem.getCandidateWeightedFitness(state, c);
+		}
+	}
+
+	/**
+	 * Record a change the move of the last row made, if it was accepted and the
+	 * trace is replayable.
+	 *
+	 * @param position
+	 *            the position
+	 * @param newChar
+	 *            the new char
+	 */
+	public void recordChange(final int position, final byte newChar) {
+		if (this.changes == this.changeRows.length) {
+			final int newLength = TraceRecorder.grow(this.changes);
+			if (newLength == this.changes) {
+				this.truncated = true;
+				return;
+			}
+			this.changeCharacters = Arrays.copyOf(this.changeCharacters, newLength);
+			this.changePositions = Arrays.copyOf(this.changePositions, newLength);
+			this.changeRows = Arrays.copyOf(this.changeRows, newLength);
+		}
+		this.changeRows[this.changes] = this.size - 1;
+		this.changePositions[this.changes] = position;
+		this.changeCharacters[this.changes] = newChar;
+		this.changes++;
+	}
+
+	/**
+	 * Sets the initial solution, which accepted moves are replayed on.
+	 *
+	 * @param initialSolution
+	 *            the initial solution, copied
+	 */
+	public void setInitialSolution(final byte[] initialSolution) {
+		this.initialSolution = initialSolution.clone();
+	}
+
+	/**
+	 * Size.
+	 *
+	 * @return the number of rows held
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Thin. Doubles the stride and keeps only the rows on it, so a full trace
+	 * has room again. The changes of accepted moves can no longer be replayed,
+	 * so are let go.
+	 */
+	private void thin() {
+		do {
+			this.stride *= 2;
+			int kept = 0;
+			for (int row = 0; row < this.size; row++) {
+				if (this.iterations[row] % this.stride == 0) {
+					this.iterations[kept] = this.iterations[row];
+					this.temperatures[kept] = this.temperatures[row];
+					this.fitnesses[kept] = this.fitnesses[row];
+					this.accepted[kept] = this.accepted[row];
+					for (int c = 0; c < this.constraintNames.length; c++) {
+						this.weightedFitnesses[c][kept] = this.weightedFitnesses[c][row];
+					}
+					kept++;
+				}
+			}
+			this.size = kept;
+		}
+		while (this.size == this.capacity);
+		this.truncated = true;
+		this.changes = 0;
+		this.changeCharacters = new byte[0];
+		this.changePositions = new int[0];
+		this.changeRows = new int[0];
+	}
+}
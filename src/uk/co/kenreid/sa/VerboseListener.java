@@ -0,0 +1,45 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.sa;
+
+/**
+ * The Class VerboseListener. Prints a run to the console as it goes: the
+ * initial attempt, every solution accepted, and the best solution at the end.
+ * Added to every run whose context is verbose.
+ */
+public class VerboseListener implements AnnealingListener {
+
+	@Override
+	public void onAccept(final AnnealingEvent<?> event) {
+		System.out.println(event.getSolution());
+	}
+
+	@Override
+	public void onFinish(final AnnealingEvent<?> event) {
+		String recommendation = "";
+		if (event.getFitness() != 1.0) {
+			recommendation = ". It is recommended to run for more iterations to get the correct answer.";
+		}
+		final long dropped = event.getSource().getDroppedEvents();
+		if (dropped > 0) {
+			System.out.println("(" + dropped + " events not shown, the console could not keep up)");
+		}
+		System.out.println("\nAfter " + event.getIteration() + " iterations, this solution was produced (solution directly below for comparison):");
+		System.out.println(event.getSolution());
+		System.out.println(event.getSource().getContext().getProblem());
+		System.out.println("Best fitness: " + event.getFitness() + recommendation + "\n");
+	}
+
+	@Override
+	public void onStart(final AnnealingEvent<?> event) {
+		if (event.getIteration() > 0) {
+			System.out.println("\nResuming at iteration " + event.getIteration() + ", temperature " + event.getTemperature() + ":\n" + event.getSolution());
+			return;
+		}
+		System.out.println("\nInitial attempt:\n" + event.getSolution());
+		System.out.println("Actual solution is:\n" + event.getSource().getContext().getProblem());
+		System.out.println("Initial fitness is: " + event.getFitness());
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.server;
+
+import uk.co.kenreid.dataobjects.Context;
+import uk.co.kenreid.dataobjects.TestParameter;
+import uk.co.kenreid.sa.CancellationToken;
+import uk.co.kenreid.sa.Incumbent;
+import uk.co.kenreid.sa.SimulatedAnnealing;
+import uk.co.kenreid.sa.StringMatchProblem;
+
+/**
+ * The Class Job. One run submitted to the {@link JobServer}, from waiting in the
+ * queue to finished. Its status and best solution so far can be read from any
+ * thread at any time. Once finished, only the outcome is kept, not the run, so
+ * finished jobs take little room beyond their best solution.
+ */
+public class Job implements Runnable {
+
+	/**
+	 * The Enum Status.
+	 */
+	public enum Status {
+
+		/** Cancelled, in the queue or while running. */
+		CANCELLED,
+
+		/** Finished, as the schedule or budget said. */
+		DONE,
+
+		/** Failed with an error. */
+		FAILED,
+
+		/** Waiting in the queue. */
+		QUEUED,
+
+		/** Running. */
+		RUNNING
+	}
+
+	/** The best solution, once finished. */
+	private volatile Incumbent<?> best;
+
+	/** The ctx, until finished. */
+	private volatile Context ctx;
+
+	/** The elapsed time of the run in nanoseconds, once finished. */
+	private volatile long elapsedNanos;
+
+	/** The error, if failed. */
+	private volatile String error;
+
+	/** When the job finished, in milliseconds since the epoch, or 0. */
+	private volatile long finishedMillis;
+
+	/** The id. */
+	private final long id;
+
+	/** The iterations of the run, once finished. */
+	private volatile long iterations;
+
+	/** The params. */
+	private final TestParameter params;
+
+	/** The problem length. */
+	private final int problemLength;
+
+	/** The run, while running. */
+	private volatile SimulatedAnnealing<?, ?> sA;
+
+	/** When the job started, in milliseconds since the epoch, or 0. */
+	private volatile long startedMillis;
+
+	/** The status. */
+	private volatile Status status = Status.QUEUED;
+
+	/** When the job was submitted, in milliseconds since the epoch. */
+	private final long submittedMillis = System.currentTimeMillis();
+
+	/** The token. */
+	private final CancellationToken token = new CancellationToken();
+
+	/**
+	 * Instantiates a new job.
+	 *
+	 * @param id
+	 *            the id
+	 * @param params
+	 *            the params
+	 * @param ctx
+	 *            the ctx, ready to run
+	 */
+	public Job(final long id, final TestParameter params, final Context ctx) {
+		this.id = id;
+		this.params = params;
+		this.ctx = ctx;
+		this.problemLength = ctx.getTarget().length();
+	}
+
+	/**
+	 * Cancel. A queued job will not run; a running one stops at its next check and
+	 * keeps the best solution so far.
+	 */
+	public void cancel() {
+		this.token.cancel();
+	}
+
+	/**
+	 * Finish.
+	 *
+	 * @param finalStatus
+	 *            the final status
+	 */
+	void finish(final Status finalStatus) {
+		this.sA = null;
+		this.ctx = null;
+		this.finishedMillis = System.currentTimeMillis();
+		this.status = finalStatus;
+	}
+
+	/**
+	 * Gets the id.
+	 *
+	 * @return the id
+	 */
+	public long getId() {
+		return this.id;
+	}
+
+	/**
+	 * Gets the best solution so far, or once finished the best of the run.
+	 *
+	 * @return the incumbent, or null if the run has not started yet
+	 */
+	public Incumbent<?> getIncumbent() {
+		final Incumbent<?> finished = this.best;
+		if (finished != null) {
+			return finished;
+		}
+		final SimulatedAnnealing<?, ?> running = this.sA;
+		return running == null ? null : running.getIncumbent();
+	}
+
+	/**
+	 * Gets the params.
+	 *
+	 * @return the params
+	 */
+	public TestParameter getParams() {
+		return this.params;
+	}
+
+	/**
+	 * Gets the status.
+	 *
+	 * @return the status
+	 */
+	public Status getStatus() {
+		return this.status;
+	}
+
+	/**
+	 * Run, on a worker of the server.
+	 */
+	@Override
+	public void run() {
+		if (this.token.isCancelled()) {
+			this.finish(Status.CANCELLED);
+			return;
+		}
+		this.startedMillis = System.currentTimeMillis();
+		try {
+			final SimulatedAnnealing<?, ?> run = new SimulatedAnnealing<>(this.ctx, new StringMatchProblem(this.ctx));
+			this.sA = run;
+			this.status = Status.RUNNING;
+			run.go(this.token);
+			this.best = run.getIncumbent();
+			this.iterations = run.getIterations();
+			this.elapsedNanos = run.getElapsedNanos();
+			this.finish(this.token.isCancelled() ? Status.CANCELLED : Status.DONE);
+		}
+		catch (final RuntimeException e) {
+			System.err.println(e);
+			this.error = e.toString();
+			this.finish(Status.FAILED);
+		}
+	}
+
+	/**
+	 * To json. The status of the job and how its run is going or went, without
+	 * the solution itself, which can be long.
+	 *
+	 * @return the json
+	 */
+	public String toJson() {
+		// the status is read first, so everything written before it was set is seen
+		final Status current = this.status;
+		final Incumbent<?> incumbent = this.getIncumbent();
+		final StringBuilder json = new StringBuilder();
+		json.append("{\"id\":").append(this.id);
+		json.append(",\"status\":").append(Json.quote(current.name()));
+		json.append(",\"seed\":").append(this.params.getSeed());
+		json.append(",\"problemLength\":").append(this.problemLength);
+		json.append(",\"submitted\":").append(this.submittedMillis);
+		json.append(",\"started\":").append(this.startedMillis);
+		json.append(",\"finished\":").append(this.finishedMillis);
+		if (incumbent != null) {
+			json.append(",\"bestFitness\":").append(incumbent.getFitness());
+			json.append(",\"bestIteration\":").append(incumbent.getIteration());
+		}
+		if (current == Status.DONE || current == Status.CANCELLED) {
+			json.append(",\"iterations\":").append(this.iterations);
+			json.append(",\"elapsedMillis\":").append(this.elapsedNanos / 1000000);
+		}
+		if (current == Status.FAILED) {
+			json.append(",\"error\":").append(Json.quote(this.error));
+		}
+		return json.append('}').toString();
+	}
+}
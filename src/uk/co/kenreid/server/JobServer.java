@@ -0,0 +1,477 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import uk.co.kenreid.dataobjects.Context;
+import uk.co.kenreid.dataobjects.TestParameter;
+import uk.co.kenreid.function.XoroshiroRandom;
+import uk.co.kenreid.io.TargetLoader;
+import uk.co.kenreid.sa.Budget;
+import uk.co.kenreid.sa.CoolingSchedule;
+import uk.co.kenreid.sa.FitnessCache;
+import uk.co.kenreid.sa.OperatorSelector;
+import uk.co.kenreid.sa.StringOperators;
+import uk.co.kenreid.sa.TracePolicy;
+
+/**
+ * The Class JobServer. A long-lived server that takes annealing jobs over HTTP
+ * on the loopback interface and runs them on a fixed pool of workers, so every
+ * job after the first has a warm JVM. Jobs wait in a bounded queue; when it is
+ * full a job is turned away with 503 and a Retry-After, rather than piling up.
+ *
+ * <pre>
+ * POST   /jobs                 submit a job, form encoded; 202 with its status
+ * GET    /jobs                 the status of every job kept
+ * GET    /jobs/{id}            the status of a job, with its best fitness so far
+ * GET    /jobs/{id}/solution   the best solution so far, as text
+ * DELETE /jobs/{id}            cancel a job
+ * GET    /status               the workers and the queue
+ * </pre>
+ *
+ * A job takes the settings of a row of the parameter file: temperature and
+ * coolingRate (required), coolingSchedule, sc1 and sc2 weightings,
+ * iterationBudget, timeBudgetMillis, seed, fitnessCacheSize, operators, and the
+ * problem, either as problem or as a problemFile on this machine. Each job is a single
+ * chain; the workers are the parallelism. Nothing is written to disk.
+ */
+public class JobServer {
+
+	/** The default port. */
+	public static final int DEFAULT_PORT = 8080;
+
+	/** The default queue capacity. */
+	public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+	/** The settings a job can have. */
+	private static final Set<String> FIELDS = new HashSet<>(Arrays.asList("coolingRate", "coolingSchedule", "fitnessCacheSize", "iterationBudget",
+			"operators", "problem", "problemFile", "sc1", "sc2", "seed", "temperature", "timeBudgetMillis"));
+
+	/** The largest request body taken. */
+	private static final int MAXIMUM_BODY_BYTES = 16 << 20;
+
+	/** The finished jobs kept for querying; older ones are forgotten. */
+	static final int RETAINED_JOBS = 256;
+
+	/**
+	 * The main method.
+	 *
+	 * @param args
+	 *            the port, the number of workers and the queue capacity, all
+	 *            optional
+	 * @throws IOException
+	 *             if the port cannot be listened on
+	 */
+	public static void main(final String[] args) throws IOException {
+		final int port = args.length > 0 ? Integer.parseInt(args[0]) : JobServer.DEFAULT_PORT;
+		final int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		final int queueCapacity = args.length > 2 ? Integer.parseInt(args[2]) : JobServer.DEFAULT_QUEUE_CAPACITY;
+		final JobServer server = new JobServer(port, workers, queueCapacity);
+		Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+		server.start();
+		System.out.println("Annealing job server on http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + " with "
+				+ workers + " workers and room for " + queueCapacity + " queued jobs.");
+	}
+
+	/**
+	 * Parses a form, i.e. name=value pairs joined by ampersands.
+	 *
+	 * @param form
+	 *            the form, or null
+	 * @param fields
+	 *            the map to add the fields to
+	 * @throws UnsupportedEncodingException
+	 *             never, UTF-8 is always supported
+	 */
+	static void parseForm(final String form, final Map<String, String> fields) throws UnsupportedEncodingException {
+		if (form == null || form.isEmpty()) {
+			return;
+		}
+		for (final String pair : form.split("&")) {
+			if (pair.isEmpty()) {
+				continue;
+			}
+			final int equals = pair.indexOf('=');
+			final String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), "UTF-8");
+			final String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), "UTF-8");
+			fields.put(name, value);
+		}
+	}
+
+	/**
+	 * Read body.
+	 *
+	 * @param in
+	 *            the in
+	 * @return the body
+	 * @throws IOException
+	 *             if it cannot be read, or is too long
+	 */
+	private static String readBody(final InputStream in) throws IOException {
+		final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[8192];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			body.write(buffer, 0, read);
+			if (body.size() > JobServer.MAXIMUM_BODY_BYTES) {
+				throw new IOException("Request body is over " + JobServer.MAXIMUM_BODY_BYTES + " bytes");
+			}
+		}
+		return new String(body.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Send.
+	 *
+	 * @param exchange
+	 *            the exchange
+	 * @param status
+	 *            the HTTP status
+	 * @param contentType
+	 *            the content type
+	 * @param body
+	 *            the body
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static void send(final HttpExchange exchange, final int status, final String contentType, final String body) throws IOException {
+		final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (final OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Send an error, as JSON.
+	 *
+	 * @param exchange
+	 *            the exchange
+	 * @param status
+	 *            the HTTP status
+	 * @param message
+	 *            the message
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private static void sendError(final HttpExchange exchange, final int status, final String message) throws IOException {
+		JobServer.send(exchange, status, "application/json", "{\"error\":" + Json.quote(message) + "}");
+	}
+
+	/** The worker pool, with its bounded queue. */
+	private final ThreadPoolExecutor executor;
+
+	/** The finished jobs kept, oldest first. */
+	private final ArrayDeque<Job> finished = new ArrayDeque<>();
+
+	/** The HTTP server. */
+	private final HttpServer http;
+
+	/** The jobs kept, by id. */
+	private final Map<Long, Job> jobs = new ConcurrentSkipListMap<>();
+
+	/** The id of the next job. */
+	private final AtomicLong nextId = new AtomicLong(1);
+
+	/** The number of jobs turned away as the queue was full. */
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * Instantiates a new job server, on the loopback interface. Not listening
+	 * until {@link #start()}.
+	 *
+	 * @param port
+	 *            the port, or 0 for any free port
+	 * @param workers
+	 *            the number of jobs run at once
+	 * @param queueCapacity
+	 *            the number of jobs that can wait for a worker
+	 * @throws IOException
+	 *             if the port cannot be listened on
+	 */
+	public JobServer(final int port, final int workers, final int queueCapacity) throws IOException {
+		final AtomicInteger workerNumber = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+				runnable -> new Thread(runnable, "annealing-worker-" + workerNumber.incrementAndGet())) {
+
+			@Override
+			protected void afterExecute(final Runnable runnable, final Throwable throwable) {
+				JobServer.this.retire((Job) runnable);
+			}
+		};
+		this.http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		this.http.createContext("/jobs", this::handleJobs);
+		this.http.createContext("/status", this::handleStatus);
+	}
+
+	/**
+	 * Creates a job from the fields of a submission.
+	 *
+	 * @param fields
+	 *            the fields
+	 * @return the job
+	 * @throws IOException
+	 *             if the problem file cannot be loaded
+	 */
+	private Job createJob(final Map<String, String> fields) throws IOException {
+		for (final String name : fields.keySet()) {
+			if (!JobServer.FIELDS.contains(name)) {
+				throw new IllegalArgumentException("Unknown setting: " + name);
+			}
+		}
+		if (!fields.containsKey("temperature") || !fields.containsKey("coolingRate")) {
+			throw new IllegalArgumentException("temperature and coolingRate are required");
+		}
+		final double temperature = Double.parseDouble(fields.get("temperature"));
+		final double coolingRate = Double.parseDouble(fields.get("coolingRate"));
+		final HashMap<String, Double> weightings = new HashMap<>();
+		weightings.put("SC1", Double.valueOf(fields.getOrDefault("sc1", "0.5")));
+		weightings.put("SC2", Double.valueOf(fields.getOrDefault("sc2", "0.5")));
+
+		final Context ctx = new Context();
+		final TestParameter params = new TestParameter(temperature, coolingRate, weightings, fields.getOrDefault("problem", ctx.getProblem()), false);
+		params.setCoolingSchedule(fields.getOrDefault("coolingSchedule", "geometric"));
+		params.setIterationBudget(Long.parseLong(fields.getOrDefault("iterationBudget", "-1")));
+		params.setTimeBudgetMillis(Long.parseLong(fields.getOrDefault("timeBudgetMillis", "-1")));
+		params.setFitnessCacheSize(Integer.parseInt(fields.getOrDefault("fitnessCacheSize", "0")));
+		params.setProblemFile(fields.get("problemFile"));
+		params.setOperators(OperatorSelector.parseNames(fields.get("operators")));
+		// an unknown operator is the client's mistake, so is found now
+		OperatorSelector.create(StringOperators.all(), params.getOperators());
+		// every job is seeded, and the seed reported, so any job can be repeated
+		params.setSeed(fields.containsKey("seed") ? Long.valueOf(fields.get("seed")) : XoroshiroRandom.newSeed());
+
+		if (params.getProblemFile() == null) {
+			ctx.setProblem(params.getProblem());
+		}
+		else {
+			ctx.setTarget(TargetLoader.load(Paths.get(params.getProblemFile())));
+		}
+		if (ctx.getTarget().length() == 0) {
+			throw new IllegalArgumentException("The problem is empty");
+		}
+		ctx.setStartingTemperature(temperature);
+		ctx.setCoolingRate(coolingRate);
+		ctx.setWeightings(weightings);
+		final long timeBudgetMillis = params.getTimeBudgetMillis();
+		final Budget budget = new Budget(params.getIterationBudget(), timeBudgetMillis < 0 ? -1 : timeBudgetMillis * 1000000);
+		ctx.setCoolingSchedule(CoolingSchedule.create(params.getCoolingSchedule(), temperature, coolingRate, budget));
+		ctx.setSeed(params.getSeed());
+		if (params.getFitnessCacheSize() > 0) {
+			ctx.setFitnessCache(new FitnessCache(params.getFitnessCacheSize()));
+		}
+		ctx.setOperators(params.getOperators());
+		// nothing reads the trace of a job, and a full one grows with every iteration
+		ctx.setTracePolicy(TracePolicy.off());
+		return new Job(this.nextId.getAndIncrement(), params, ctx);
+	}
+
+	/**
+	 * Gets the address listened on.
+	 *
+	 * @return the address
+	 */
+	public InetSocketAddress getAddress() {
+		return this.http.getAddress();
+	}
+
+	/**
+	 * Gets a job.
+	 *
+	 * @param id
+	 *            the id
+	 * @return the job, or null if there is none, or it has been forgotten
+	 */
+	public Job getJob(final long id) {
+		return this.jobs.get(id);
+	}
+
+	/**
+	 * Handle a request to /jobs.
+	 *
+	 * @param exchange
+	 *            the exchange
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private void handleJobs(final HttpExchange exchange) throws IOException {
+		try {
+			final String[] path = exchange.getRequestURI().getPath().replaceAll("/+$", "").split("/");
+			final String method = exchange.getRequestMethod();
+			// path is "", "jobs", then the id and "solution", if given
+			if (path.length == 2) {
+				if (method.equals("POST")) {
+					this.submit(exchange);
+				}
+				else if (method.equals("GET")) {
+					final StringBuilder json = new StringBuilder("[");
+					for (final Job job : this.jobs.values()) {
+						json.append(json.length() == 1 ? "" : ",").append(job.toJson());
+					}
+					JobServer.send(exchange, 200, "application/json", json.append(']').toString());
+				}
+				else {
+					JobServer.sendError(exchange, 405, "Use GET or POST");
+				}
+				return;
+			}
+
+			final Job job = path.length <= 4 ? this.jobs.get(Long.valueOf(path[2])) : null;
+			if (job == null) {
+				JobServer.sendError(exchange, 404, "No such job");
+			}
+			else if (path.length == 4 && path[3].equals("solution") && method.equals("GET")) {
+				if (job.getIncumbent() == null) {
+					JobServer.sendError(exchange, 404, "No solution yet");
+				}
+				else {
+					JobServer.send(exchange, 200, "text/plain; charset=ISO-8859-1", job.getIncumbent().getSolution());
+				}
+			}
+			else if (path.length == 3 && method.equals("GET")) {
+				JobServer.send(exchange, 200, "application/json", job.toJson());
+			}
+			else if (path.length == 3 && method.equals("DELETE")) {
+				job.cancel();
+				// a job still queued is taken off the queue, rather than left to a worker to skip
+				if (this.executor.remove(job)) {
+					job.finish(Job.Status.CANCELLED);
+					this.retire(job);
+				}
+				JobServer.send(exchange, 202, "application/json", job.toJson());
+			}
+			else {
+				JobServer.sendError(exchange, 404, "No such resource");
+			}
+		}
+		catch (final IllegalArgumentException e) {
+			JobServer.sendError(exchange, 400, e.getMessage());
+		}
+		catch (final IOException e) {
+			System.err.println(e);
+			JobServer.sendError(exchange, 400, e.toString());
+		}
+		catch (final RuntimeException e) {
+			// anything else is the server's fault, but still gets an answer
+			System.err.println(e);
+			JobServer.sendError(exchange, 500, e.toString());
+		}
+	}
+
+	/**
+	 * Handle a request to /status.
+	 *
+	 * @param exchange
+	 *            the exchange
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private void handleStatus(final HttpExchange exchange) throws IOException {
+		final String json = "{\"workers\":" + this.executor.getMaximumPoolSize() + ",\"running\":" + this.executor.getActiveCount() + ",\"queued\":"
+				+ this.executor.getQueue().size() + ",\"queueCapacity\":" + (this.executor.getQueue().size() + this.executor.getQueue().remainingCapacity())
+				+ ",\"completed\":" + this.executor.getCompletedTaskCount() + ",\"rejected\":" + this.rejected.sum() + ",\"jobsKept\":" + this.jobs.size() + "}";
+		JobServer.send(exchange, 200, "application/json", json);
+	}
+
+	/**
+	 * Retire a finished job, forgetting the oldest finished jobs beyond those
+	 * kept.
+	 *
+	 * @param job
+	 *            the job
+	 */
+	private synchronized void retire(final Job job) {
+		this.finished.addLast(job);
+		while (this.finished.size() > JobServer.RETAINED_JOBS) {
+			this.jobs.remove(this.finished.removeFirst().getId());
+		}
+	}
+
+	/**
+	 * Start listening.
+	 */
+	public void start() {
+		this.http.start();
+	}
+
+	/**
+	 * Stop. No more jobs are taken, queued jobs are cancelled and dropped and
+	 * running ones cancelled; waits a little for them to stop.
+	 */
+	public void stop() {
+		this.http.stop(0);
+		for (final Job job : this.jobs.values()) {
+			job.cancel();
+		}
+		// jobs never taken off the queue would otherwise stay QUEUED for good
+		for (final Runnable queued : this.executor.shutdownNow()) {
+			final Job job = (Job) queued;
+			job.finish(Job.Status.CANCELLED);
+			this.retire(job);
+		}
+		try {
+			this.executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Submit a job, turning it away if the queue is full.
+	 *
+	 * @param exchange
+	 *            the exchange
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private void submit(final HttpExchange exchange) throws IOException {
+		final Map<String, String> fields = new HashMap<>();
+		JobServer.parseForm(exchange.getRequestURI().getRawQuery(), fields);
+		JobServer.parseForm(JobServer.readBody(exchange.getRequestBody()), fields);
+		final Job job = this.createJob(fields);
+		this.jobs.put(job.getId(), job);
+		try {
+			this.executor.execute(job);
+		}
+		catch (final RejectedExecutionException e) {
+			this.jobs.remove(job.getId());
+			this.rejected.increment();
+			exchange.getResponseHeaders().set("Retry-After", "1");
+			JobServer.sendError(exchange, 503, "The queue is full, try again later");
+			return;
+		}
+		exchange.getResponseHeaders().set("Location", "/jobs/" + job.getId());
+		JobServer.send(exchange, 202, "application/json", job.toJson());
+	}
+}
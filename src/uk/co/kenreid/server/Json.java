@@ -0,0 +1,60 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.server;
+
+/**
+ * The Class Json. Just enough JSON for the job server's replies.
+ */
+final class Json {
+
+	/**
+	 * Quote. A string as a JSON string, or null.
+	 *
+	 * @param value
+	 *            the value, or null
+	 * @return the JSON
+	 */
+	static String quote(final String value) {
+		if (value == null) {
+			return "null";
+		}
+		final StringBuilder json = new StringBuilder(value.length() + 2);
+		json.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				json.append("\\\"");
+				break;
+			case '\\':
+				json.append("\\\\");
+				break;
+			case '\n':
+				json.append("\\n");
+				break;
+			case '\r':
+				json.append("\\r");
+				break;
+			case '\t':
+				json.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					json.append(String.format("\\u%04x", (int) c));
+				}
+				else {
+					json.append(c);
+				}
+			}
+		}
+		return json.append('"').toString();
+	}
+
+	/**
+	 * Instantiates a new json.
+	 */
+	private Json() {
+	}
+}
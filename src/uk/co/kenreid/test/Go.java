@@ -4,6 +4,7 @@
  */
 package uk.co.kenreid.test;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Scanner;
 
@@ -48,18 +49,27 @@ public class Go {
 		}
 
 		/*
-		 * In this example only 1 is tested, left in the reading capability for multiple
-		 * parameter lines since most programmers will want to run a number of parameter
-		 * settings.
+		 * A single parameter line is run as before. Multiple lines are run as a
+		 * sweep, several at once, each with its own output folder.
 		 */
 		final List<TestParameter> tPs = input.readParameters();
-		final TestParameter tP = tPs.get(0);
 
 		/*
 		 * Begin!
 		 */
-		final Test test = new Test(tP);
-		test.go();
+		if (tPs.size() > 1) {
+			final Sweep sweep = new Sweep(tPs, Runtime.getRuntime().availableProcessors());
+			sweep.go();
+		}
+		else {
+			final Test test = new Test(tPs.get(0));
+			try {
+				test.go();
+			}
+			catch (final IOException e) {
+				System.err.println(e);
+			}
+		}
 	}
 
 	private void prepUser() {
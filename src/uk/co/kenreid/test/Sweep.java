@@ -0,0 +1,115 @@
+/*
+ * E: Ken@kenreid.co.uk
+ *
+ */
+package uk.co.kenreid.test;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import uk.co.kenreid.dataobjects.TestParameter;
+import uk.co.kenreid.dataobjects.TestResult;
+import uk.co.kenreid.io.SummaryOutput;
+
+/**
+ * The Class Sweep. Runs every row of the parameter file at once on a bounded
+ * pool of workers. Each row is a separate {@link Test}, so gets its own
+ * Context and its own output folder; once all rows are done a single summary
+ * table is written alongside them, with any row that failed and why.
+ *
+ * The workers bound the chains running at once, not the rows: a row with
+ * several chains takes a worker for each (up to all of them) before it starts,
+ * so rows of many chains do not each start a thread per core.
+ */
+public class Sweep {
+
+	/** The directory for this sweep. */
+	private final String directory;
+
+	/** The parameters, one per row. */
+	private final List<TestParameter> tPs;
+
+	/** The workers, i.e. the most chains running at once. */
+	private final int workers;
+
+	/**
+	 * Instantiates a new sweep.
+	 *
+	 * @param tPs
+	 *            the parameters, one per row
+	 * @param workers
+	 *            the maximum number of chains run at once
+	 */
+	public Sweep(final List<TestParameter> tPs, final int workers) {
+		this.tPs = tPs;
+		this.workers = Math.max(1, workers);
+		this.directory = "data/output/" + new SimpleDateFormat("yyyy.MM.dd-HH.mm.ss").format(new Date()) + " sweep";
+	}
+
+	/**
+	 * Gets the directory for this sweep.
+	 *
+	 * @return the directory
+	 */
+	public String getDirectory() {
+		return this.directory;
+	}
+
+	/**
+	 * Go. Blocks until every row is done. A row that fails is reported in the
+	 * summary, and the rest carry on.
+	 *
+	 * @return the results, in row order
+	 */
+	public List<TestResult> go() {
+		final ExecutorService pool = Executors.newFixedThreadPool(Math.min(this.workers, this.tPs.size()));
+		final Semaphore cores = new Semaphore(this.workers, true);
+		final List<TestResult> results = new ArrayList<>();
+		try {
+			final List<Future<TestResult>> futures = new ArrayList<>();
+			for (int i = 0; i < this.tPs.size(); i++) {
+				final int row = i + 1;
+				final int threads = Math.max(1, Math.min(this.tPs.get(i).getChains(), this.workers));
+				final Test test = new Test(this.tPs.get(i), row, this.directory + "/row " + row, threads);
+				futures.add(pool.submit(() -> {
+					cores.acquire(threads);
+					try {
+						return test.go();
+					}
+					finally {
+						cores.release(threads);
+					}
+				}));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					results.add(futures.get(i).get());
+				}
+				catch (final ExecutionException e) {
+					System.err.println(e.getCause());
+					results.add(new TestResult(i + 1, this.tPs.get(i), String.valueOf(e.getCause())));
+				}
+			}
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			System.err.println(e);
+		}
+		finally {
+			pool.shutdown();
+		}
+
+		new SummaryOutput(this.directory).outputXLSXSummary(results);
+		for (final TestResult result : results) {
+			System.out.println(result);
+		}
+		return results;
+	}
+}
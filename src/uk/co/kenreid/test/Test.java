@@ -4,25 +4,57 @@
  */
 package uk.co.kenreid.test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 
+import uk.co.kenreid.dataobjects.ChainStatistics;
 import uk.co.kenreid.dataobjects.Context;
 import uk.co.kenreid.dataobjects.TestParameter;
+import uk.co.kenreid.dataobjects.TestResult;
 import uk.co.kenreid.function.Function;
+import uk.co.kenreid.function.XoroshiroRandom;
 import uk.co.kenreid.io.Output;
+import uk.co.kenreid.io.TargetLoader;
+import uk.co.kenreid.sa.Budget;
+import uk.co.kenreid.sa.Checkpoint;
+import uk.co.kenreid.sa.CoolingSchedule;
+import uk.co.kenreid.sa.FitnessCache;
+import uk.co.kenreid.sa.MultiStartAnnealing;
+import uk.co.kenreid.sa.MultiStartResult;
 import uk.co.kenreid.sa.SimulatedAnnealing;
+import uk.co.kenreid.sa.StringEdit;
+import uk.co.kenreid.sa.StringMatchProblem;
+import uk.co.kenreid.sa.TracePolicy;
 
 /**
  * The Class Test. Receives input, begins SA, calls output.
  */
 public class Test {
 
+	/** The number of independent chains. */
+	private final int chains;
+
 	/** The cooling rate. */
 	private double coolingRate;
 
 	/** The function. */
 	Function function = new uk.co.kenreid.function.Function();
 
+	/** The output directory. */
+	private final String outputDirectory;
+
+	/** The most threads the chains run on at once. */
+	private final int parallelism;
+
+	/** The params. */
+	private final TestParameter params;
+
+	/** The row of the parameter file. */
+	private final int row;
+
 	/** The starting temperature. */
 	private double startingTemperature;
 
@@ -39,10 +71,46 @@ public class Test {
 	 *            the params
 	 */
 	public Test(final TestParameter params) {
+		this(params, 1, "data/output");
+	}
+
+	/**
+	 * Instantiates a new test for one row of a sweep.
+	 *
+	 * @param params
+	 *            the params
+	 * @param row
+	 *            the row of the parameter file
+	 * @param outputDirectory
+	 *            the output directory
+	 */
+	public Test(final TestParameter params, final int row, final String outputDirectory) {
+		this(params, row, outputDirectory, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Instantiates a new test for one row of a sweep, sharing the machine with
+	 * other rows.
+	 *
+	 * @param params
+	 *            the params
+	 * @param row
+	 *            the row of the parameter file
+	 * @param outputDirectory
+	 *            the output directory
+	 * @param parallelism
+	 *            the most threads the chains run on at once
+	 */
+	public Test(final TestParameter params, final int row, final String outputDirectory, final int parallelism) {
+		this.params = params;
+		this.parallelism = parallelism;
+		this.row = row;
+		this.outputDirectory = outputDirectory;
 		this.startingTemperature = params.getStartingTemperature();
 		this.coolingRate = params.getCoolingRate();
 		this.weightingsPerConstraint = params.getWeightingsPerConstraint();
 		this.verbose = params.isVerbose();
+		this.chains = params.getChains();
 	}
 
 	/**
@@ -74,8 +142,12 @@ public class Test {
 
 	/**
 	 * Go.
+	 *
+	 * @return the result
+	 * @throws IOException
+	 *             if the problem file or the checkpoint of the run cannot be read
 	 */
-	void go() {
+	TestResult go() throws IOException {
 
 		/*
 		 * Record start time.
@@ -86,28 +158,75 @@ public class Test {
 		 * Context is a nice place to store some parameters.
 		 */
 		final Context ctx = new Context();
+		this.prepareTarget(ctx);
 		ctx.setStartingTemperature(this.startingTemperature);
 		ctx.setCoolingRate(this.coolingRate);
 		ctx.setVerbose(this.verbose);
 		// We can weight parameters in this example to have preference for one or the
 		// other. By default these will be equal.
 		ctx.setWeightings(this.weightingsPerConstraint);
+		// The cooling schedule and budget decide how long the run takes.
+		final long timeBudgetMillis = this.params.getTimeBudgetMillis();
+		final Budget budget = new Budget(this.params.getIterationBudget(), timeBudgetMillis < 0 ? -1 : timeBudgetMillis * 1000000);
+		ctx.setCoolingSchedule(CoolingSchedule.create(this.params.getCoolingSchedule(), this.startingTemperature, this.coolingRate, budget));
+		// Every run is seeded, and the seed reported, so any run can be repeated.
+		final long seed = this.params.getSeed() == null ? XoroshiroRandom.newSeed() : this.params.getSeed();
+		ctx.setSeed(seed);
+		System.out.println("Seed: " + seed);
+		// An optional fitness cache, shared by every chain of the run.
+		if (this.params.getFitnessCacheSize() > 0) {
+			ctx.setFitnessCache(new FitnessCache(this.params.getFitnessCacheSize()));
+		}
+		// Optional move operators for the run to pick between as it goes.
+		ctx.setOperators(this.params.getOperators());
+		// How much of the run's history is kept, bounded whatever the policy.
+		ctx.setTracePolicy(TracePolicy.create(this.params.getTracePolicy()));
 
 		/*
-		 * Begin algorithm proper.
+		 * Begin algorithm proper. With more than one chain, independent chains run
+		 * in parallel and the best one is output.
 		 */
-		final SimulatedAnnealing sA = new SimulatedAnnealing(ctx);
-		sA.go();
+		final StringMatchProblem problem = new StringMatchProblem(ctx);
+		final SimulatedAnnealing<StringMatchProblem.State, StringEdit> sA;
+		if (this.chains > 1) {
+			if (this.params.getCheckpointFile() != null) {
+				System.err.println("Checkpoints are of a single run, so are not taken with " + this.chains + " chains.");
+			}
+			final MultiStartResult<StringMatchProblem.State, StringEdit> result = new MultiStartAnnealing<>(ctx, problem, this.chains, this.parallelism).go();
+			for (final ChainStatistics statistics : result.getChainStatistics()) {
+				System.out.println(statistics);
+			}
+			System.out.println("Best chain: " + result.getBestChain());
+			sA = result.getBest();
+		}
+		else {
+			sA = new SimulatedAnnealing<>(ctx, problem);
+			final Checkpoint checkpoint = this.prepareCheckpoint(ctx);
+			if (checkpoint == null) {
+				sA.go();
+			}
+			else {
+				System.out.println("Resuming from " + checkpoint);
+				sA.resume(checkpoint);
+			}
+		}
 
 		final long end = System.currentTimeMillis();
 
+		if (ctx.getFitnessCache() != null) {
+			System.out.println(ctx.getFitnessCache());
+		}
+		if (sA.getOperatorSelector() != null) {
+			System.out.print(sA.getOperatorSelector());
+		}
+
 		System.out.println("Outputting results...");
 
 		/*
 		 * Output some runtime data. Currently outputs some xlsx files, but can be
 		 * easily converted to CSV or JSON etc.
 		 */
-		final Output output = new Output(sA, ctx, sA.getCurrentSolution());
+		final Output output = new Output(sA, sA.getContext(), sA.getBestSolution(), this.outputDirectory);
 		output.outputAll();
 
 		final long realEnd = System.currentTimeMillis();
@@ -117,6 +236,51 @@ public class Test {
 		 */
 
 		System.out.println("Completed sA after " + (end / 1000 - start / 1000) + " seconds. Completed output after " + (realEnd / 1000 - end / 1000));
+
+		return new TestResult(this.row, this.params, seed, sA.getFinalFitness(), sA.getIterations(), end - start, realEnd - end);
+	}
+
+	/**
+	 * Prepare checkpoint. Points the run at its checkpoint file, if it has one,
+	 * and reads the checkpoint already there, if any, to resume from. A
+	 * checkpoint that cannot be read fails the run, rather than have it start
+	 * afresh and write over it.
+	 *
+	 * @param ctx
+	 *            the ctx
+	 * @return the checkpoint to resume from, or null to start afresh
+	 * @throws IOException
+	 *             if the checkpoint cannot be read
+	 */
+	private Checkpoint prepareCheckpoint(final Context ctx) throws IOException {
+		if (this.params.getCheckpointFile() == null) {
+			return null;
+		}
+		final Path checkpointFile = Paths.get(this.params.getCheckpointFile());
+		ctx.setCheckpointFile(checkpointFile);
+		if (!Files.exists(checkpointFile)) {
+			return null;
+		}
+		return Checkpoint.read(checkpointFile);
+	}
+
+	/**
+	 * Prepare target. Loads the problem file, if there is one, which every chain
+	 * then shares; otherwise the problem is the one given. A problem file that
+	 * cannot be read fails the run, rather than have it solve the wrong problem.
+	 *
+	 * @param ctx
+	 *            the ctx
+	 * @throws IOException
+	 *             if the problem file cannot be read
+	 */
+	private void prepareTarget(final Context ctx) throws IOException {
+		if (this.params.getProblemFile() == null) {
+			ctx.setProblem(this.params.getProblem());
+			return;
+		}
+		ctx.setTarget(TargetLoader.load(Paths.get(this.params.getProblemFile())));
+		System.out.println("Problem: " + this.params.getProblemFile() + " (" + ctx.getTarget().length() + " characters)");
 	}
 
 	/**